@@ -0,0 +1,154 @@
+package net.lamgc.utils.event;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 自适应隔离.
+ * <p>定期根据事件方法运行指标中记录的执行时间, 计算每个事件方法在检查周期内的平均执行时间,
+ * 连续{@link #CONSECUTIVE_WINDOWS}个周期超过阈值的事件方法将被迁移到隔离执行器,
+ * 已隔离的事件方法连续{@link #CONSECUTIVE_WINDOWS}个周期低于阈值的一半时将迁回线程池.
+ * 调用次数少于{@link #MIN_SAMPLES}的周期不参与判断. 检查在时间轮线程中进行.</p>
+ * <p>已执行超过阈值但尚未结束的调用以其已执行时间计入平均执行时间, 且存在这样的调用时不要求最少调用次数,
+ * 因此长时间阻塞而无法结束的事件方法同样会被隔离.</p>
+ */
+final class AdaptiveIsolation {
+
+    /**
+     * 迁移所需的连续周期数.
+     */
+    final static int CONSECUTIVE_WINDOWS = 3;
+
+    /**
+     * 参与判断的周期所需的最少调用次数.
+     */
+    final static int MIN_SAMPLES = 10;
+
+    private final Executor executor;
+
+    private final long thresholdNanos;
+
+    private final long intervalNanos;
+
+    private final Supplier<Collection<HandlerMethod>> handlerMethods;
+
+    private final DelayedTaskScheduler scheduler;
+
+    /**
+     * 各事件方法的检查状态, 只在时间轮线程中访问.
+     */
+    private Map<HandlerMethod, Window> windowMap = new IdentityHashMap<>();
+
+    private volatile boolean stopped;
+
+    AdaptiveIsolation(Executor executor, long thresholdNanos, long intervalNanos,
+                      Supplier<Collection<HandlerMethod>> handlerMethods, DelayedTaskScheduler scheduler) {
+        this.executor = executor;
+        this.thresholdNanos = thresholdNanos;
+        this.intervalNanos = intervalNanos;
+        this.handlerMethods = handlerMethods;
+        this.scheduler = scheduler;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 开始定期检查.
+     */
+    void start() {
+        scheduler.schedule(this::check, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 停止定期检查, 并将所有已隔离的事件方法迁回线程池.
+     */
+    void stop() {
+        stopped = true;
+        for (HandlerMethod handlerMethod : handlerMethods.get()) {
+            handlerMethod.setIsolated(false);
+        }
+    }
+
+    private void check() {
+        if(stopped) {
+            return;
+        }
+        try {
+            Map<HandlerMethod, Window> newWindowMap = new IdentityHashMap<>();
+            for (HandlerMethod handlerMethod : handlerMethods.get()) {
+                Window window = windowMap.get(handlerMethod);
+                if(window == null) {
+                    window = new Window();
+                }
+                newWindowMap.put(handlerMethod, window);
+                update(handlerMethod, window);
+            }
+            windowMap = newWindowMap;
+        } finally {
+            try {
+                scheduler.schedule(this::check, intervalNanos, TimeUnit.NANOSECONDS);
+            } catch (IllegalStateException e) {
+                // 时间轮已停止.
+                stopped = true;
+            }
+        }
+    }
+
+    /**
+     * 根据周期内的平均执行时间更新事件方法的隔离状态.
+     * @param handlerMethod 事件方法
+     * @param window 事件方法的检查状态
+     */
+    private void update(HandlerMethod handlerMethod, Window window) {
+        long invocations = 0;
+        long executionTime = 0;
+        for (MethodMetrics metrics : handlerMethod.getAllMetrics()) {
+            invocations += metrics.getInvocations();
+            executionTime += metrics.getExecutionTimeSum();
+        }
+        long windowInvocations = invocations - window.invocations;
+        long windowExecutionTime = executionTime - window.executionTime;
+        window.invocations = invocations;
+        window.executionTime = executionTime;
+        if(windowExecutionTime < 0) {
+            // 运行指标已被重置.
+            return;
+        }
+        int overdueCount = 0;
+        for (HandlerInvocation invocation : handlerMethod.getInFlightInvocations()) {
+            long elapsed = invocation.getElapsedNanos();
+            if(elapsed > thresholdNanos) {
+                overdueCount++;
+                windowInvocations++;
+                windowExecutionTime += elapsed;
+            }
+        }
+        if(windowInvocations == 0 || (overdueCount == 0 && windowInvocations < MIN_SAMPLES)) {
+            // 样本不足.
+            return;
+        }
+        long mean = windowExecutionTime / windowInvocations;
+        boolean isolated = handlerMethod.isIsolated();
+        if(isolated ? mean < thresholdNanos / 2 : mean > thresholdNanos) {
+            if(++window.streak >= CONSECUTIVE_WINDOWS) {
+                handlerMethod.setIsolated(!isolated);
+                window.streak = 0;
+            }
+        } else {
+            window.streak = 0;
+        }
+    }
+
+    private final static class Window {
+        long invocations;
+        long executionTime;
+        int streak;
+    }
+
+}
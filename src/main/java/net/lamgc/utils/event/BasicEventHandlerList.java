@@ -2,23 +2,30 @@ package net.lamgc.utils.event;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.HashSet;
-import java.util.Hashtable;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BasicEventHandlerList implements EventHandlerList {
 
-    private final Hashtable<Class<? extends EventObject>, HashSet<Method>> eventMethodMap = new Hashtable<>();
+    private final static Method[] EMPTY_METHODS = new Method[0];
+
+    private final Map<Class<? extends EventObject>, Set<Method>> eventMethodMap = new ConcurrentHashMap<>();
+
+    /**
+     * 以事件对象Class为键的事件方法缓存.
+     * <p>缓存值为已按继承关系解析完成的事件方法数组, 无事件方法的事件类型将缓存空数组.
+     * 事件方法发生变动时将替换为新的缓存对象, 以使缓存失效.</p>
+     */
+    private volatile ClassValue<Method[]> dispatchCache = newDispatchCache();
 
     @Override
     public Set<Method> getEventHandlerMethod(final Class<? extends EventObject> eventObject) {
-        HashSet<Method> methods = new HashSet<>();
-        eventMethodMap.keySet().forEach(clazz -> {
-            if(clazz.isAssignableFrom(eventObject)) {
-                methods.addAll(eventMethodMap.get(clazz));
-            }
-        });
-        return methods;
+        return new HashSet<>(Arrays.asList(getEventHandlerMethods(eventObject)));
+    }
+
+    @Override
+    public Method[] getEventHandlerMethods(Class<? extends EventObject> eventObject) {
+        return dispatchCache.get(eventObject);
     }
 
     @Override
@@ -32,38 +39,58 @@ public class BasicEventHandlerList implements EventHandlerList {
 
         Method[] methods = eventHandler.getDeclaredMethods();
         for(Method method : methods){
-            Class<?>[] parameterTypes = method.getParameterTypes();
             if(!EventExecutor.checkMethod(method)) {
                 continue;
             }
-            addEventHandlerMethod(parameterTypes[0].asSubclass(EventObject.class), method);
+            addEventHandlerMethod(EventExecutor.getEventType(method), method);
         }
     }
 
     @Override
-    public void addEventHandlerMethod(Class<? extends EventObject> eventObject, Method eventHandlerMethod) {
-        if(!eventMethodMap.containsKey(eventObject)){
-            eventMethodMap.put(eventObject, new HashSet<>());
+    public synchronized void addEventHandlerMethod(Class<? extends EventObject> eventObject, Method eventHandlerMethod) {
+        if(eventMethodMap.computeIfAbsent(eventObject, key -> ConcurrentHashMap.newKeySet()).add(eventHandlerMethod)) {
+            dispatchCache = newDispatchCache();
         }
-        eventMethodMap.get(eventObject).add(eventHandlerMethod);
     }
 
     @Override
-    public void removeEventHandler(Class<? extends EventHandler> handler) {
+    public synchronized void removeEventHandler(Class<? extends EventHandler> handler) {
+        boolean changed = false;
         Method[] methods = handler.getDeclaredMethods();
         for(Method method : methods){
-            int modifiers = method.getModifiers();
-            if(!Modifier.isPublic(modifiers)){
+            if(!EventExecutor.checkMethod(method)){
                 continue;
             }
-            Class<?>[] parameterTypes = method.getParameterTypes();
-            if(parameterTypes.length != 1){
-                continue;
+            Class<? extends EventObject> eventType = EventExecutor.getEventType(method);
+            Set<Method> methodSet = eventMethodMap.get(eventType);
+            if(methodSet != null && methodSet.remove(method)) {
+                changed = true;
+                if(methodSet.isEmpty()) {
+                    eventMethodMap.remove(eventType);
+                }
             }
-            if(!EventObject.class.isAssignableFrom(parameterTypes[0])){
-                continue;
-            }
-            eventMethodMap.get(parameterTypes[0]).remove(method);
         }
+        if(changed) {
+            dispatchCache = newDispatchCache();
+        }
+    }
+
+    /**
+     * 创建新的事件方法缓存.
+     * @return 返回空的事件方法缓存对象
+     */
+    private ClassValue<Method[]> newDispatchCache() {
+        return new ClassValue<Method[]>() {
+            @Override
+            protected Method[] computeValue(Class<?> type) {
+                Set<Method> methods = new LinkedHashSet<>();
+                eventMethodMap.forEach((clazz, methodSet) -> {
+                    if(clazz.isAssignableFrom(type)) {
+                        methods.addAll(methodSet);
+                    }
+                });
+                return methods.isEmpty() ? EMPTY_METHODS : methods.toArray(EMPTY_METHODS);
+            }
+        };
     }
 }
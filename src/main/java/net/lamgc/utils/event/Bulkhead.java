@@ -0,0 +1,32 @@
+package net.lamgc.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.Executor;
+
+/**
+ * 将事件方法的投递分配到指定名称的隔离执行器.
+ * <p>隔离执行器通过{@link EventExecutor#registerBulkhead(String, Executor)}注册,
+ * 标注了该注解的事件方法的投递将提交到对应的隔离执行器, 而不是执行器的线程池,
+ * 使执行缓慢或阻塞的事件方法不会占满线程池而影响其他事件方法. 如尚未注册对应名称的执行器, 投递将提交到线程池.</p>
+ * <p>串行投递的EventHandler对象及分区事件({@link PartitionedEventObject})的投递依然按原有顺序执行,
+ * 轮到该投递时才提交到隔离执行器, 执行期间串行邮箱或分区通道暂停执行后续投递, 但不占用线程等待.</p>
+ * <p>注意:</p>
+ * <ol>
+ *     <li>启用虚拟线程模式时, 投递依然在虚拟线程中执行;</li>
+ *     <li>隔离执行器由使用者管理, 执行器关闭时不会关闭隔离执行器.</li>
+ * </ol>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    /**
+     * 隔离执行器名称.
+     * @return 返回隔离执行器名称
+     */
+    String value();
+
+}
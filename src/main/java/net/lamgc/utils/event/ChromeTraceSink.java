@@ -0,0 +1,162 @@
+package net.lamgc.utils.event;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 以Chrome追踪事件格式写入文件的追踪跨度接收器.
+ * <p>每个跨度写入为一个完整事件({@code "ph":"X"}), 追踪Id, 跨度Id和父跨度Id等信息写入{@code args},
+ * 生成的文件可在{@code chrome://tracing}或Perfetto中打开进行离线分析.
+ * 写入经过缓冲, 关闭接收器后文件才是完整的JSON数组, 但未关闭的文件同样可以被上述工具读取.</p>
+ */
+public class ChromeTraceSink implements TraceSink, Flushable, Closeable {
+
+    private final Writer writer;
+
+    /**
+     * 已写入线程名元数据的线程Id, 由this保护.
+     */
+    private final Set<Long> namedThreads = new HashSet<>();
+
+    private boolean firstEvent = true;
+
+    private boolean closed;
+
+    /**
+     * 构造写入指定文件的接收器, 文件已存在时将被覆盖.
+     * @param file 追踪文件
+     * @throws IOException 当文件无法打开时抛出
+     */
+    public ChromeTraceSink(File file) throws IOException {
+        this(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 构造写入指定Writer的接收器.
+     * @param writer 输出的Writer, 将在关闭接收器时关闭
+     * @throws IOException 当写入失败时抛出
+     */
+    public ChromeTraceSink(Writer writer) throws IOException {
+        this.writer = new BufferedWriter(Objects.requireNonNull(writer));
+        this.writer.write("[\n");
+    }
+
+    @Override
+    public synchronized void onSpan(TraceSpan span) {
+        if(closed) {
+            return;
+        }
+        StringBuilder builder = new StringBuilder(256);
+        if(namedThreads.add(span.getThreadId())) {
+            appendSeparator(builder);
+            builder.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(span.getThreadId())
+                    .append(",\"args\":{\"name\":");
+            appendString(builder, span.getThreadName());
+            builder.append("}}");
+        }
+        appendSeparator(builder);
+        builder.append("{\"name\":");
+        appendString(builder, span.getName());
+        builder.append(",\"cat\":");
+        appendString(builder, span.getCategory());
+        builder.append(",\"ph\":\"X\",\"ts\":").append(toMicros(span.getStartTimeNanos()))
+                .append(",\"dur\":").append(toMicros(span.getDurationNanos()))
+                .append(",\"pid\":1,\"tid\":").append(span.getThreadId())
+                .append(",\"args\":{\"traceId\":\"").append(span.getTraceId())
+                .append("\",\"spanId\":\"").append(span.getSpanId()).append('"');
+        if(span.getParentSpanId() != null) {
+            builder.append(",\"parentSpanId\":\"").append(span.getParentSpanId()).append('"');
+        }
+        builder.append(",\"eventType\":");
+        appendString(builder, span.getEventType());
+        builder.append(",\"failed\":").append(span.isFailed()).append("}}");
+        try {
+            writer.write(builder.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendSeparator(StringBuilder builder) {
+        if(firstEvent) {
+            firstEvent = false;
+        } else {
+            builder.append(",\n");
+        }
+    }
+
+    private static String toMicros(long nanos) {
+        return nanos / 1000 + "." + String.format("%03d", nanos % 1000);
+    }
+
+    private static void appendString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if(c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+
+    /**
+     * 将缓冲的追踪事件写入文件.
+     * @throws IOException 当写入失败时抛出
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if(!closed) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * 结束JSON数组并关闭文件, 之后的跨度将被忽略.
+     * @throws IOException 当写入或关闭失败时抛出
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.write("\n]\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可合并的事件对象.
+ * <p>为事件类型设置了{@link EventExecutor#setCoalescing(Class, long, TimeUnit, java.util.function.BinaryOperator)}后,
+ * 合并键相同的事件在合并窗口内, 或在先前的事件尚未开始投递时, 将被合并为一个事件投递.</p>
+ */
+public interface CoalescingEventObject extends EventObject {
+
+    /**
+     * 获取事件的合并键.
+     * @return 返回合并键, 如为null则该事件不参与合并
+     */
+    Object getCoalescingKey();
+
+}
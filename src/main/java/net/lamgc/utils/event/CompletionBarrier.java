@@ -0,0 +1,71 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 同步投递所使用的完成屏障.
+ * <p>投递提交前通过{@link #register()}登记, 投递完成后通过{@link #arrive()}到达,
+ * 等待线程在所有已登记的投递到达后被唤醒. 屏障只允许一个等待线程.</p>
+ */
+final class CompletionBarrier {
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile Thread waiter;
+
+    /**
+     * 登记一个投递.
+     */
+    void register() {
+        pending.incrementAndGet();
+    }
+
+    /**
+     * 标记一个投递已完成.
+     */
+    void arrive() {
+        if(pending.decrementAndGet() == 0) {
+            Thread waitThread = waiter;
+            if(waitThread != null) {
+                LockSupport.unpark(waitThread);
+            }
+        }
+    }
+
+    /**
+     * 等待所有已登记的投递完成.
+     * @param timeout 等待时间, 小于0则一直等待
+     * @param unit 时间单位
+     * @return 如所有投递已完成返回true, 超时返回false
+     * @throws InterruptedException 当等待时发生中断则抛出
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        if(pending.get() == 0) {
+            return true;
+        }
+        waiter = Thread.currentThread();
+        try {
+            long deadline = timeout < 0 ? 0 : System.nanoTime() + unit.toNanos(timeout);
+            while(pending.get() != 0) {
+                if(timeout < 0) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+                if(Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        } finally {
+            waiter = null;
+        }
+    }
+
+}
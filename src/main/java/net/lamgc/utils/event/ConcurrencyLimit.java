@@ -0,0 +1,29 @@
+package net.lamgc.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 限制事件方法的最大并发调用数.
+ * <p>超出限制的投递不会占用线程等待, 而是暂存在事件方法的等待队列中,
+ * 正在执行的调用结束后, 将按投递顺序继续执行等待队列中的投递.
+ * 串行投递的EventHandler对象及分区事件({@link PartitionedEventObject})的投递同样受限制, 且依然保持投递顺序.</p>
+ * <p>注意:</p>
+ * <ol>
+ *     <li>同步投递时, 受限制的事件方法不会在调用线程执行, 因此在该事件方法中同步投递由其自身处理的事件可能无法完成;</li>
+ *     <li>批量事件方法不支持并发限制.</li>
+ * </ol>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimit {
+
+    /**
+     * 最大并发调用数.
+     * @return 返回最大并发调用数
+     */
+    int value();
+
+}
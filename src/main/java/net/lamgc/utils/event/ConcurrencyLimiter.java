@@ -0,0 +1,221 @@
+package net.lamgc.utils.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 事件方法并发限制器.
+ * <p>提交的任务先进入等待队列, 在并发数未达到上限时取出并提交到执行器, 任务执行结束后不释放许可,
+ * 而是在同一线程中继续执行等待队列中提交到同一执行器的任务, 因此超出限制的任务不会占用线程等待.
+ * 提交到其他执行器的任务将连同许可重新提交到其执行器. 许可通过计数器协调, 提交任务和执行任务均不需要加锁.</p>
+ * <p>为避免长时间占用线程, 单次执行最多执行{@link #DRAIN_LIMIT}个任务, 之后将重新提交到执行器继续执行.
+ * 执行器拒绝任务(例如已关闭)时, 任务将放回等待队列队首, 由之后的提交或结束的调用继续提交,
+ * 不会被丢弃, 也不会在提交任务的线程中执行; 执行器关闭后仍在等待的任务可通过{@link #drainParked()}取出.</p>
+ */
+final class ConcurrencyLimiter {
+
+    /**
+     * 单次执行的最大任务数.
+     */
+    final static int DRAIN_LIMIT = 64;
+
+    private final int limit;
+
+    private final Deque<ParkedTask> parkedQueue = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger parkedCount = new AtomicInteger();
+
+    /**
+     * 已取得许可的任务数.
+     */
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * 构造并发限制器.
+     * @param limit 最大并发数
+     */
+    ConcurrencyLimiter(int limit) {
+        this.limit = limit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getParkedCount() {
+        return parkedCount.get();
+    }
+
+    int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * 获取提交到指定执行器的执行器视图.
+     * @param executor 用于执行任务的执行器
+     * @return 返回执行器视图, 提交到视图的任务将受并发限制
+     */
+    Executor bind(Executor executor) {
+        return task -> execute(executor, task);
+    }
+
+    /**
+     * 提交任务.
+     * @param executor 用于执行任务的执行器
+     * @param task 任务
+     * @throws RejectedExecutionException 当执行器拒绝该任务时抛出
+     */
+    void execute(Executor executor, Runnable task) {
+        parkedQueue.offer(new ParkedTask(executor, task));
+        parkedCount.incrementAndGet();
+        dispatchParked(task);
+    }
+
+    /**
+     * 取出等待队列中的所有任务.
+     * @return 返回尚未执行的任务
+     */
+    List<Runnable> drainParked() {
+        List<Runnable> tasks = new ArrayList<>();
+        ParkedTask parkedTask;
+        while((parkedTask = parkedQueue.poll()) != null) {
+            parkedCount.decrementAndGet();
+            tasks.add(parkedTask.task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 在并发数未达到上限时提交等待队列中的任务.
+     * <p>其他线程提交的任务被拒绝时将放回等待队列队首, 并停止提交.</p>
+     * @param submittedTask 当前线程提交的任务, 该任务被拒绝时将抛出异常, 可为null
+     */
+    private void dispatchParked(Runnable submittedTask) {
+        ParkedTask next;
+        while((next = acquireNext()) != null) {
+            try {
+                next.executor.execute(new PermitTask(next));
+            } catch (RuntimeException | Error e) {
+                running.decrementAndGet();
+                if(next.task == submittedTask) {
+                    throw e;
+                }
+                requeue(next);
+                if(e instanceof RejectedExecutionException) {
+                    return;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 将已取出的任务放回等待队列队首.
+     * @param parkedTask 已取出的任务
+     */
+    private void requeue(ParkedTask parkedTask) {
+        parkedQueue.offerFirst(parkedTask);
+        parkedCount.incrementAndGet();
+    }
+
+    /**
+     * 取得许可并取出等待队列中的下一个任务.
+     * @return 返回已取得许可的任务, 如已达到并发上限或等待队列为空则返回null
+     */
+    private ParkedTask acquireNext() {
+        for (;;) {
+            int current = running.get();
+            if(current >= limit || parkedQueue.isEmpty()) {
+                return null;
+            }
+            if(!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            ParkedTask next = parkedQueue.poll();
+            if(next != null) {
+                parkedCount.decrementAndGet();
+                return next;
+            }
+            running.decrementAndGet();
+        }
+    }
+
+    private final static class ParkedTask {
+        final Executor executor;
+        final Runnable task;
+
+        ParkedTask(Executor executor, Runnable task) {
+            this.executor = executor;
+            this.task = task;
+        }
+    }
+
+    /**
+     * 持有许可的任务, 执行结束后继续执行等待队列中的任务.
+     */
+    private final class PermitTask implements Runnable {
+
+        /**
+         * 执行本任务的执行器.
+         */
+        private final Executor owner;
+        private final Runnable task;
+
+        PermitTask(ParkedTask parkedTask) {
+            this.owner = parkedTask.executor;
+            this.task = parkedTask.task;
+        }
+
+        @Override
+        public void run() {
+            boolean handedOver = false;
+            try {
+                Runnable current = task;
+                for (int processed = 1; ; processed++) {
+                    current.run();
+                    ParkedTask next = parkedQueue.poll();
+                    if(next == null) {
+                        break;
+                    }
+                    parkedCount.decrementAndGet();
+                    if(next.executor != owner || processed >= DRAIN_LIMIT) {
+                        if(resubmit(next)) {
+                            handedOver = true;
+                            break;
+                        } else if(next.executor != owner) {
+                            // 任务只能在其执行器中执行, 放回等待队列.
+                            requeue(next);
+                            break;
+                        }
+                    }
+                    current = next.task;
+                }
+            } finally {
+                if(!handedOver) {
+                    running.decrementAndGet();
+                    dispatchParked(null);
+                }
+            }
+        }
+
+        /**
+         * 将许可连同任务重新提交到执行器.
+         * @param next 下一个任务
+         * @return 如提交成功返回true
+         */
+        private boolean resubmit(ParkedTask next) {
+            try {
+                next.executor.execute(new PermitTask(next));
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+    }
+
+}
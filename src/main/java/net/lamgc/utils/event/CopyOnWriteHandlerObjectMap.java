@@ -0,0 +1,68 @@
+package net.lamgc.utils.event;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于写时复制的EventHandlerObjectMap.
+ * <p>读取操作直接访问当前快照, 不加锁也不创建对象; 写入操作将复制当前快照并修改, 然后原子地发布新的不可变快照,
+ * 因此投递事件时遍历的EventHandler集合总是一致的, 可在事件投递期间安全地添加或删除EventHandler.</p>
+ * <p>适用于EventHandler变动较少而投递事件频繁的场景.</p>
+ */
+public class CopyOnWriteHandlerObjectMap implements EventHandlerObjectMap {
+
+    private volatile ImmutableMap<Class<? extends EventHandler>, ImmutableSet<EventHandler>> handlerMap = ImmutableMap.of();
+
+    @Override
+    public synchronized void addHandlerObject(EventHandler eventHandler) {
+        Class<? extends EventHandler> handlerClass = eventHandler.getClass();
+        ImmutableSet<EventHandler> handlers = handlerMap.getOrDefault(handlerClass, ImmutableSet.of());
+        if(handlers.contains(eventHandler)) {
+            return;
+        }
+        Map<Class<? extends EventHandler>, ImmutableSet<EventHandler>> newMap = new HashMap<>(handlerMap);
+        newMap.put(handlerClass, ImmutableSet.<EventHandler>builder().addAll(handlers).add(eventHandler).build());
+        handlerMap = ImmutableMap.copyOf(newMap);
+    }
+
+    /**
+     * 通过Class获取EventHandler对象.
+     * @param eventHandlerClass EventHandler的Class对象
+     * @return 返回当前快照中的不可变Set, 如未找到则返回null.
+     */
+    @Override
+    public Set<EventHandler> getHandlerObject(Class<?> eventHandlerClass) {
+        return handlerMap.get(eventHandlerClass);
+    }
+
+    @Override
+    public synchronized boolean removeHandlerObject(EventHandler handler) {
+        Class<? extends EventHandler> handlerClass = handler.getClass();
+        ImmutableSet<EventHandler> handlers = handlerMap.get(handlerClass);
+        if(handlers == null) {
+            return false;
+        } else if(!handlers.contains(handler)) {
+            return !handlers.isEmpty();
+        }
+
+        Map<Class<? extends EventHandler>, ImmutableSet<EventHandler>> newMap = new HashMap<>(handlerMap);
+        ImmutableSet.Builder<EventHandler> builder = ImmutableSet.builder();
+        for (EventHandler eventHandler : handlers) {
+            if(!eventHandler.equals(handler)) {
+                builder.add(eventHandler);
+            }
+        }
+        ImmutableSet<EventHandler> newHandlers = builder.build();
+        if(newHandlers.isEmpty()) {
+            newMap.remove(handlerClass);
+        } else {
+            newMap.put(handlerClass, newHandlers);
+        }
+        handlerMap = ImmutableMap.copyOf(newMap);
+        return !newHandlers.isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package net.lamgc.utils.event;
+
+import java.util.Objects;
+
+/**
+ * 死信.
+ * <p>记录一个投递失败或因执行器关闭而未能投递的事件, 以及失败时的EventHandler, 事件方法和原因.</p>
+ * @see DeadLetterStore
+ */
+public final class DeadLetter {
+
+    private final long timestamp;
+
+    private final EventObject eventObject;
+
+    private final String handlerClassName;
+
+    private final String handlerMethodName;
+
+    private final String cause;
+
+    /**
+     * 构造死信.
+     * @param timestamp 写入时间(毫秒时间戳)
+     * @param eventObject 事件对象
+     * @param handlerClassName EventHandler的类名, 如事件未投递到具体的EventHandler则为null
+     * @param handlerMethodName 事件方法签名, 如事件未投递到具体的事件方法则为null
+     * @param cause 失败原因的异常堆栈
+     */
+    DeadLetter(long timestamp, EventObject eventObject, String handlerClassName, String handlerMethodName, String cause) {
+        this.timestamp = timestamp;
+        this.eventObject = Objects.requireNonNull(eventObject);
+        this.handlerClassName = handlerClassName;
+        this.handlerMethodName = handlerMethodName;
+        this.cause = Objects.requireNonNull(cause);
+    }
+
+    /**
+     * 获取写入时间.
+     * @return 返回毫秒时间戳
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 获取事件对象.
+     * @return 返回事件对象
+     */
+    public EventObject getEventObject() {
+        return eventObject;
+    }
+
+    /**
+     * 获取投递失败的EventHandler的类名.
+     * @return 返回类名, 如事件未投递到具体的EventHandler(例如因执行器关闭而丢弃的事件)则返回null
+     */
+    public String getHandlerClassName() {
+        return handlerClassName;
+    }
+
+    /**
+     * 获取投递失败的事件方法签名.
+     * @return 返回事件方法签名, 如事件未投递到具体的事件方法则返回null
+     */
+    public String getHandlerMethodName() {
+        return handlerMethodName;
+    }
+
+    /**
+     * 获取失败原因.
+     * @return 返回失败原因的异常堆栈
+     */
+    public String getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetter{" +
+                "timestamp=" + timestamp +
+                ", eventObject=" + eventObject +
+                ", handlerClassName='" + handlerClassName + '\'' +
+                ", handlerMethodName='" + handlerMethodName + '\'' +
+                '}';
+    }
+
+}
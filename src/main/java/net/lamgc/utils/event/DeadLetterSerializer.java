@@ -0,0 +1,37 @@
+package net.lamgc.utils.event;
+
+import java.io.IOException;
+
+/**
+ * 死信事件对象序列化器.
+ * <p>用于{@link DeadLetterStore}将事件对象写入文件及从文件中读取.</p>
+ * @see #javaSerialization()
+ */
+public interface DeadLetterSerializer {
+
+    /**
+     * 序列化事件对象.
+     * @param eventObject 事件对象
+     * @return 返回序列化后的数据
+     * @throws IOException 当事件对象无法序列化时抛出
+     */
+    byte[] serialize(EventObject eventObject) throws IOException;
+
+    /**
+     * 反序列化事件对象.
+     * @param data 由{@link #serialize(EventObject)}序列化的数据
+     * @return 返回事件对象
+     * @throws IOException 当数据无法反序列化时抛出
+     */
+    EventObject deserialize(byte[] data) throws IOException;
+
+    /**
+     * 获取使用Java序列化的序列化器.
+     * <p>事件对象需实现{@link java.io.Serializable}.</p>
+     * @return 返回序列化器
+     */
+    static DeadLetterSerializer javaSerialization() {
+        return JavaDeadLetterSerializer.INSTANCE;
+    }
+
+}
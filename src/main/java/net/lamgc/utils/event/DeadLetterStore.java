@@ -0,0 +1,354 @@
+package net.lamgc.utils.event;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.RateLimiter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 死信存储.
+ * <p>将投递失败或因执行器关闭而未能投递的事件追加写入本地文件, 以便之后通过{@link #replay(EventExecutor, double)}重新投递.</p>
+ * <p>每条记录由长度, CRC32校验值和记录数据组成, 读取时将忽略因进程崩溃等原因未写入完整的末尾记录.
+ * 打开文件时将截去未写入完整的末尾记录, 以免之后写入的记录排在其后而无法读取.
+ * 写入的记录将成批落盘: 未落盘记录达到{@code syncBatchSize}条, 或距上次落盘超过{@code syncInterval}时,
+ * 写入操作将调用{@link FileChannel#force(boolean)}.
+ * 通过{@link EventExecutor#setDeadLetterStore(DeadLetterStore)}设置后, 执行器还将在间隔到期时落盘剩余的记录.</p>
+ */
+public class DeadLetterStore implements Closeable {
+
+    private final static int DEFAULT_SYNC_BATCH_SIZE = 64;
+
+    private final static long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+
+    private final File file;
+
+    private final DeadLetterSerializer serializer;
+
+    private final int syncBatchSize;
+
+    private final long syncIntervalNanos;
+
+    private final FileChannel channel;
+
+    private final AtomicLong appendedCount = new AtomicLong();
+
+    /**
+     * 以下字段由this保护.
+     */
+    private int unsyncedCount;
+    private long lastSyncTime = System.nanoTime();
+    private boolean syncScheduled;
+    private DelayedTaskScheduler syncScheduler;
+
+    /**
+     * 构造死信存储, 每64条记录或每秒落盘一次.
+     * @param file 死信文件, 不存在时将创建
+     * @param serializer 事件对象序列化器
+     * @throws IOException 当文件无法打开时抛出
+     */
+    public DeadLetterStore(File file, DeadLetterSerializer serializer) throws IOException {
+        this(file, serializer, DEFAULT_SYNC_BATCH_SIZE, DEFAULT_SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 构造死信存储.
+     * @param file 死信文件, 不存在时将创建
+     * @param serializer 事件对象序列化器
+     * @param syncBatchSize 未落盘记录达到该数量时落盘, 为1时每条记录写入后立即落盘
+     * @param syncInterval 距上次落盘超过该时间时落盘
+     * @param unit {@code syncInterval}的时间单位
+     * @throws IOException 当文件无法打开或截去末尾记录失败时抛出
+     */
+    public DeadLetterStore(File file, DeadLetterSerializer serializer,
+                           int syncBatchSize, long syncInterval, TimeUnit unit) throws IOException {
+        if(syncBatchSize <= 0) {
+            throw new IllegalArgumentException("syncBatchSize must be greater than 0");
+        }
+        if(syncInterval < 0) {
+            throw new IllegalArgumentException("syncInterval cannot be negative");
+        }
+        this.file = Objects.requireNonNull(file);
+        this.serializer = Objects.requireNonNull(serializer);
+        this.syncBatchSize = syncBatchSize;
+        this.syncIntervalNanos = unit.toNanos(syncInterval);
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            long validLength = readRecords(null);
+            if(validLength < channel.size()) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 写入投递失败的事件.
+     * @param handler 投递失败的EventHandler对象, 如事件未投递到具体的EventHandler则为null
+     * @param handlerMethod 投递失败的事件方法, 如事件未投递到具体的事件方法则为null
+     * @param eventObject 事件对象
+     * @param cause 失败原因
+     * @throws IOException 当事件对象无法序列化或写入失败时抛出
+     */
+    public void append(EventHandler handler, Method handlerMethod, EventObject eventObject, Throwable cause)
+            throws IOException {
+        append(new DeadLetter(System.currentTimeMillis(), eventObject,
+                handler != null ? handler.getClass().getName() : null,
+                handlerMethod != null ? handlerMethod.toGenericString() : null,
+                Throwables.getStackTraceAsString(cause)));
+    }
+
+    /**
+     * 写入死信.
+     * @param deadLetter 死信
+     * @throws IOException 当事件对象无法序列化或写入失败时抛出
+     */
+    public void append(DeadLetter deadLetter) throws IOException {
+        ByteBuffer record = encode(deadLetter);
+        synchronized (this) {
+            while(record.hasRemaining()) {
+                channel.write(record);
+            }
+            appendedCount.incrementAndGet();
+            unsyncedCount++;
+            if(unsyncedCount >= syncBatchSize || System.nanoTime() - lastSyncTime >= syncIntervalNanos) {
+                forceSync();
+            } else if(syncScheduler != null && !syncScheduled) {
+                try {
+                    syncScheduler.schedule(this::scheduledSync, syncIntervalNanos, TimeUnit.NANOSECONDS);
+                    syncScheduled = true;
+                } catch (IllegalStateException e) {
+                    // 调度器已停止, 直接落盘.
+                    forceSync();
+                }
+            }
+        }
+    }
+
+    /**
+     * 将已写入的记录落盘.
+     * @throws IOException 当落盘失败时抛出
+     */
+    public synchronized void sync() throws IOException {
+        if(unsyncedCount > 0) {
+            forceSync();
+        }
+    }
+
+    private void forceSync() throws IOException {
+        channel.force(false);
+        unsyncedCount = 0;
+        lastSyncTime = System.nanoTime();
+    }
+
+    private synchronized void scheduledSync() {
+        syncScheduled = false;
+        if(!channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+        } catch (IOException ignored) {
+            // 下一次写入或同步时将再次尝试落盘.
+        }
+    }
+
+    /**
+     * 设置用于定时落盘的调度器.
+     * @param scheduler 调度器, 如为null则剩余的记录只在下一次写入, 同步或关闭时落盘
+     */
+    synchronized void setSyncScheduler(DelayedTaskScheduler scheduler) {
+        this.syncScheduler = scheduler;
+    }
+
+    /**
+     * 读取所有死信.
+     * @return 返回按写入顺序排列的死信列表
+     * @throws IOException 当读取失败或事件对象无法反序列化时抛出
+     */
+    public List<DeadLetter> readAll() throws IOException {
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        readRecords(deadLetters);
+        return deadLetters;
+    }
+
+    /**
+     * 依次读取死信文件中的完整记录.
+     * @param deadLetters 用于接收死信的列表, 如为null则只校验记录而不解析
+     * @return 返回最后一条完整记录的结束位置
+     * @throws IOException 当读取失败或事件对象无法反序列化时抛出
+     */
+    private long readRecords(List<DeadLetter> deadLetters) throws IOException {
+        long validLength = 0;
+        try (FileChannel readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             DataInputStream input = new DataInputStream(Channels.newInputStream(readChannel))) {
+            long remaining = readChannel.size();
+            CRC32 crc32 = new CRC32();
+            while(remaining >= 8) {
+                int length = input.readInt();
+                long checksum = input.readInt() & 0xFFFFFFFFL;
+                if(length < 0 || length > remaining - 8) {
+                    break;
+                }
+                byte[] data = new byte[length];
+                input.readFully(data);
+                crc32.reset();
+                crc32.update(data, 0, length);
+                if(crc32.getValue() != checksum) {
+                    break;
+                }
+                if(deadLetters != null) {
+                    deadLetters.add(decode(data));
+                }
+                remaining -= 8 + length;
+                validLength += 8 + length;
+            }
+        } catch (EOFException ignored) {
+            // 末尾记录未写入完整.
+        }
+        return validLength;
+    }
+
+    /**
+     * 取出所有死信, 并以指定速率重新投递到执行器.
+     * <p>死信将在读取后从文件中清除, 重投过程中再次投递失败的事件将重新写入死信存储.
+     * 该方法将阻塞直到所有死信均已提交投递.</p>
+     * @param executor 事件执行器
+     * @param eventsPerSecond 每秒最多投递的事件数量
+     * @return 返回重新投递的事件数量
+     * @throws IOException 当读取失败或事件对象无法反序列化时抛出
+     */
+    public int replay(EventExecutor executor, double eventsPerSecond) throws IOException {
+        Objects.requireNonNull(executor);
+        RateLimiter rateLimiter = RateLimiter.create(eventsPerSecond);
+        List<DeadLetter> deadLetters;
+        synchronized (this) {
+            sync();
+            deadLetters = readAll();
+            clear();
+        }
+        for (DeadLetter deadLetter : deadLetters) {
+            rateLimiter.acquire();
+            executor.executor(deadLetter.getEventObject());
+        }
+        return deadLetters.size();
+    }
+
+    /**
+     * 清除所有死信.
+     * @throws IOException 当清除失败时抛出
+     */
+    public synchronized void clear() throws IOException {
+        channel.truncate(0);
+        forceSync();
+    }
+
+    /**
+     * 获取自打开后写入的死信数量.
+     * @return 返回写入数量
+     */
+    public long getAppendedCount() {
+        return appendedCount.get();
+    }
+
+    /**
+     * 获取死信文件.
+     * @return 返回死信文件
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 落盘剩余的记录并关闭文件.
+     * @throws IOException 当落盘或关闭失败时抛出
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(!channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private ByteBuffer encode(DeadLetter deadLetter) throws IOException {
+        byte[] event = serializer.serialize(deadLetter.getEventObject());
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(event.length + 256);
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(0);
+        output.writeInt(0);
+        output.writeLong(deadLetter.getTimestamp());
+        writeString(output, deadLetter.getHandlerClassName());
+        writeString(output, deadLetter.getHandlerMethodName());
+        writeString(output, deadLetter.getCause());
+        output.writeInt(event.length);
+        output.write(event);
+        output.flush();
+
+        ByteBuffer record = ByteBuffer.wrap(buffer.toByteArray());
+        int length = record.capacity() - 8;
+        CRC32 crc32 = new CRC32();
+        crc32.update(record.array(), 8, length);
+        record.putInt(0, length);
+        record.putInt(4, (int) crc32.getValue());
+        return record;
+    }
+
+    private DeadLetter decode(byte[] data) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+        long timestamp = input.readLong();
+        String handlerClassName = readString(input);
+        String handlerMethodName = readString(input);
+        String cause = readString(input);
+        byte[] event = new byte[input.readInt()];
+        input.readFully(event);
+        return new DeadLetter(timestamp, serializer.deserialize(event), handlerClassName, handlerMethodName, cause);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if(value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if(length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
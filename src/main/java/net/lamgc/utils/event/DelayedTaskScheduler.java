@@ -0,0 +1,20 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟任务调度器.
+ * <p>用于在指定延迟后执行任务, 延迟任务应当只执行轻量的操作(例如向线程池提交任务).</p>
+ */
+@FunctionalInterface
+interface DelayedTaskScheduler {
+
+    /**
+     * 在指定延迟后执行任务.
+     * @param task 任务
+     * @param delay 延迟
+     * @param unit 延迟的时间单位
+     */
+    void schedule(Runnable task, long delay, TimeUnit unit);
+
+}
@@ -0,0 +1,57 @@
+package net.lamgc.utils.event;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 异步投递结果收集器.
+ * <p>每个投递按投递顺序占用一个结果位置, 所有位置都完成后以结果列表完成Future.</p>
+ */
+final class DeliveryResultCollector {
+
+    private final EventDeliveryResult[] results;
+
+    private final AtomicInteger remaining;
+
+    private final CompletableFuture<List<EventDeliveryResult>> future = new CompletableFuture<>();
+
+    private final Consumer<EventDeliveryResult> listener;
+
+    /**
+     * 构造结果收集器.
+     * @param deliveryCount 投递数量
+     * @param listener 投递结果监听器, 将在每个投递完成时调用, 可为null
+     */
+    DeliveryResultCollector(int deliveryCount, Consumer<EventDeliveryResult> listener) {
+        this.results = new EventDeliveryResult[deliveryCount];
+        this.listener = listener;
+        this.remaining = new AtomicInteger(deliveryCount);
+        if(deliveryCount == 0) {
+            future.complete(Collections.emptyList());
+        }
+    }
+
+    /**
+     * 设置指定位置的投递结果.
+     * @param index 投递位置
+     * @param result 投递结果
+     */
+    void complete(int index, EventDeliveryResult result) {
+        results[index] = result;
+        if(listener != null) {
+            listener.accept(result);
+        }
+        if(remaining.decrementAndGet() == 0) {
+            future.complete(Collections.unmodifiableList(Arrays.asList(results)));
+        }
+    }
+
+    CompletableFuture<List<EventDeliveryResult>> getFuture() {
+        return future;
+    }
+
+}
@@ -0,0 +1,26 @@
+package net.lamgc.utils.event;
+
+/**
+ * 事件投递粒度.
+ * <p>决定{@link EventExecutor#executor(EventObject)}投递一个事件时, 向线程池提交的任务数量.</p>
+ */
+public enum DispatchGranularity {
+
+    /**
+     * 每个事件方法的每个EventHandler对象各提交一个任务.
+     * <p>并行度最高, 为默认的投递粒度.</p>
+     */
+    HANDLER,
+
+    /**
+     * 每个事件方法提交一个任务, 任务内依次调用该方法所属的所有EventHandler对象.
+     */
+    METHOD,
+
+    /**
+     * 每个事件只提交一个任务, 任务内依次调用所有事件方法.
+     * <p>任务数量最少, 适用于事件方法执行很快的场景.</p>
+     */
+    EVENT
+
+}
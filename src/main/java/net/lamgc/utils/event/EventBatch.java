@@ -0,0 +1,78 @@
+package net.lamgc.utils.event;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 批量投递的事件分组.
+ * <p>批量投递时, 每种事件类型只解析一次投递计划, 并将投递按EventHandler对象分组,
+ * 同一EventHandler对象的所有投递将按事件顺序在同一个任务中执行.</p>
+ */
+final class EventBatch {
+
+    private final Map<EventHandler, List<Delivery>> handlerDeliveries = new IdentityHashMap<>();
+
+    private int deliveryCount = 0;
+
+    /**
+     * 对事件集合进行分组.
+     * @param events 事件集合
+     * @param planResolver 投递计划获取函数
+     * @param handlerResolver EventHandler对象获取函数
+     */
+    EventBatch(Collection<? extends EventObject> events,
+               Function<Class<? extends EventObject>, EventDispatchPlan> planResolver,
+               Function<HandlerMethod, Set<EventHandler>> handlerResolver) {
+        Map<Class<? extends EventObject>, EventDispatchPlan> planMap = new HashMap<>();
+        for (EventObject event : events) {
+            EventDispatchPlan plan = planMap.computeIfAbsent(event.getClass(), planResolver);
+            for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                for (EventHandler handler : handlerResolver.apply(handlerMethod)) {
+                    handlerDeliveries.computeIfAbsent(handler, key -> new ArrayList<>())
+                            .add(new Delivery(handlerMethod, event));
+                    deliveryCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取按EventHandler对象分组的投递.
+     * @return 返回分组后的投递, 键为EventHandler对象, 值为按事件顺序排列的投递列表
+     */
+    Map<EventHandler, List<Delivery>> getHandlerDeliveries() {
+        return handlerDeliveries;
+    }
+
+    /**
+     * 获取投递总数.
+     * @return 返回批次中所有事件方法调用的次数
+     */
+    int getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    /**
+     * 单次投递, 即对某一事件方法投递某一事件.
+     */
+    static final class Delivery {
+
+        private final HandlerMethod handlerMethod;
+
+        private final EventObject event;
+
+        Delivery(HandlerMethod handlerMethod, EventObject event) {
+            this.handlerMethod = handlerMethod;
+            this.event = event;
+        }
+
+        HandlerMethod getHandlerMethod() {
+            return handlerMethod;
+        }
+
+        EventObject getEvent() {
+            return event;
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * 事件合并器.
+ * <p>每个合并键同一时刻最多只有一个等待投递的事件, 新事件将与其合并.
+ * 设置了合并窗口时, 等待投递的事件在窗口结束时投递; 否则立即提交投递任务, 任务开始执行前到达的事件都将被合并.</p>
+ */
+final class EventCoalescer {
+
+    private final long windowNanos;
+
+    private final BinaryOperator<EventObject> mergeFunction;
+
+    private final Consumer<EventObject> dispatcher;
+
+    private final Executor executor;
+
+    private final DelayedTaskScheduler scheduler;
+
+    private final ConcurrentHashMap<Object, Slot> pendingSlots = new ConcurrentHashMap<>();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 构造事件合并器.
+     * @param windowNanos 合并窗口, 单位为纳秒, 为0则不设置合并窗口
+     * @param mergeFunction 合并函数, 参数依次为等待投递的事件和新事件, 如为null则保留新事件
+     * @param dispatcher 合并后事件的投递函数
+     * @param executor 用于执行投递任务的执行器
+     * @param scheduler 延迟任务调度器
+     */
+    EventCoalescer(long windowNanos,
+                   BinaryOperator<EventObject> mergeFunction,
+                   Consumer<EventObject> dispatcher,
+                   Executor executor,
+                   DelayedTaskScheduler scheduler) {
+        this.windowNanos = windowNanos;
+        this.mergeFunction = mergeFunction;
+        this.dispatcher = dispatcher;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 投递可合并的事件.
+     * @param event 事件对象
+     */
+    void publish(CoalescingEventObject event) {
+        Object key = event.getCoalescingKey();
+        if(key == null) {
+            dispatcher.accept(event);
+            return;
+        }
+        Slot[] createdSlot = new Slot[1];
+        pendingSlots.compute(key, (slotKey, existing) -> {
+            if(existing != null && existing.merge(event)) {
+                return existing;
+            }
+            return createdSlot[0] = new Slot(slotKey, event);
+        });
+        Slot slot = createdSlot[0];
+        if(slot == null) {
+            coalescedCount.increment();
+        } else if(windowNanos > 0) {
+            scheduler.schedule(() -> executor.execute(() -> emit(slot)), windowNanos, TimeUnit.NANOSECONDS);
+        } else {
+            executor.execute(() -> emit(slot));
+        }
+    }
+
+    /**
+     * 立即投递所有等待投递的事件.
+     */
+    void flush() {
+        for (Slot slot : pendingSlots.values()) {
+            emit(slot);
+        }
+    }
+
+    long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    private void emit(Slot slot) {
+        EventObject event = slot.take();
+        if(event != null) {
+            pendingSlots.remove(slot.key, slot);
+            dispatcher.accept(event);
+        }
+    }
+
+    /**
+     * 等待投递的事件.
+     */
+    private final class Slot {
+
+        private final Object key;
+
+        private EventObject event;
+
+        private boolean taken;
+
+        Slot(Object key, EventObject event) {
+            this.key = key;
+            this.event = event;
+        }
+
+        /**
+         * 将新事件合并到等待投递的事件.
+         * @param newEvent 新事件
+         * @return 如合并成功返回true, 如事件已开始投递则返回false
+         */
+        synchronized boolean merge(EventObject newEvent) {
+            if(taken) {
+                return false;
+            }
+            event = mergeFunction != null ? mergeFunction.apply(event, newEvent) : newEvent;
+            return true;
+        }
+
+        /**
+         * 取出等待投递的事件.
+         * @return 返回合并后的事件, 如已被取出则返回null
+         */
+        synchronized EventObject take() {
+            if(taken) {
+                return null;
+            }
+            taken = true;
+            return event;
+        }
+
+    }
+
+}
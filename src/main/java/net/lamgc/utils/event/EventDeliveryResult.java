@@ -0,0 +1,87 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+
+/**
+ * 事件投递结果.
+ * <p>记录一次事件投递(即对一个EventHandler对象的一个事件方法的调用)的执行结果.</p>
+ * @see EventExecutor#executorAsync(EventObject)
+ */
+public final class EventDeliveryResult {
+
+    private final EventHandler handler;
+
+    private final Method handlerMethod;
+
+    private final EventObject eventObject;
+
+    private final Object returnValue;
+
+    private final Throwable cause;
+
+    EventDeliveryResult(EventHandler handler, Method handlerMethod, EventObject eventObject,
+                        Object returnValue, Throwable cause) {
+        this.handler = handler;
+        this.handlerMethod = handlerMethod;
+        this.eventObject = eventObject;
+        this.returnValue = returnValue;
+        this.cause = cause;
+    }
+
+    /**
+     * 获取接收事件的EventHandler对象.
+     * @return 返回EventHandler对象
+     */
+    public EventHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * 获取接收事件的事件方法.
+     * @return 返回事件方法
+     */
+    public Method getHandlerMethod() {
+        return handlerMethod;
+    }
+
+    /**
+     * 获取投递的事件对象.
+     * @return 返回事件对象
+     */
+    public EventObject getEventObject() {
+        return eventObject;
+    }
+
+    /**
+     * 获取事件方法的返回值.
+     * @return 返回事件方法的返回值, 如事件方法返回类型为void, 执行失败或事件已加入事件批次, 则返回null
+     */
+    public Object getReturnValue() {
+        return returnValue;
+    }
+
+    /**
+     * 获取事件方法抛出的异常.
+     * @return 返回事件方法抛出的异常, 如执行成功则返回null
+     */
+    public Throwable getCause() {
+        return cause;
+    }
+
+    /**
+     * 检查事件方法是否执行成功.
+     * @return 如事件方法未抛出异常返回true
+     */
+    public boolean isSuccess() {
+        return cause == null;
+    }
+
+    @Override
+    public String toString() {
+        return "EventDeliveryResult{" +
+                "handler=" + handler +
+                ", handlerMethod=" + handlerMethod +
+                ", success=" + isSuccess() +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * 事件投递计划.
+ * <p>针对某一事件类型预先解析好的事件方法信息, 投递事件时按照计划一次性提交所需的任务.</p>
+ * <p>投递计划由{@link EventHandlerList#getEventHandlerMethods(Class)}返回的数组创建, 并记录创建时执行器的事件方法版本,
+ * 当执行器添加或删除了EventHandler后版本发生变化, 投递计划将会重新创建.</p>
+ */
+final class EventDispatchPlan {
+
+    private final static HandlerMethod[] EMPTY_HANDLER_METHODS = new HandlerMethod[0];
+
+    private final long version;
+
+    private final HandlerMethod[] handlerMethods;
+
+    private final HandlerOrderGraph orderGraph;
+
+    /**
+     * 创建投递计划.
+     * @param source EventHandlerList返回的事件方法数组
+     * @param resolver 事件方法信息获取函数
+     * @param version 创建投递计划时执行器的事件方法版本
+     * @throws IllegalStateException 当事件方法之间存在循环依赖时抛出
+     */
+    EventDispatchPlan(Method[] source, Function<Method, HandlerMethod> resolver, long version) {
+        this.version = version;
+        if(source.length == 0) {
+            this.handlerMethods = EMPTY_HANDLER_METHODS;
+            this.orderGraph = null;
+        } else {
+            HandlerMethod[] methods = new HandlerMethod[source.length];
+            for (int i = 0; i < source.length; i++) {
+                methods[i] = resolver.apply(source[i]);
+            }
+            this.orderGraph = HandlerOrderGraph.build(methods);
+            this.handlerMethods = orderGraph != null ? orderGraph.getSortedMethods() : methods;
+        }
+    }
+
+    /**
+     * 获取创建投递计划时执行器的事件方法版本.
+     * @return 返回版本
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取投递计划中的事件方法信息.
+     * <p>如投递计划存在依赖图, 事件方法按依赖图的拓扑顺序排列.</p>
+     * @return 返回事件方法信息数组, 不可修改
+     */
+    HandlerMethod[] getHandlerMethods() {
+        return handlerMethods;
+    }
+
+    /**
+     * 获取事件方法依赖图.
+     * @return 返回依赖图, 如事件方法没有声明执行顺序则返回null
+     * @see HandlerOrder
+     */
+    HandlerOrderGraph getOrderGraph() {
+        return orderGraph;
+    }
+
+    boolean isOrdered() {
+        return orderGraph != null;
+    }
+
+    boolean isEmpty() {
+        return handlerMethods.length == 0;
+    }
+
+}
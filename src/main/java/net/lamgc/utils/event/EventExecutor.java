@@ -1,239 +1,2854 @@
 package net.lamgc.utils.event;
 
+import com.google.common.collect.MapMaker;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 事件执行器.
+ */
+public class EventExecutor {
+
+    private final EventHandlerList eventHandlerList;
+
+    private final EventHandlerObjectMap eventHandlerObjectMap;
+
+    /**
+     * 用于执行事件方法的执行器.
+     */
+    private final Executor taskExecutor;
+
+    /**
+     * 执行器对应的ExecutorService, 如执行器不是ExecutorService则为null.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * 工作窃取模式所使用的ForkJoinPool, 如未启用工作窃取模式则为null.
+     */
+    private final ForkJoinPool forkJoinPool;
+
+    private final AtomicReference<Thread.UncaughtExceptionHandler> exceptionHandler = new AtomicReference<>();
+    private final AtomicReference<EventUncaughtExceptionHandler> eventExceptionHandler = new AtomicReference<>();
+    private final AtomicReference<DeadLetterStore> deadLetterStore = new AtomicReference<>();
+    private final AtomicReference<ObjectName> metricsObjectName = new AtomicReference<>();
+    private final AtomicReference<TraceSink> traceSink = new AtomicReference<>();
+    private final AtomicReference<HandlerWatchdog> watchdog = new AtomicReference<>();
+    private final AtomicBoolean enableEventResend = new AtomicBoolean();
+    private final AtomicBoolean enableCompiledInvoker = new AtomicBoolean(true);
+    private final AtomicBoolean enableSyncInline = new AtomicBoolean();
+    private final AtomicBoolean enableMetrics = new AtomicBoolean();
+    private final AtomicReference<DispatchGranularity> dispatchGranularity =
+            new AtomicReference<>(DispatchGranularity.HANDLER);
+
+    /**
+     * 虚拟线程任务分发器, 如未启用虚拟线程模式则为null.
+     */
+    private final AtomicReference<VirtualThreadDispatcher> virtualThreadDispatcher = new AtomicReference<>();
+
+    /**
+     * 已解析的事件方法信息.
+     */
+    private final ConcurrentHashMap<Method, HandlerMethod> handlerMethodMap = new ConcurrentHashMap<>();
+
+    /**
+     * 串行投递的EventHandler对象的串行邮箱, 以对象标识为键.
+     */
+    private final ConcurrentMap<EventHandler, SerialMailbox> serialMailboxMap = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * 已注册的隔离执行器, 以名称为键.
+     */
+    private final ConcurrentHashMap<String, Executor> bulkheadMap = new ConcurrentHashMap<>();
+    private final AtomicReference<AdaptiveIsolation> adaptiveIsolation = new AtomicReference<>();
+
+    /**
+     * 运行指标是否由自适应隔离启用, 停止自适应隔离时将恢复为不记录.
+     */
+    private final AtomicBoolean metricsEnabledByIsolation = new AtomicBoolean();
+
+    /**
+     * 以事件类型为键的事件合并器.
+     */
+    private final ConcurrentHashMap<Class<?>, EventCoalescer> coalescerMap = new ConcurrentHashMap<>();
+
+    /**
+     * 以事件类型为键的接收限制.
+     */
+    private final ConcurrentHashMap<Class<?>, EventIntake> intakeMap = new ConcurrentHashMap<>();
+
+    /**
+     * 分区事件的分区通道, 在首次使用时创建.
+     */
+    private final AtomicReference<SerialMailbox[]> partitionLanes = new AtomicReference<>();
+    private final AtomicInteger partitionLaneCount = new AtomicInteger(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * 以事件对象Class为键的投递计划缓存.
+     */
+    private final ClassValue<AtomicReference<EventDispatchPlan>> dispatchPlanCache =
+            new ClassValue<AtomicReference<EventDispatchPlan>>() {
+                @Override
+                protected AtomicReference<EventDispatchPlan> computeValue(Class<?> type) {
+                    return new AtomicReference<>();
+                }
+            };
+
+    /**
+     * 事件方法版本, 添加或删除EventHandler后递增, 使已缓存的投递计划失效.
+     */
+    private final AtomicLong handlerVersion = new AtomicLong();
+
+    /**
+     * 时间轮的刻度时长(毫秒), 即延迟投递的精度.
+     */
+    private final static long TIMING_WHEEL_TICK_MILLIS = 10;
+
+    /**
+     * 时间轮的槽数量.
+     */
+    private final static int TIMING_WHEEL_SIZE = 512;
+
+    /**
+     * 延迟任务时间轮, 在首次使用时创建.
+     */
+    private volatile HashedTimingWheel timingWheel;
+
+    /**
+     * 看门狗回调执行器, 在首次使用时创建.
+     * <p>调用超时报告、慢调用检查及其死信写入在该执行器中执行, 以免占用时间轮线程而延误其他定时任务.
+     * 执行器只有一个线程, 空闲一段时间后线程将退出.</p>
+     */
+    private volatile ThreadPoolExecutor watchdogExecutor;
+
+    /**
+     * 构造一个EventExecutor.
+     * @param threadPoolExecutor 事件线程池, 线程池将用于执行Handler中的EventMethod.
+     */
+    public EventExecutor(ThreadPoolExecutor threadPoolExecutor){
+        this(threadPoolExecutor, null, null);
+    }
+
+    /**
+     * 构造一个EventExecutor.
+     * @param threadPoolExecutor 事件线程池, 线程池将用于执行Handler中的EventMethod.
+     * @param eventHandlerList 事件列表, 用于存储EventObject对应EventHandlerMethod.
+     * @param eventHandlerObjectMap EventHandlerObject存储, 用于存储EventHandler对象,
+     *                              如为null则使用{@link CopyOnWriteHandlerObjectMap}.
+     */
+    public EventExecutor(ThreadPoolExecutor threadPoolExecutor,
+                         EventHandlerList eventHandlerList,
+                         EventHandlerObjectMap eventHandlerObjectMap) {
+        this((ExecutorService) threadPoolExecutor, eventHandlerList, eventHandlerObjectMap);
+    }
+
+    /**
+     * 构造一个使用环形缓冲区执行事件方法的EventExecutor.
+     * @param ringBufferExecutor 环形缓冲区执行器, 将用于执行Handler中的EventMethod.
+     * @see RingBufferExecutor
+     */
+    public EventExecutor(RingBufferExecutor ringBufferExecutor) {
+        this(ringBufferExecutor, null, null);
+    }
+
+    /**
+     * 构造一个使用环形缓冲区执行事件方法的EventExecutor.
+     * @param ringBufferExecutor 环形缓冲区执行器, 将用于执行Handler中的EventMethod.
+     * @param eventHandlerList 事件列表, 用于存储EventObject对应EventHandlerMethod.
+     * @param eventHandlerObjectMap EventHandlerObject存储, 用于存储EventHandler对象,
+     *                              如为null则使用{@link CopyOnWriteHandlerObjectMap}.
+     * @see RingBufferExecutor
+     */
+    public EventExecutor(RingBufferExecutor ringBufferExecutor,
+                         EventHandlerList eventHandlerList,
+                         EventHandlerObjectMap eventHandlerObjectMap) {
+        this((ExecutorService) ringBufferExecutor, eventHandlerList, eventHandlerObjectMap);
+    }
+
+    /**
+     * 构造一个工作窃取模式的EventExecutor.
+     * <p>工作窃取模式下, 每个事件只向ForkJoinPool提交一个任务,
+     * 该任务在执行时将事件的各个投递(按{@link #setDispatchGranularity(DispatchGranularity)}设定的粒度划分)
+     * fork到当前工作线程的本地队列, 由空闲的工作线程窃取执行, 适用于一个事件投递到大量EventHandler的场景.</p>
+     * @param forkJoinPool 用于执行事件方法的ForkJoinPool
+     */
+    public EventExecutor(ForkJoinPool forkJoinPool) {
+        this(forkJoinPool, null, null);
+    }
+
+    /**
+     * 构造一个工作窃取模式的EventExecutor.
+     * @param forkJoinPool 用于执行事件方法的ForkJoinPool
+     * @param eventHandlerList 事件列表, 用于存储EventObject对应EventHandlerMethod.
+     * @param eventHandlerObjectMap EventHandlerObject存储, 用于存储EventHandler对象,
+     *                              如为null则使用{@link CopyOnWriteHandlerObjectMap}.
+     * @see #EventExecutor(ForkJoinPool)
+     */
+    public EventExecutor(ForkJoinPool forkJoinPool,
+                         EventHandlerList eventHandlerList,
+                         EventHandlerObjectMap eventHandlerObjectMap) {
+        this((Executor) forkJoinPool, eventHandlerList, eventHandlerObjectMap);
+    }
+
+    /**
+     * 构造一个EventExecutor.
+     * @param executorService 用于执行Handler中EventMethod的执行器.
+     */
+    public EventExecutor(ExecutorService executorService) {
+        this(executorService, null, null);
+    }
+
+    /**
+     * 构造一个EventExecutor.
+     * @param executorService 用于执行Handler中EventMethod的执行器.
+     * @param eventHandlerList 事件列表, 用于存储EventObject对应EventHandlerMethod.
+     * @param eventHandlerObjectMap EventHandlerObject存储, 用于存储EventHandler对象,
+     *                              如为null则使用{@link CopyOnWriteHandlerObjectMap}.
+     */
+    public EventExecutor(ExecutorService executorService,
+                         EventHandlerList eventHandlerList,
+                         EventHandlerObjectMap eventHandlerObjectMap) {
+        this((Executor) executorService, eventHandlerList, eventHandlerObjectMap);
+    }
+
+    /**
+     * 构造一个EventExecutor.
+     * <p>如执行器不是{@link ExecutorService}, 则EventExecutor不支持{@link #shutdown(boolean)}
+     * 和{@link #awaitTermination(long, TimeUnit)}, 执行器的生命周期需自行管理.</p>
+     * @param executor 用于执行Handler中EventMethod的执行器.
+     */
+    public EventExecutor(Executor executor) {
+        this(executor, null, null);
+    }
+
+    /**
+     * 构造一个EventExecutor.
+     * <p>事件方法抛出的异常将在任务内捕获并交由异常处理对象处理, 因此EventExecutor不会修改执行器的线程工厂.</p>
+     * <p>如执行器为{@link ForkJoinPool}, 将启用工作窃取模式, 详见{@link #EventExecutor(ForkJoinPool)}.</p>
+     * @param executor 用于执行Handler中EventMethod的执行器.
+     * @param eventHandlerList 事件列表, 用于存储EventObject对应EventHandlerMethod.
+     * @param eventHandlerObjectMap EventHandlerObject存储, 用于存储EventHandler对象,
+     *                              如为null则使用{@link CopyOnWriteHandlerObjectMap}.
+     */
+    public EventExecutor(Executor executor,
+                         EventHandlerList eventHandlerList,
+                         EventHandlerObjectMap eventHandlerObjectMap) {
+        this.taskExecutor = Objects.requireNonNull(executor);
+        this.executorService = executor instanceof ExecutorService ? (ExecutorService) executor : null;
+        this.forkJoinPool = executor instanceof ForkJoinPool ? (ForkJoinPool) executor : null;
+        this.eventHandlerList = eventHandlerList != null ? eventHandlerList : new BasicEventHandlerList();
+        this.eventHandlerObjectMap = eventHandlerObjectMap != null ? eventHandlerObjectMap : new CopyOnWriteHandlerObjectMap();
+    }
+
+    /**
+     * 添加EventHandler.
+     * <p>如EventHandler类声明了{@link HandlerOrder}, 将在添加时检查其依赖的EventHandler类是否已添加,
+     * 以及接收同一事件类型的事件方法之间是否存在循环依赖, 检查不通过的EventHandler不会被添加.</p>
+     * <p>事件方法的注解(例如{@link ConcurrencyLimit}、{@link HandlerTimeout})将在注册前解析, 解析失败时EventHandler同样不会被添加.</p>
+     * @param handler EventHandler对象
+     * @throws IllegalAccessException 当EventHandler内方法不为Public时可能会抛出,
+     *                                是否抛出由{@link EventHandlerList}所使用的实现决定
+     * @throws IllegalStateException 当EventHandler依赖的EventHandler类尚未添加, 或事件方法之间存在循环依赖时抛出
+     * @throws IllegalArgumentException 当事件方法的注解参数无效时抛出
+     */
+    public void addHandler(EventHandler handler) throws IllegalAccessException {
+        List<HandlerMethod> handlerMethods = new ArrayList<>();
+        for (Method method : handler.getClass().getDeclaredMethods()) {
+            if(checkMethod(method)) {
+                HandlerMethod handlerMethod = handlerMethodMap.get(method);
+                handlerMethods.add(handlerMethod != null ? handlerMethod : new HandlerMethod(method));
+            }
+        }
+        checkHandlerOrder(handler.getClass(), handlerMethods);
+        // 事件方法列表会检查EventHandler类是否可以添加, 需先于其他注册操作执行, 以免检查不通过时留下部分注册的状态.
+        eventHandlerList.addEventHandler(handler.getClass());
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            handlerMethodMap.putIfAbsent(handlerMethod.getMethod(), handlerMethod);
+        }
+        if(handler.getClass().isAnnotationPresent(SerialDelivery.class)) {
+            serialMailboxMap.putIfAbsent(handler, new SerialMailbox(this::executeTask));
+        }
+        eventHandlerObjectMap.addHandlerObject(handler);
+        handlerVersion.incrementAndGet();
+    }
+
+    /**
+     * 检查添加EventHandler类后, 其事件方法接收的事件类型能否建立依赖图.
+     * <p>{@link HandlerOrder#after()}中的EventHandler类需先于依赖它的类添加.</p>
+     * @param handlerClass 将要添加的EventHandler类
+     * @param handlerMethods EventHandler类中的事件方法
+     * @throws IllegalStateException 当依赖的EventHandler类尚未添加, 或事件方法之间存在循环依赖时抛出
+     */
+    private void checkHandlerOrder(Class<? extends EventHandler> handlerClass, List<HandlerMethod> handlerMethods) {
+        boolean registered = true;
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            registered &= handlerMethodMap.containsKey(handlerMethod.getMethod());
+        }
+        if(registered) {
+            return;
+        }
+        boolean ordered = false;
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            HandlerOrder order = HandlerOrderGraph.getHandlerOrder(handlerMethod.getMethod());
+            if(order == null) {
+                continue;
+            }
+            ordered = true;
+            for (Class<? extends EventHandler> afterClass : order.after()) {
+                if(!afterClass.isAssignableFrom(handlerClass) && !isHandlerClassRegistered(afterClass)) {
+                    throw new IllegalStateException("Handler dependency is not registered: " + afterClass.getName() +
+                            " (required by " + handlerMethod.getMethod() + ")");
+                }
+            }
+        }
+        if(!ordered) {
+            for (Method method : handlerMethodMap.keySet()) {
+                ordered |= HandlerOrderGraph.getHandlerOrder(method) != null;
+            }
+            if(!ordered) {
+                return;
+            }
+        }
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            Class<? extends EventObject> eventType = getEventType(handlerMethod.getMethod());
+            List<HandlerMethod> methods = new ArrayList<>();
+            for (Method method : eventHandlerList.getEventHandlerMethods(eventType)) {
+                if(method.getDeclaringClass() != handlerClass) {
+                    methods.add(getHandlerMethod(method));
+                }
+            }
+            for (HandlerMethod newMethod : handlerMethods) {
+                if(getEventType(newMethod.getMethod()).isAssignableFrom(eventType)) {
+                    methods.add(newMethod);
+                }
+            }
+            HandlerOrderGraph.build(methods.toArray(new HandlerMethod[0]));
+        }
+    }
+
+    /**
+     * 检查是否已添加指定类(包括其子类)的EventHandler.
+     * @param handlerClass EventHandler类
+     * @return 如已添加返回true
+     */
+    private boolean isHandlerClassRegistered(Class<? extends EventHandler> handlerClass) {
+        for (Method method : handlerMethodMap.keySet()) {
+            if(handlerClass.isAssignableFrom(method.getDeclaringClass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 删除EventHandler
+     * @param handler 要删除的EventHandler对象
+     */
+    public void removeHandler(EventHandler handler){
+        serialMailboxMap.remove(handler);
+        for (Method method : handler.getClass().getDeclaredMethods()) {
+            HandlerMethod handlerMethod = handlerMethodMap.get(method);
+            MicroBatchAccumulator accumulator;
+            if(handlerMethod != null && (accumulator = handlerMethod.removeAccumulator(handler)) != null) {
+                accumulator.flush();
+            }
+        }
+        if(!eventHandlerObjectMap.removeHandlerObject(handler)){
+            eventHandlerList.removeEventHandler(handler);
+            for (Method method : handler.getClass().getDeclaredMethods()) {
+                handlerMethodMap.remove(method);
+            }
+        }
+        handlerVersion.incrementAndGet();
+    }
+
+    /**
+     * 使所有已缓存的投递计划失效.
+     * <p>投递计划只在通过执行器添加或删除EventHandler时失效, 如通过其他方式修改了执行器所使用的{@link EventHandlerList},
+     * 需调用本方法使修改生效.</p>
+     */
+    public void invalidateDispatchPlans() {
+        handlerVersion.incrementAndGet();
+    }
+
+    /**
+     * 投递事件.
+     * 事件将按照事件类型的投递计划, 以{@link #setDispatchGranularity(DispatchGranularity)}设定的粒度一次性提交到线程池.
+     * 启用虚拟线程模式后, 每次事件方法调用都将在单独的虚拟线程中执行.
+     * 如事件类型设置了接收限制, 事件将先按{@link #setIntakeLimit(Class, int, IntakePolicy)}设定的策略接收
+     * ({@link PartitionedEventObject}及声明了{@link HandlerOrder}的事件类型除外).
+     * 如事件类型设置了事件合并, 事件将先按{@link #setCoalescing(Class, long, TimeUnit, BinaryOperator)}的设置合并.
+     * @param eventObject 带有事件参数的事件对象
+     */
+    public void executor(final EventObject eventObject){
+        EventCoalescer coalescer = getCoalescer(eventObject);
+        if(coalescer != null) {
+            coalescer.publish((CoalescingEventObject) eventObject);
+        } else {
+            dispatch(eventObject);
+        }
+    }
+
+    /**
+     * 投递已合并的事件.
+     * @param eventObject 事件对象
+     * @see #executor(EventObject)
+     */
+    private void dispatch(final EventObject eventObject) {
+        final EventDispatchPlan plan = getDispatchPlan(eventObject.getClass());
+        if(plan.isEmpty()) {
+            return;
+        }
+        TraceContext trace = beginPublishTrace(eventObject);
+        try {
+            dispatch(plan, eventObject);
+        } finally {
+            endPublishTrace(trace);
+        }
+    }
+
+    /**
+     * 按投递计划投递事件.
+     * @param plan 事件类型的投递计划
+     * @param eventObject 事件对象
+     */
+    private void dispatch(final EventDispatchPlan plan, final EventObject eventObject) {
+        if(eventObject instanceof PartitionedEventObject) {
+            deliverPartitioned(plan, eventObject, null);
+            return;
+        }
+        if(plan.isOrdered()) {
+            deliverOrdered(plan, eventObject, null, null);
+            return;
+        }
+        EventIntake intake = getIntake(eventObject);
+        if(intake != null) {
+            deliverThroughIntake(plan, intake, eventObject);
+            return;
+        }
+        boolean virtualThreadMode = virtualThreadDispatcher.get() != null;
+        if(forkJoinPool != null && !virtualThreadMode) {
+            deliverSerial(plan, eventObject, null);
+            deliverDetached(plan, eventObject);
+            executeTraced(forkJoinPool, () -> forkDeliveries(plan, eventObject));
+            return;
+        }
+        switch (virtualThreadMode ? DispatchGranularity.HANDLER : dispatchGranularity.get()) {
+            case EVENT:
+                deliverSerial(plan, eventObject, null);
+                deliverDetached(plan, eventObject);
+                executeTask(new EventTask(eventObject, () -> {
+                    for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                        for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                            runAttachedDelivery(handlerMethod, handler, eventObject);
+                        }
+                    }
+                }));
+                break;
+            case METHOD:
+                deliverSerial(plan, eventObject, null);
+                deliverDetached(plan, eventObject);
+                for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                    final Set<EventHandler> handlerSet = getHandlerObjects(handlerMethod);
+                    if(handlerSet.isEmpty() || hasDedicatedExecutor(handlerMethod)) {
+                        continue;
+                    }
+                    executeTask(new EventTask(eventObject, () -> {
+                        for (EventHandler handler : handlerSet) {
+                            runAttachedDelivery(handlerMethod, handler, eventObject);
+                        }
+                    }));
+                }
+                break;
+            case HANDLER:
+            default:
+                for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                    for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                        deliver(handlerMethod, handler, eventObject);
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * 同步投递事件.
+     * 方法将会在事件执行结束后返回.
+     * <p>除最后一个投递在调用线程直接执行外, 其余投递提交到线程池执行.
+     * 如启用了{@link #setEnableSyncInline(boolean)}, 或在事件方法内调用本方法, 所有投递都将在调用线程依次执行,
+     * 以避免线程池饱和时发生死锁.</p>
+     * @param eventObject 需投递的事件对象
+     * @throws InterruptedException 当等待执行完成时发生中断, 则抛出异常.
+     */
+    public void executorSync(final EventObject eventObject) throws InterruptedException {
+        executorSync(eventObject, -1, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 同步投递事件, 并限制等待时间.
+     * <p>投递方式与{@link #executorSync(EventObject)}相同, 等待超时后方法将返回, 但已提交的投递将继续执行.
+     * 在调用线程执行的投递不受等待时间限制.</p>
+     * @param eventObject 需投递的事件对象
+     * @param timeout 等待时间, 小于0则一直等待
+     * @param unit 时间单位
+     * @return 如所有投递已在等待时间内执行完成返回true, 超时返回false
+     * @throws InterruptedException 当等待执行完成时发生中断, 则抛出异常.
+     */
+    public boolean executorSync(final EventObject eventObject, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        EventDispatchPlan plan = getDispatchPlan(eventObject.getClass());
+        if(plan.isEmpty()){
+            return true;
+        }
+        TraceContext trace = beginPublishTrace(eventObject);
+        try {
+            return deliverSync(plan, eventObject, timeout, unit);
+        } finally {
+            endPublishTrace(trace);
+        }
+    }
+
+    /**
+     * 同步投递事件.
+     * @see #executorSync(EventObject, long, TimeUnit)
+     */
+    private boolean deliverSync(final EventDispatchPlan plan, final EventObject eventObject,
+                                long timeout, TimeUnit unit) throws InterruptedException {
+        CompletionBarrier barrier = new CompletionBarrier();
+        if(eventObject instanceof PartitionedEventObject) {
+            deliverPartitioned(plan, eventObject, barrier);
+            return barrier.await(timeout, unit);
+        }
+        boolean inline = isSyncInline();
+        if(plan.isOrdered() && !inline) {
+            deliverOrdered(plan, eventObject, null, barrier);
+            return barrier.await(timeout, unit);
+        }
+        HandlerMethod pendingMethod = null;
+        EventHandler pendingHandler = null;
+        for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+            for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                if(handlerMethod.isMicroBatch()) {
+                    accumulate(handlerMethod, handler, eventObject);
+                    continue;
+                }
+                SerialMailbox mailbox = getSerialMailbox(handler);
+                if(mailbox != null && !mailbox.isDrainingThread()) {
+                    submitSyncTask(barrier, getMailboxExecutor(mailbox, handlerMethod),
+                            () -> invokeEventMethod(handlerMethod, handler, eventObject));
+                    continue;
+                }
+                if(mailbox == null && hasDedicatedExecutor(handlerMethod)) {
+                    submitSyncTask(barrier, getTaskExecutor(handlerMethod),
+                            () -> invokeEventMethod(handlerMethod, handler, eventObject));
+                    continue;
+                }
+                if(inline) {
+                    invokeEventMethod(handlerMethod, handler, eventObject);
+                    continue;
+                }
+                if(pendingMethod != null) {
+                    final HandlerMethod method = pendingMethod;
+                    final EventHandler methodHandler = pendingHandler;
+                    submitSyncTask(barrier, getTaskExecutor(method),
+                            () -> invokeEventMethod(method, methodHandler, eventObject));
+                }
+                pendingMethod = handlerMethod;
+                pendingHandler = handler;
+            }
+        }
+        if(pendingMethod != null) {
+            invokeEventMethod(pendingMethod, pendingHandler, eventObject);
+        }
+        return barrier.await(timeout, unit);
+    }
+
+    /**
+     * 提交同步投递任务.
+     * @param barrier 同步投递的完成屏障
+     * @param executor 用于执行任务的执行器
+     * @param task 投递任务
+     */
+    private void submitSyncTask(CompletionBarrier barrier, Executor executor, Runnable task) {
+        barrier.register();
+        try {
+            executeTraced(executor, () -> {
+                try {
+                    task.run();
+                } finally {
+                    barrier.arrive();
+                }
+            });
+        } catch (RuntimeException e) {
+            barrier.arrive();
+            throw e;
+        }
+    }
+
+    /**
+     * 检查同步投递是否应在调用线程执行所有投递.
+     * @return 如启用了内联同步投递, 或当前线程正在执行事件方法, 返回true
+     */
+    private boolean isSyncInline() {
+        return enableSyncInline.get() || invokingEventExecutor.get() != null;
+    }
+
+    /**
+     * 异步投递事件.
+     * <p>每个投递单独提交到线程池执行, 返回的Future将在所有投递执行结束后以投递结果列表完成,
+     * 结果列表按投递顺序排列. 事件方法抛出的异常将记录在对应的投递结果中, Future不会因此异常完成,
+     * 异常同样会交由异常处理对象处理.</p>
+     * <p>批量事件方法的投递在事件加入事件批次后即视为完成.</p>
+     * @param eventObject 需投递的事件对象
+     * @return 返回投递结果列表的Future, 如没有需要投递的EventHandler, 则返回以空列表完成的Future
+     */
+    public CompletableFuture<List<EventDeliveryResult>> executorAsync(final EventObject eventObject) {
+        return dispatchForResults(eventObject, null);
+    }
+
+    /**
+     * 以查询方式投递事件.
+     * <p>事件方法可以返回查询结果, 投递方式与{@link #executorAsync(EventObject)}相同,
+     * 返回值不为null且为指定类型的实例时视为查询结果, 其余返回值将被忽略.
+     * 通过返回的{@link EventQuery}可以异步获取所有结果、首个结果或归约结果, 并可设置等待时间以获取部分结果.</p>
+     * @param eventObject 需投递的事件对象
+     * @param resultType 查询结果类型, 基本类型将视为对应的包装类型
+     * @param <R> 查询结果类型
+     * @return 返回查询对象
+     */
+    public <R> EventQuery<R> query(final EventObject eventObject, Class<R> resultType) {
+        EventQuery<R> query = new EventQuery<>(resultType, this::scheduleDelayed);
+        query.bind(dispatchForResults(eventObject, query::onResult));
+        return query;
+    }
+
+    /**
+     * 投递事件并收集投递结果.
+     * @param eventObject 需投递的事件对象
+     * @param listener 投递结果监听器, 将在每个投递完成时调用, 可为null
+     * @return 返回投递结果列表的Future
+     */
+    private CompletableFuture<List<EventDeliveryResult>> dispatchForResults(final EventObject eventObject,
+                                                                            Consumer<EventDeliveryResult> listener) {
+        TraceContext trace = beginPublishTrace(eventObject);
+        try {
+            return deliverForResults(eventObject, listener);
+        } finally {
+            endPublishTrace(trace);
+        }
+    }
+
+    /**
+     * 投递事件并收集投递结果.
+     * @see #dispatchForResults(EventObject, Consumer)
+     */
+    private CompletableFuture<List<EventDeliveryResult>> deliverForResults(final EventObject eventObject,
+                                                                           Consumer<EventDeliveryResult> listener) {
+        EventDispatchPlan plan = getDispatchPlan(eventObject.getClass());
+        // 结果位置与收集器大小均以同一份EventHandler对象快照为准, 不受并发添加或删除EventHandler的影响.
+        final HandlerMethod[] handlerMethods = plan.getHandlerMethods();
+        final List<List<EventHandler>> handlerSnapshots = new ArrayList<>(handlerMethods.length);
+        int deliveryCount = 0;
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            List<EventHandler> handlers = new ArrayList<>(getHandlerObjects(handlerMethod));
+            handlerSnapshots.add(handlers);
+            deliveryCount += handlers.size();
+        }
+
+        final DeliveryResultCollector collector = new DeliveryResultCollector(deliveryCount, listener);
+        if(plan.isOrdered() && !(eventObject instanceof PartitionedEventObject)) {
+            deliverOrdered(plan, handlerSnapshots, eventObject,
+                    (result, resultIndex) -> collector.complete(resultIndex, result), null);
+            return collector.getFuture();
+        }
+        SerialMailbox lane = eventObject instanceof PartitionedEventObject && deliveryCount != 0 ?
+                getPartitionLane(eventObject) : null;
+        int nextIndex = 0;
+        for (int node = 0; node < handlerMethods.length; node++) {
+            final HandlerMethod handlerMethod = handlerMethods[node];
+            for (final EventHandler handler : handlerSnapshots.get(node)) {
+                final int resultIndex = nextIndex++;
+                Runnable task = () -> collector.complete(resultIndex,
+                        invokeEventMethodForResult(handlerMethod, handler, eventObject));
+                try {
+                    if(lane != null && getSerialMailbox(handler) == null) {
+                        executeTraced(getMailboxExecutor(lane, handlerMethod), task);
+                    } else {
+                        executeTask(handlerMethod, handler, task);
+                    }
+                } catch (RuntimeException e) {
+                    collector.complete(resultIndex,
+                            new EventDeliveryResult(handler, handlerMethod.getMethod(), eventObject, null, e));
+                }
+            }
+        }
+        return collector.getFuture();
+    }
+
+    /**
+     * 批量投递事件.
+     * <p>批次中的每种事件类型只解析一次投递计划, 投递将按EventHandler对象分组,
+     * 每个EventHandler对象只提交一个任务, 任务内按事件在集合中的顺序依次调用事件方法.</p>
+     * <p>{@link PartitionedEventObject}不参与分组, 将按顺序逐个投递到所属的分区通道;
+     * 声明了{@link HandlerOrder}的事件类型同样不参与分组, 将逐个按依赖图投递.</p>
+     * @param events 需投递的事件集合
+     * @return 返回已安排的投递数量, 即事件方法的调用次数
+     */
+    public int executor(Collection<? extends EventObject> events) {
+        TraceContext trace = beginPublishTrace(events);
+        try {
+            return deliverBatch(events);
+        } finally {
+            endPublishTrace(trace);
+        }
+    }
+
+    /**
+     * 批量投递事件.
+     * @see #executor(Collection)
+     */
+    private int deliverBatch(Collection<? extends EventObject> events) {
+        List<EventObject> batchEvents = new ArrayList<>(events.size());
+        int separateCount = 0;
+        for (EventObject event : events) {
+            EventDispatchPlan plan = getDispatchPlan(event.getClass());
+            EventCoalescer coalescer = getCoalescer(event);
+            if(coalescer != null) {
+                coalescer.publish((CoalescingEventObject) event);
+            } else if(event instanceof PartitionedEventObject) {
+                separateCount += deliverPartitioned(plan, event, null);
+            } else if(plan.isOrdered()) {
+                separateCount += deliverOrdered(plan, event, null, null);
+            } else {
+                EventIntake intake = plan.isEmpty() ? null : getIntake(event);
+                if(intake != null) {
+                    separateCount += deliverThroughIntake(plan, intake, event);
+                } else {
+                    batchEvents.add(event);
+                }
+            }
+        }
+        EventBatch batch = new EventBatch(batchEvents, this::getDispatchPlan, this::getHandlerObjects);
+        batch.getHandlerDeliveries().forEach((handler, deliveries) -> {
+            SerialMailbox mailbox = getSerialMailbox(handler);
+            if(mailbox != null) {
+                submitToMailbox(mailbox, handler, deliveries, null);
+                return;
+            }
+            List<EventBatch.Delivery> attachedDeliveries = submitDetached(handler, deliveries, null);
+            if(!attachedDeliveries.isEmpty()) {
+                executeTask(() -> invokeBatchDeliveries(handler, attachedDeliveries));
+            }
+        });
+        return batch.getDeliveryCount() + separateCount;
+    }
+
+    /**
+     * 同步批量投递事件.
+     * <p>投递方式与{@link #executor(Collection)}相同, 最后一个EventHandler对象的投递将在调用线程执行,
+     * 方法将会在批次内所有投递执行结束后返回.</p>
+     * @param events 需投递的事件集合
+     * @return 返回已执行的投递数量, 即事件方法的调用次数
+     * @throws InterruptedException 当等待执行完成时发生中断, 则抛出异常.
+     */
+    public int executorSync(Collection<? extends EventObject> events) throws InterruptedException {
+        TraceContext trace = beginPublishTrace(events);
+        try {
+            return deliverBatchSync(events);
+        } finally {
+            endPublishTrace(trace);
+        }
+    }
+
+    /**
+     * 同步批量投递事件.
+     * @see #executorSync(Collection)
+     */
+    private int deliverBatchSync(Collection<? extends EventObject> events) throws InterruptedException {
+        CompletionBarrier barrier = new CompletionBarrier();
+        List<EventObject> batchEvents = new ArrayList<>(events.size());
+        int separateCount = 0;
+        for (EventObject event : events) {
+            EventDispatchPlan plan = getDispatchPlan(event.getClass());
+            if(event instanceof PartitionedEventObject) {
+                separateCount += deliverPartitioned(plan, event, barrier);
+            } else if(plan.isOrdered()) {
+                separateCount += deliverOrdered(plan, event, null, barrier);
+            } else {
+                batchEvents.add(event);
+            }
+        }
+        EventBatch batch = new EventBatch(batchEvents, this::getDispatchPlan, this::getHandlerObjects);
+        boolean inline = isSyncInline();
+        EventHandler pendingHandler = null;
+        List<EventBatch.Delivery> pendingDeliveries = null;
+        for (Map.Entry<EventHandler, List<EventBatch.Delivery>> entry : batch.getHandlerDeliveries().entrySet()) {
+            SerialMailbox mailbox = getSerialMailbox(entry.getKey());
+            if(mailbox != null && !mailbox.isDrainingThread()) {
+                submitToMailbox(mailbox, entry.getKey(), entry.getValue(), barrier);
+                continue;
+            }
+            List<EventBatch.Delivery> attachedDeliveries = submitDetached(entry.getKey(), entry.getValue(), barrier);
+            if(attachedDeliveries.isEmpty()) {
+                continue;
+            }
+            if(inline) {
+                invokeBatchDeliveries(entry.getKey(), attachedDeliveries);
+                continue;
+            }
+            if(pendingHandler != null) {
+                final EventHandler handler = pendingHandler;
+                final List<EventBatch.Delivery> deliveries = pendingDeliveries;
+                submitSyncTask(barrier, getTaskExecutor(), () -> invokeBatchDeliveries(handler, deliveries));
+            }
+            pendingHandler = entry.getKey();
+            pendingDeliveries = attachedDeliveries;
+        }
+        if(pendingHandler != null) {
+            invokeBatchDeliveries(pendingHandler, pendingDeliveries);
+        }
+        barrier.await(-1, TimeUnit.NANOSECONDS);
+        return batch.getDeliveryCount() + separateCount;
+    }
+
+    /**
+     * 对指定{@link EventHandler}投递事件
+     * @param handler 要进行事件投递的EventHandler
+     * @param eventObject 事件对象
+     * @return 返回已处理事件方法数量
+     * @throws IllegalAccessException 当EventHandler访问权不为public时抛出异常.
+     */
+    public int executor(EventHandler handler, EventObject eventObject) throws IllegalAccessException {
+        Class<?> handlerClass = handler.getClass();
+        int classModifier = handlerClass.getModifiers();
+        if(!Modifier.isPublic(classModifier)) {
+            throw new IllegalAccessException("class is not public");
+        }
+
+        Method[] methods = handlerClass.getDeclaredMethods();
+        int invokeCount = 0;
+        TraceContext trace = beginPublishTrace(eventObject);
+        try {
+            for (Method method : methods) {
+                if(!checkMethod(method, eventObject)) {
+                    continue;
+                }
+
+                deliver(getHandlerMethod(method), handler, eventObject);
+                invokeCount++;
+            }
+        } finally {
+            endPublishTrace(trace);
+        }
+        return invokeCount;
+    }
+
+    /**
+     * 在指定延迟后投递事件.
+     * <p>延迟任务由时间轮调度, 添加和取消的开销与待投递事件数量无关, 投递精度为{@value #TIMING_WHEEL_TICK_MILLIS}毫秒.
+     * 到期后投递任务将提交到执行器, 按{@link #executor(EventObject)}投递, 其中一个投递将直接在该任务中执行.</p>
+     * @param eventObject 事件对象
+     * @param delay 延迟
+     * @param unit 延迟的时间单位
+     * @return 返回可用于取消投递的ScheduledEvent对象
+     * @throws IllegalStateException 当执行器已关闭时抛出
+     */
+    public ScheduledEvent executorDelayed(final EventObject eventObject, long delay, TimeUnit unit) {
+        Objects.requireNonNull(eventObject);
+        TraceContext trace = captureTrace();
+        ScheduledEventTask task = new ScheduledEventTask(getTimingWheel(), eventObject, null,
+                event -> runInTrace(trace, () -> submitScheduled(event)), 0);
+        task.start(unit.toNanos(Math.max(delay, 0)));
+        return task;
+    }
+
+    /**
+     * 以固定频率周期投递事件.
+     * <p>每次投递的时间以首次投递时间为基准计算, 不受投递耗时影响.
+     * 周期投递将持续到调用{@link ScheduledEvent#cancel()}或执行器关闭.</p>
+     * @param eventObject 事件对象
+     * @param initialDelay 首次投递的延迟
+     * @param period 投递周期
+     * @param unit 时间单位
+     * @return 返回可用于取消投递的ScheduledEvent对象
+     * @throws IllegalArgumentException 当period小于等于0时抛出
+     * @throws IllegalStateException 当执行器已关闭时抛出
+     */
+    public ScheduledEvent executorPeriodic(final EventObject eventObject, long initialDelay, long period, TimeUnit unit) {
+        Objects.requireNonNull(eventObject);
+        if(period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0");
+        }
+        TraceContext trace = captureTrace();
+        ScheduledEventTask task = new ScheduledEventTask(getTimingWheel(), eventObject, null,
+                event -> runInTrace(trace, () -> submitScheduled(event)), unit.toNanos(period));
+        task.start(unit.toNanos(Math.max(initialDelay, 0)));
+        return task;
+    }
+
+    /**
+     * 将到期的事件提交到执行器投递, 在时间轮工作线程中调用.
+     * @param eventObject 事件对象
+     */
+    private void submitScheduled(EventObject eventObject) {
+        executeTask(new EventTask(eventObject, () -> dispatchScheduled(eventObject)));
+    }
+
+    /**
+     * 投递到期的事件, 在时间轮提交的任务中执行.
+     * <p>投递方式与{@link #executor(EventObject)}相同, 但最后一个可直接执行的投递将在当前任务中执行,
+     * 而不是再次提交到执行器.</p>
+     * @param eventObject 事件对象
+     */
+    private void dispatchScheduled(final EventObject eventObject) {
+        EventCoalescer coalescer = getCoalescer(eventObject);
+        if(coalescer != null) {
+            coalescer.publish((CoalescingEventObject) eventObject);
+            return;
+        }
+        final EventDispatchPlan plan = getDispatchPlan(eventObject.getClass());
+        if(plan.isEmpty()) {
+            return;
+        }
+        TraceContext trace = beginPublishTrace(eventObject);
+        try {
+            if(eventObject instanceof PartitionedEventObject || plan.isOrdered() || getIntake(eventObject) != null
+                    || forkJoinPool != null || virtualThreadDispatcher.get() != null) {
+                dispatch(plan, eventObject);
+            } else {
+                deliverInPlace(plan, eventObject);
+            }
+        } finally {
+            endPublishTrace(trace);
+        }
+    }
+
+    /**
+     * 在当前线程中投递事件.
+     * <p>串行投递、被隔离及受并发限制的投递依然提交到各自的执行器, 其余投递中最后一个在当前线程执行, 其他提交到执行器.</p>
+     * @param plan 投递计划
+     * @param event 事件对象
+     */
+    private void deliverInPlace(EventDispatchPlan plan, EventObject event) {
+        deliverSerial(plan, event, null);
+        HandlerMethod pendingMethod = null;
+        EventHandler pendingHandler = null;
+        for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+            for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                if(handlerMethod.isMicroBatch() || isDetached(handlerMethod, handler)) {
+                    deliver(handlerMethod, handler, event);
+                    continue;
+                } else if(getSerialMailbox(handler) != null) {
+                    continue;
+                }
+                if(pendingMethod != null) {
+                    deliver(pendingMethod, pendingHandler, event);
+                }
+                pendingMethod = handlerMethod;
+                pendingHandler = handler;
+            }
+        }
+        if(pendingMethod != null) {
+            invokeEventMethod(pendingMethod, pendingHandler, event);
+        }
+    }
+
+    /**
+     * 设置事件重投是否启用.<br>
+     * 事件重新投递(事件重投, EventResend)可以将当前EventHandler的方法处理的事件再次投递给当前EventHandler再次进行处理,
+     * 通过事件重投, 可以做到例如让事件延迟处理的能力.
+     * @param enable 如果启用,
+     *               则EventHandler内的事件处理方法将可以调用{@link #resendCurrentEvent()}重新投递当前任务到该EventHandler.
+     */
+    public void setEnableEventResend(boolean enable) {
+        enableEventResend.set(enable);
+    }
+
+    /**
+     * 设置是否使用已编译的事件方法调用器.<br>
+     * 启用时(默认), 事件方法将在添加EventHandler时编译为{@link EventMethodInvoker}, 投递事件时直接调用;
+     * 禁用时, 将通过{@link Method#invoke(Object, Object...)}反射调用事件方法, 可用于对比两种调用方式的性能.
+     * @param enable 是否启用
+     */
+    public void setEnableCompiledInvoker(boolean enable) {
+        enableCompiledInvoker.set(enable);
+    }
+
+    /**
+     * 设置同步投递是否在调用线程执行所有投递.<br>
+     * 启用后, {@link #executorSync(EventObject)}等同步投递方法将在调用线程依次执行所有投递, 不再提交到线程池,
+     * 适用于事件方法执行很快或调用线程本身就是工作线程的场景.
+     * @param enable 是否启用, 默认不启用
+     */
+    public void setEnableSyncInline(boolean enable) {
+        enableSyncInline.set(enable);
+    }
+
+    /**
+     * 设置事件投递粒度.
+     * @param granularity 投递粒度, 默认为{@link DispatchGranularity#HANDLER}
+     * @see DispatchGranularity
+     */
+    public void setDispatchGranularity(DispatchGranularity granularity) {
+        dispatchGranularity.set(Objects.requireNonNull(granularity));
+    }
+
+    /**
+     * 获取事件投递粒度.
+     * @return 返回当前设置的投递粒度
+     */
+    public DispatchGranularity getDispatchGranularity() {
+        return dispatchGranularity.get();
+    }
+
+    /**
+     * 设置虚拟线程模式.
+     * <p>启用后, 每次事件方法调用都将在单独的虚拟线程中执行, 投递粒度固定为{@link DispatchGranularity#HANDLER},
+     * 适用于事件方法中存在阻塞IO等阻塞操作的场景. 可以为每个事件方法设置最大并发调用数,
+     * 超出的调用将在虚拟线程中等待, 不会占用平台线程. 在调用线程直接执行的调用(例如同步投递中在调用线程执行的投递)
+     * 不会等待, 也不计入并发数; 需要严格限制并发数时请使用{@link ConcurrencyLimit}.</p>
+     * <p>虚拟线程需要Java 21及以上版本, 可通过{@link #isVirtualThreadSupported()}检查是否支持.</p>
+     * <p>禁用时, 已提交到虚拟线程的任务将继续执行完成.</p>
+     * @param enable 是否启用
+     * @param maxConcurrencyPerMethod 每个事件方法的最大并发调用数, 小于等于0则不限制; 禁用时忽略.
+     * @throws UnsupportedOperationException 当启用时当前Java版本不支持虚拟线程则抛出
+     */
+    public void setVirtualThreadMode(boolean enable, int maxConcurrencyPerMethod) {
+        VirtualThreadDispatcher oldDispatcher = virtualThreadDispatcher.getAndSet(
+                enable ? new VirtualThreadDispatcher(maxConcurrencyPerMethod) : null);
+        if(oldDispatcher != null) {
+            oldDispatcher.shutdown();
+        }
+    }
+
+    /**
+     * 检查是否启用了虚拟线程模式.
+     * @return 如已启用返回true
+     */
+    public boolean isVirtualThreadMode() {
+        return virtualThreadDispatcher.get() != null;
+    }
+
+    /**
+     * 检查当前运行环境是否支持虚拟线程.
+     * @return 如支持返回true
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreadDispatcher.isSupported();
+    }
+
+    /**
+     * 获取指定事件类型的投递计划.
+     * <p>如缓存的投递计划创建后添加或删除过EventHandler, 将重新创建投递计划.
+     * 版本须在读取EventHandlerList之前读取, 使并发修改期间创建的投递计划在修改完成后失效.</p>
+     * @param eventClass 事件对象Class
+     * @return 返回投递计划
+     */
+    private EventDispatchPlan getDispatchPlan(Class<? extends EventObject> eventClass) {
+        long version = handlerVersion.get();
+        AtomicReference<EventDispatchPlan> planReference = dispatchPlanCache.get(eventClass);
+        EventDispatchPlan plan = planReference.get();
+        if(plan == null || plan.getVersion() != version) {
+            plan = new EventDispatchPlan(eventHandlerList.getEventHandlerMethods(eventClass),
+                    this::getHandlerMethod, version);
+            planReference.set(plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 获取事件方法信息.
+     * @param eventMethod 事件方法
+     * @return 返回事件方法信息, 如该方法尚未解析, 将即时解析并缓存.
+     */
+    private HandlerMethod getHandlerMethod(Method eventMethod) {
+        HandlerMethod handlerMethod = handlerMethodMap.get(eventMethod);
+        return handlerMethod != null ? handlerMethod : handlerMethodMap.computeIfAbsent(eventMethod, HandlerMethod::new);
+    }
+
+    /**
+     * 获取事件方法所属的EventHandler对象.
+     * @param handlerMethod 事件方法信息
+     * @return 返回EventHandler对象集合, 如无则返回空集合
+     */
+    private Set<EventHandler> getHandlerObjects(HandlerMethod handlerMethod) {
+        Set<EventHandler> handlerSet = eventHandlerObjectMap.getHandlerObject(handlerMethod.getHandlerClass());
+        return handlerSet != null ? handlerSet : Collections.emptySet();
+    }
+
+    /**
+     * 在ForkJoinPool工作线程中fork事件的各个投递.
+     * <p>投递按照投递粒度划分, 除最后一个投递在当前线程直接执行外, 其余投递都将fork到当前工作线程的本地队列.</p>
+     * @param plan 投递计划
+     * @param event 事件对象
+     */
+    private void forkDeliveries(EventDispatchPlan plan, EventObject event) {
+        Runnable pending = null;
+        switch (dispatchGranularity.get()) {
+            case EVENT:
+                for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                    for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                        runAttachedDelivery(handlerMethod, handler, event);
+                    }
+                }
+                break;
+            case METHOD:
+                for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                    final Set<EventHandler> handlerSet = getHandlerObjects(handlerMethod);
+                    if(handlerSet.isEmpty() || hasDedicatedExecutor(handlerMethod)) {
+                        continue;
+                    }
+                    if(pending != null) {
+                        ForkJoinTask.adapt(traced(pending)).fork();
+                    }
+                    pending = () -> {
+                        for (EventHandler handler : handlerSet) {
+                            runAttachedDelivery(handlerMethod, handler, event);
+                        }
+                    };
+                }
+                break;
+            case HANDLER:
+            default:
+                for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                    for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                        if(handlerMethod.isMicroBatch()) {
+                            accumulate(handlerMethod, handler, event);
+                            continue;
+                        }
+                        if(getSerialMailbox(handler) != null || isDetached(handlerMethod, handler)) {
+                            continue;
+                        }
+                        if(pending != null) {
+                            ForkJoinTask.adapt(traced(pending)).fork();
+                        }
+                        pending = () -> invokeEventMethod(handlerMethod, handler, event);
+                    }
+                }
+                break;
+        }
+        if(pending != null) {
+            pending.run();
+        }
+    }
+
+    /**
+     * 投递单个事件到EventHandler的事件方法.
+     * <p>批量事件方法的事件将加入事件批次, 其他事件方法则提交到线程池执行.</p>
+     * @param handlerMethod 事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     */
+    private void deliver(HandlerMethod handlerMethod, EventHandler handler, EventObject event) {
+        if(handlerMethod.isMicroBatch()) {
+            accumulate(handlerMethod, handler, event);
+        } else {
+            executeTask(handlerMethod, handler, new DeliveryTask(handlerMethod, handler, event));
+        }
+    }
+
+    /**
+     * 将事件加入批量事件方法的事件批次.
+     * @param handlerMethod 批量事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     */
+    private void accumulate(HandlerMethod handlerMethod, EventHandler handler, EventObject event) {
+        MicroBatchAccumulator accumulator = handlerMethod.getAccumulator(handler);
+        if(accumulator == null) {
+            accumulator = handlerMethod.computeAccumulator(handler, key -> new MicroBatchAccumulator(
+                    handlerMethod.getMicroBatch(),
+                    this::executeTask,
+                    this::scheduleDelayed,
+                    batch -> invokeMicroBatch(handlerMethod, key, batch)));
+        }
+        accumulator.add(event);
+    }
+
+    /**
+     * 在当前线程以事件批次调用批量事件方法.
+     * @param handlerMethod 批量事件方法
+     * @param handler EventHandler对象
+     * @param batch 事件批次
+     */
+    private void invokeMicroBatch(HandlerMethod handlerMethod, EventHandler handler, List<EventObject> batch) {
+        MethodMetrics metrics = enableMetrics.get() ? handlerMethod.getMetrics(batch.get(0).getClass()) : null;
+        long startTime = 0;
+        boolean failed = true;
+        if(metrics != null) {
+            metrics.onStart(-1);
+            startTime = System.nanoTime();
+        }
+        try {
+            handlerMethod.getInvoker(enableCompiledInvoker.get()).invoke(handler, batch);
+            failed = false;
+        } catch (Throwable e) {
+            handleUncaughtException(Thread.currentThread(),
+                    new EventInvokeException(handler, handlerMethod.getMethod(), batch.get(0), e));
+        } finally {
+            if(metrics != null) {
+                metrics.onFinish(System.nanoTime() - startTime, failed);
+            }
+        }
+    }
+
+    /**
+     * 在当前线程调用事件方法.
+     * <p>事件方法抛出的异常将包装为{@link EventInvokeException}并交由异常处理对象处理, 不会影响同一任务内的其他调用.</p>
+     * <p>如事件方法为批量事件方法, 则将事件加入事件批次.</p>
+     * @param handlerMethod 事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     */
+    private void invokeEventMethod(HandlerMethod handlerMethod, EventHandler handler, EventObject event) {
+        if(handlerMethod.isMicroBatch()) {
+            accumulate(handlerMethod, handler, event);
+            return;
+        }
+        RetryPolicy retryPolicy = handlerMethod.getRetryPolicy();
+        if(retryPolicy != null) {
+            invokeWithRetry(retryPolicy, handlerMethod, handler, event, 1);
+            return;
+        }
+        try {
+            invokeHandlerMethod(handlerMethod, handler, event);
+        } catch (TimedOutInvocationException ignored) {
+            // 超时已报告.
+        } catch (Throwable e) {
+            handleUncaughtException(Thread.currentThread(),
+                    new EventInvokeException(handler, handlerMethod.getMethod(), event, e));
+        }
+    }
+
+    /**
+     * 在当前线程调用标注了{@link Retry}的事件方法.
+     * <p>调用失败且可重试时, 将在退避时间后由时间轮重新提交调用, 等待期间不占用执行器线程.
+     * 只有最终失败的异常会交由异常处理对象处理.</p>
+     * @param retryPolicy 事件方法的重试策略
+     * @param handlerMethod 事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     * @param attempt 本次调用是第几次调用, 从1开始
+     */
+    private void invokeWithRetry(RetryPolicy retryPolicy, HandlerMethod handlerMethod,
+                                 EventHandler handler, EventObject event, int attempt) {
+        try {
+            invokeHandlerMethod(handlerMethod, handler, event);
+            if(attempt > 1) {
+                retryPolicy.recordRecovered();
+            }
+            return;
+        } catch (TimedOutInvocationException ignored) {
+            // 超时已报告, 超时的调用不再重试.
+        } catch (Throwable e) {
+            if(retryPolicy.shouldRetry(attempt, e)) {
+                try {
+                    scheduleDelayed(new RetryTask(retryPolicy, handlerMethod, handler, event, attempt + 1),
+                            retryPolicy.nextDelayNanos(attempt), TimeUnit.NANOSECONDS);
+                    retryPolicy.recordRetry();
+                    return;
+                } catch (IllegalStateException stopped) {
+                    // 执行器已关闭, 无法再重试.
+                    e.addSuppressed(stopped);
+                }
+            }
+            retryPolicy.recordExhausted();
+            handleUncaughtException(Thread.currentThread(),
+                    new EventInvokeException(handler, handlerMethod.getMethod(), event, e));
+        }
+    }
+
+    /**
+     * 开始发布跨度, 并将其设为当前线程的追踪跨度.
+     * @param eventObject 事件对象
+     * @return 返回发布跨度, 如未设置追踪跨度接收器则返回null
+     */
+    private TraceContext beginPublishTrace(EventObject eventObject) {
+        return traceSink.get() != null ? beginPublishTrace(eventObject.getClass()) : null;
+    }
+
+    /**
+     * 开始批量发布的发布跨度, 并将其设为当前线程的追踪跨度.
+     * @param events 事件集合
+     * @return 返回发布跨度, 如未设置追踪跨度接收器或集合为空则返回null
+     */
+    private TraceContext beginPublishTrace(Collection<? extends EventObject> events) {
+        if(traceSink.get() == null || events.isEmpty()) {
+            return null;
+        }
+        return beginPublishTrace(events.iterator().next().getClass());
+    }
+
+    private TraceContext beginPublishTrace(Class<?> eventType) {
+        TraceContext outer = currentTrace.get();
+        TraceContext trace = TraceContext.beginPublish(outer, eventType, this::reportSpan);
+        trace.setOuter(outer);
+        currentTrace.set(trace);
+        return trace;
+    }
+
+    /**
+     * 恢复当前线程的追踪跨度, 并释放发布线程对发布跨度的引用.
+     * @param trace 发布跨度, 可为null
+     */
+    private void endPublishTrace(TraceContext trace) {
+        if(trace == null) {
+            return;
+        }
+        TraceContext outer = trace.takeOuter();
+        if(outer == null) {
+            currentTrace.remove();
+        } else {
+            currentTrace.set(outer);
+        }
+        trace.release();
+    }
+
+    /**
+     * 在指定追踪跨度中执行任务.
+     * @param trace 追踪跨度, 如为null则直接执行
+     * @param task 任务
+     */
+    private static void runInTrace(TraceContext trace, Runnable task) {
+        if(trace == null) {
+            task.run();
+            return;
+        }
+        TraceContext outer = currentTrace.get();
+        currentTrace.set(trace);
+        try {
+            task.run();
+        } finally {
+            if(outer == null) {
+                currentTrace.remove();
+            } else {
+                currentTrace.set(outer);
+            }
+        }
+    }
+
+    /**
+     * 获取当前线程的追踪跨度, 用于在延迟任务中延续因果链.
+     * @return 返回当前追踪跨度, 如未设置追踪跨度接收器或当前线程不在跨度中则返回null
+     */
+    private TraceContext captureTrace() {
+        return traceSink.get() != null ? currentTrace.get() : null;
+    }
+
+    /**
+     * 将已结束的跨度交由追踪跨度接收器处理.
+     * <p>接收器抛出的异常将交由{@link #setUncaughtExceptionHandler(Thread.UncaughtExceptionHandler)}设置的处理对象处理.</p>
+     * @param span 追踪跨度
+     */
+    private void reportSpan(TraceSpan span) {
+        TraceSink sink = traceSink.get();
+        if(sink == null) {
+            return;
+        }
+        try {
+            sink.onSpan(span);
+        } catch (RuntimeException e) {
+            Thread.UncaughtExceptionHandler threadExceptionHandler;
+            if((threadExceptionHandler = this.exceptionHandler.get()) != null){
+                threadExceptionHandler.uncaughtException(Thread.currentThread(), e);
+            }
+        }
+    }
+
+    /**
+     * 在发布跨度中执行的任务, 执行结束后释放对发布跨度的引用.
+     */
+    private static final class TracedTask implements Runnable, PendingEvent {
+
+        private final TraceContext trace;
+        private final Runnable task;
+
+        TracedTask(TraceContext trace, Runnable task) {
+            this.trace = trace;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                runInTrace(trace, task);
+            } finally {
+                trace.release();
+            }
+        }
+
+        @Override
+        public EventObject getEventObject() {
+            return task instanceof PendingEvent ? ((PendingEvent) task).getEventObject() : null;
+        }
+
+        @Override
+        public EventHandler getHandler() {
+            return task instanceof PendingEvent ? ((PendingEvent) task).getHandler() : null;
+        }
+
+        @Override
+        public Method getHandlerMethod() {
+            return task instanceof PendingEvent ? ((PendingEvent) task).getHandlerMethod() : null;
+        }
+    }
+
+    /**
+     * 当前线程所执行的投递任务的排队时间(纳秒), 如未知则为-1.
+     */
+    private final static ThreadLocal<long[]> taskQueueWait = ThreadLocal.withInitial(() -> new long[] {-1});
+
+    /**
+     * 获取投递任务的提交时间.
+     * @return 如启用了运行指标返回当前时间, 否则返回0
+     */
+    private long getSubmitTime() {
+        // 0 被用于表示未记录提交时间.
+        return enableMetrics.get() ? System.nanoTime() | 1 : 0;
+    }
+
+    /**
+     * 单个事件方法的投递任务.
+     */
+    private final class DeliveryTask implements Runnable, PendingEvent {
+
+        private final HandlerMethod handlerMethod;
+        private final EventHandler handler;
+        private final EventObject event;
+        private final long submitTime = getSubmitTime();
+
+        DeliveryTask(HandlerMethod handlerMethod, EventHandler handler, EventObject event) {
+            this.handlerMethod = handlerMethod;
+            this.handler = handler;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            if(submitTime == 0) {
+                invokeEventMethod(handlerMethod, handler, event);
+                return;
+            }
+            long[] queueWait = taskQueueWait.get();
+            queueWait[0] = System.nanoTime() - submitTime;
+            try {
+                invokeEventMethod(handlerMethod, handler, event);
+            } finally {
+                queueWait[0] = -1;
+            }
+        }
+
+        @Override
+        public EventObject getEventObject() {
+            return event;
+        }
+
+        @Override
+        public EventHandler getHandler() {
+            return handler;
+        }
+
+        @Override
+        public Method getHandlerMethod() {
+            return handlerMethod.getMethod();
+        }
+    }
+
+    /**
+     * 等待重试的投递任务, 到期后由时间轮提交到执行器.
+     */
+    private final class RetryTask implements Runnable, PendingEvent {
+
+        private final RetryPolicy retryPolicy;
+        private final HandlerMethod handlerMethod;
+        private final EventHandler handler;
+        private final EventObject event;
+        private final int attempt;
+        private final TraceContext trace = captureTrace();
+
+        RetryTask(RetryPolicy retryPolicy, HandlerMethod handlerMethod,
+                  EventHandler handler, EventObject event, int attempt) {
+            this.retryPolicy = retryPolicy;
+            this.handlerMethod = handlerMethod;
+            this.handler = handler;
+            this.event = event;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public void run() {
+            runInTrace(trace, () -> executeTask(handlerMethod, handler, new EventTask(event, handler, handlerMethod.getMethod(),
+                    () -> invokeWithRetry(retryPolicy, handlerMethod, handler, event, attempt))));
+        }
+
+        @Override
+        public EventObject getEventObject() {
+            return event;
+        }
+
+        @Override
+        public EventHandler getHandler() {
+            return handler;
+        }
+
+        @Override
+        public Method getHandlerMethod() {
+            return handlerMethod.getMethod();
+        }
+    }
+
+    /**
+     * 携带事件对象的任务, 使执行器关闭时能够识别被丢弃任务中的事件.
+     */
+    private final class EventTask implements Runnable, PendingEvent {
+
+        private final EventObject event;
+        private final EventHandler handler;
+        private final Method handlerMethod;
+        private final Runnable task;
+        private final long submitTime = getSubmitTime();
+
+        EventTask(EventObject event, Runnable task) {
+            this(event, null, null, task);
+        }
+
+        EventTask(EventObject event, EventHandler handler, Method handlerMethod, Runnable task) {
+            this.event = event;
+            this.handler = handler;
+            this.handlerMethod = handlerMethod;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if(submitTime == 0) {
+                task.run();
+                return;
+            }
+            long[] queueWait = taskQueueWait.get();
+            queueWait[0] = System.nanoTime() - submitTime;
+            try {
+                task.run();
+            } finally {
+                queueWait[0] = -1;
+            }
+        }
+
+        @Override
+        public EventObject getEventObject() {
+            return event;
+        }
+
+        @Override
+        public EventHandler getHandler() {
+            return handler;
+        }
+
+        @Override
+        public Method getHandlerMethod() {
+            return handlerMethod;
+        }
+    }
+
+    /**
+     * 在当前线程调用事件方法, 并返回投递结果.
+     * <p>事件方法抛出的异常除记录在投递结果中外, 同样交由异常处理对象处理.</p>
+     * <p>如事件方法为批量事件方法, 则将事件加入事件批次, 并视为投递成功.</p>
+     * @param handlerMethod 事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     * @return 返回投递结果
+     */
+    private EventDeliveryResult invokeEventMethodForResult(HandlerMethod handlerMethod,
+                                                           EventHandler handler,
+                                                           EventObject event) {
+        if(handlerMethod.isMicroBatch()) {
+            accumulate(handlerMethod, handler, event);
+            return new EventDeliveryResult(handler, handlerMethod.getMethod(), event, null, null);
+        }
+        try {
+            Object returnValue = invokeHandlerMethod(handlerMethod, handler, event);
+            return new EventDeliveryResult(handler, handlerMethod.getMethod(), event, returnValue, null);
+        } catch (TimedOutInvocationException e) {
+            return new EventDeliveryResult(handler, handlerMethod.getMethod(), event, null, e.getCause());
+        } catch (Throwable e) {
+            handleUncaughtException(Thread.currentThread(),
+                    new EventInvokeException(handler, handlerMethod.getMethod(), event, e));
+            return new EventDeliveryResult(handler, handlerMethod.getMethod(), event, null, e);
+        }
+    }
+
+    /**
+     * 在当前线程调用事件方法, 事件方法抛出的异常将直接抛出.
+     * @param handlerMethod 事件方法, 不能为批量事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     * @return 返回事件方法的返回值, 如返回类型为void则返回null
+     * @throws TimedOutInvocationException 当调用已超时并已报告超时后, 事件方法又抛出异常时抛出, 调用方不应再次报告
+     * @throws Throwable 事件方法抛出的异常
+     */
+    private Object invokeHandlerMethod(HandlerMethod handlerMethod, EventHandler handler, EventObject event)
+            throws Throwable {
+        VirtualThreadDispatcher dispatcher = virtualThreadDispatcher.get();
+        // 只在虚拟线程中等待许可, 在调用线程直接执行的投递(例如同步投递)不受并发数限制, 以免阻塞平台线程.
+        Semaphore permits = dispatcher != null && VirtualThreadDispatcher.isVirtualThread() ?
+                dispatcher.getPermits(handlerMethod) : null;
+        if(permits != null) {
+            permits.acquire();
+        }
+        boolean resend = enableEventResend.get();
+        if(resend) {
+            setThreadResendInfo(this, handler, event);
+        }
+        EventExecutor outerExecutor = invokingEventExecutor.get();
+        invokingEventExecutor.set(this);
+        MethodMetrics metrics = enableMetrics.get() ? handlerMethod.getMetrics(event.getClass()) : null;
+        TraceContext outerTrace = traceSink.get() != null ? currentTrace.get() : null;
+        TraceContext trace = null;
+        if(outerTrace != null) {
+            trace = outerTrace.beginHandler(handlerMethod, event.getClass());
+            currentTrace.set(trace);
+        }
+        HandlerWatchdog currentWatchdog = watchdog.get();
+        boolean trackInFlight = adaptiveIsolation.get() != null;
+        HandlerInvocation invocation = currentWatchdog != null || trackInFlight || handlerMethod.getTimeoutNanos() > 0 ?
+                beginInvocation(handlerMethod, handler, event, currentWatchdog, trackInFlight) : null;
+        long startTime = 0;
+        boolean failed = true;
+        if(metrics != null) {
+            metrics.onStart(taskQueueWait.get()[0]);
+            startTime = System.nanoTime();
+        }
+        try {
+            Object returnValue = handlerMethod.getInvoker(enableCompiledInvoker.get()).invoke(handler, event);
+            failed = false;
+            return returnValue;
+        } catch (Throwable e) {
+            if(invocation != null && invocation.finish()) {
+                // 例如被超时中断后抛出的异常, 超时已作为该调用的失败报告过.
+                throw new TimedOutInvocationException(e);
+            }
+            throw e;
+        } finally {
+            if(invocation != null) {
+                if(currentWatchdog != null) {
+                    currentWatchdog.unregister(invocation);
+                }
+                if(trackInFlight) {
+                    handlerMethod.removeInFlight(invocation);
+                }
+                invocation.finish();
+            }
+            if(metrics != null) {
+                metrics.onFinish(System.nanoTime() - startTime, failed);
+            }
+            if(trace != null) {
+                currentTrace.set(outerTrace);
+                trace.finish(failed);
+            }
+            if(resend) {
+                clearThreadResendInfo();
+            }
+            if(outerExecutor == null) {
+                invokingEventExecutor.remove();
+            } else {
+                invokingEventExecutor.set(outerExecutor);
+            }
+            if(permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 开始跟踪事件方法调用.
+     * <p>调用将登记到慢调用看门狗及自适应隔离, 如事件方法声明了超时时间, 还将在时间轮上设置超时.</p>
+     * @param handlerMethod 事件方法
+     * @param handler EventHandler对象
+     * @param event 事件对象
+     * @param currentWatchdog 慢调用看门狗, 可为null
+     * @param trackInFlight 是否将调用登记为事件方法正在执行的调用, 供自适应隔离检查
+     * @return 返回正在执行的调用
+     */
+    private HandlerInvocation beginInvocation(HandlerMethod handlerMethod, EventHandler handler,
+                                              EventObject event, HandlerWatchdog currentWatchdog,
+                                              boolean trackInFlight) {
+        HandlerInvocation invocation = new HandlerInvocation(handlerMethod, handler, event);
+        if(currentWatchdog != null) {
+            currentWatchdog.register(invocation);
+        }
+        if(trackInFlight) {
+            handlerMethod.addInFlight(invocation);
+        }
+        long timeoutNanos = handlerMethod.getTimeoutNanos();
+        if(timeoutNanos > 0) {
+            try {
+                invocation.setTimeout(getTimingWheel().newTimeout(
+                        () -> onInvocationTimeout(invocation), timeoutNanos, TimeUnit.NANOSECONDS));
+            } catch (IllegalStateException ignored) {
+                // 执行器已关闭, 不再检查超时.
+            }
+        }
+        return invocation;
+    }
+
+    /**
+     * 在时间轮线程中处理事件方法调用超时.
+     * <p>时间轮线程只采样堆栈并中断调用, 超时报告及死信写入交由看门狗回调执行器执行.</p>
+     * @param invocation 超时的调用
+     */
+    private void onInvocationTimeout(HandlerInvocation invocation) {
+        HandlerMethod handlerMethod = invocation.getHandlerMethod();
+        StackTraceElement[] stackTrace = invocation.getThread().getStackTrace();
+        if(!invocation.timeout(handlerMethod.isInterruptOnTimeout())) {
+            return;
+        }
+        TimeoutException cause = new TimeoutException("Handler method " + handlerMethod.getMethod().getName() +
+                " timed out after " + TimeUnit.NANOSECONDS.toMillis(handlerMethod.getTimeoutNanos()) + " ms");
+        cause.setStackTrace(stackTrace);
+        getWatchdogExecutor().execute(() -> handleUncaughtException(invocation.getThread(), new EventInvokeException(
+                invocation.getHandler(), handlerMethod.getMethod(), invocation.getEvent(), cause)));
+    }
+
+    /**
+     * 已超时的调用在超时后抛出的异常.
+     * <p>超时已作为调用的失败报告, 因此该异常只用于通知调用方跳过失败处理, 不会交由异常处理对象处理.</p>
+     */
+    private final static class TimedOutInvocationException extends Exception {
+
+        TimedOutInvocationException(Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+
+    /**
+     * 提交任务.
+     * <p>启用虚拟线程模式时任务将在新的虚拟线程中执行, 否则提交到执行器.</p>
+     * @param task 任务
+     */
+    private void executeTask(Runnable task) {
+        executeTraced(getTaskExecutor(), task);
+    }
+
+    /**
+     * 获取用于执行投递任务的执行器.
+     * @return 启用虚拟线程模式时返回虚拟线程任务分发器, 否则返回执行器
+     */
+    private Executor getTaskExecutor() {
+        VirtualThreadDispatcher dispatcher = virtualThreadDispatcher.get();
+        return dispatcher != null ? dispatcher : taskExecutor;
+    }
+
+    /**
+     * 获取用于执行事件方法投递任务的执行器.
+     * @param handlerMethod 事件方法
+     * <p>如事件方法声明了{@link ConcurrencyLimit}, 返回的执行器将受其并发限制.</p>
+     * @return 启用虚拟线程模式时返回虚拟线程任务分发器, 如事件方法被分配到隔离执行器则返回隔离执行器, 否则返回执行器
+     */
+    private Executor getTaskExecutor(HandlerMethod handlerMethod) {
+        Executor executor = virtualThreadDispatcher.get();
+        if(executor == null) {
+            Executor bulkhead = getBulkheadExecutor(handlerMethod);
+            executor = bulkhead != null ? bulkhead : taskExecutor;
+        }
+        ConcurrencyLimiter limiter = handlerMethod.getConcurrencyLimiter();
+        return limiter != null ? limiter.bind(executor) : executor;
+    }
+
+    /**
+     * 获取事件方法被分配到的隔离执行器.
+     * <p>通过{@link Bulkhead}指定且已注册的隔离执行器优先, 其次为自适应隔离的隔离执行器.</p>
+     * @param handlerMethod 事件方法
+     * @return 返回隔离执行器, 如事件方法未被隔离则返回null
+     */
+    private Executor getBulkheadExecutor(HandlerMethod handlerMethod) {
+        String bulkheadName = handlerMethod.getBulkheadName();
+        if(bulkheadName != null) {
+            Executor bulkhead = bulkheadMap.get(bulkheadName);
+            if(bulkhead != null) {
+                return bulkhead;
+            }
+        }
+        if(handlerMethod.isIsolated()) {
+            AdaptiveIsolation isolation = adaptiveIsolation.get();
+            return isolation != null ? isolation.getExecutor() : null;
+        }
+        return null;
+    }
+
+    /**
+     * 提交任务到指定执行器.
+     * <p>如当前线程处于追踪跨度中, 任务将在该跨度中执行, 发布跨度将在任务执行结束后才会结束.</p>
+     * @param executor 执行器
+     * @param task 任务
+     */
+    private void executeTraced(Executor executor, Runnable task) {
+        TraceContext trace = traceSink.get() != null ? currentTrace.get() : null;
+        if(trace == null) {
+            executor.execute(task);
+            return;
+        }
+        trace.retain();
+        try {
+            executor.execute(new TracedTask(trace, task));
+        } catch (RuntimeException e) {
+            trace.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 使任务在当前线程的追踪跨度中执行.
+     * @param task 任务, 必须被执行, 否则发布跨度将不会结束
+     * @return 如当前线程处于追踪跨度中, 返回包装后的任务, 否则返回原任务
+     */
+    private Runnable traced(Runnable task) {
+        TraceContext trace = traceSink.get() != null ? currentTrace.get() : null;
+        if(trace == null) {
+            return task;
+        }
+        trace.retain();
+        return new TracedTask(trace, task);
+    }
+
+    /**
+     * 提交EventHandler对象的投递任务.
+     * <p>如EventHandler对象为串行投递的对象, 任务将提交到其串行邮箱.</p>
+     * @param handler EventHandler对象
+     * @param task 投递任务
+     */
+    private void executeTask(EventHandler handler, Runnable task) {
+        SerialMailbox mailbox = getSerialMailbox(handler);
+        if(mailbox != null) {
+            executeTraced(mailbox, task);
+        } else {
+            executeTask(task);
+        }
+    }
+
+    /**
+     * 提交事件方法的投递任务.
+     * <p>如EventHandler对象为串行投递的对象, 任务将提交到其串行邮箱, 轮到该任务时如事件方法需在隔离执行器中执行或受并发限制,
+     * 任务将在事件方法所用的执行器中执行. 否则任务直接提交到事件方法所用的执行器.</p>
+     * @param handlerMethod 事件方法
+     * @param handler EventHandler对象
+     * @param task 投递任务
+     */
+    private void executeTask(HandlerMethod handlerMethod, EventHandler handler, Runnable task) {
+        SerialMailbox mailbox = getSerialMailbox(handler);
+        if(mailbox != null) {
+            executeTraced(getMailboxExecutor(mailbox, handlerMethod), task);
+        } else {
+            executeTraced(getTaskExecutor(handlerMethod), task);
+        }
+    }
+
+    /**
+     * 在按事件或按事件方法合并的投递任务中执行单个投递.
+     * <p>被隔离或受并发限制的事件方法的投递已由{@link #deliverDetached(EventDispatchPlan, EventObject)}
+     * 在投递时单独提交, 将被跳过, 其他投递按{@link #runDelivery(HandlerMethod, EventHandler, EventObject)}执行.</p>
+     * @param handlerMethod 事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     */
+    private void runAttachedDelivery(HandlerMethod handlerMethod, EventHandler handler, EventObject event) {
+        if(!isDetached(handlerMethod, handler)) {
+            runDelivery(handlerMethod, handler, event);
+        }
+    }
+
+    /**
+     * 在投递线程中将被隔离或受并发限制的事件方法的投递单独提交到事件方法所用的执行器.
+     * <p>合并投递的任务可能在执行器关闭后才开始执行, 此时已无法再提交任务, 因此这类投递需在投递线程中提前提交.</p>
+     * @param plan 投递计划
+     * @param event 事件对象
+     */
+    private void deliverDetached(EventDispatchPlan plan, EventObject event) {
+        for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+            if(!hasDedicatedExecutor(handlerMethod)) {
+                continue;
+            }
+            for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                if(getSerialMailbox(handler) == null) {
+                    executeTraced(getTaskExecutor(handlerMethod), new DeliveryTask(handlerMethod, handler, event));
+                }
+            }
+        }
+    }
+
+    /**
+     * 检查投递是否需要单独提交执行, 而不能在合并投递的任务中直接执行.
+     * @param handlerMethod 事件方法
+     * @param handler EventHandler对象
+     * @return 如事件方法被隔离或受并发限制, 且EventHandler对象不是串行投递的对象, 则返回true
+     */
+    private boolean isDetached(HandlerMethod handlerMethod, EventHandler handler) {
+        return hasDedicatedExecutor(handlerMethod) && getSerialMailbox(handler) == null;
+    }
+
+    /**
+     * 检查事件方法是否需在隔离执行器中执行或受并发限制.
+     * @param handlerMethod 事件方法
+     * @return 如事件方法被隔离或受并发限制则返回true, 批量事件方法始终返回false
+     */
+    private boolean hasDedicatedExecutor(HandlerMethod handlerMethod) {
+        return !handlerMethod.isMicroBatch() &&
+                (handlerMethod.getConcurrencyLimiter() != null || getBulkheadExecutor(handlerMethod) != null);
+    }
+
+    /**
+     * 在合并投递的任务中执行单个投递.
+     * <p>串行投递的EventHandler对象的投递已由{@link #deliverSerial(EventDispatchPlan, EventObject)}
+     * 在投递时提交到串行邮箱, 将被跳过, 其他投递在当前线程直接执行.</p>
+     * @param handlerMethod 事件方法
+     * @param handler 要投递事件的EventHandler对象
+     * @param event 事件对象
+     */
+    private void runDelivery(HandlerMethod handlerMethod, EventHandler handler, EventObject event) {
+        if(handlerMethod.isMicroBatch() || getSerialMailbox(handler) == null) {
+            invokeEventMethod(handlerMethod, handler, event);
+        }
+    }
+
+    /**
+     * 在投递线程中将事件投递到串行投递的EventHandler对象的串行邮箱.
+     * <p>合并投递的任务在线程池中执行, 执行顺序与投递顺序无关, 因此串行投递的投递需在投递线程中提前提交, 以保证投递顺序.</p>
+     * @param plan 投递计划
+     * @param event 事件对象
+     */
+    private void deliverSerial(EventDispatchPlan plan, EventObject event, CompletionBarrier barrier) {
+        if(serialMailboxMap.isEmpty()) {
+            return;
+        }
+        for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+            if(handlerMethod.isMicroBatch()) {
+                continue;
+            }
+            for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                SerialMailbox mailbox = getSerialMailbox(handler);
+                if(mailbox != null) {
+                    submitToMailbox(mailbox, handlerMethod, barrier,
+                            () -> invokeEventMethod(handlerMethod, handler, event));
+                }
+            }
+        }
+    }
+
+    /**
+     * 将分区事件投递到分区键对应的分区通道.
+     * <p>事件对所有EventHandler的投递将作为一个任务提交到分区通道, 串行投递的EventHandler对象的投递依然提交到其串行邮箱.
+     * 如存在需在隔离执行器中执行或受并发限制的事件方法, 投递将逐个提交到分区通道.</p>
+     * @param plan 投递计划
+     * @param event 分区事件对象
+     * @param barrier 同步投递的完成屏障, 如非同步投递则为null
+     * @return 返回投递数量
+     */
+    private int deliverPartitioned(EventDispatchPlan plan, EventObject event, CompletionBarrier barrier) {
+        if(plan.isEmpty()) {
+            return 0;
+        }
+        int deliveryCount = 0;
+        for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+            deliveryCount += getHandlerObjects(handlerMethod).size();
+        }
+        deliverSerial(plan, event, barrier);
+        SerialMailbox lane = getPartitionLane(event);
+        boolean dedicated = false;
+        for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+            dedicated |= hasDedicatedExecutor(handlerMethod);
+        }
+        if(!dedicated) {
+            submitToMailbox(lane, null, barrier, () -> {
+                for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                    for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                        runDelivery(handlerMethod, handler, event);
+                    }
+                }
+            });
+            return deliveryCount;
+        }
+        // 需在隔离执行器中执行或受并发限制的投递单独提交到分区通道, 轮到时在事件方法所用的执行器中执行.
+        for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+            for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                if(handlerMethod.isMicroBatch() || getSerialMailbox(handler) == null) {
+                    submitToMailbox(lane, handlerMethod, barrier,
+                            () -> invokeEventMethod(handlerMethod, handler, event));
+                }
+            }
+        }
+        return deliveryCount;
+    }
+
+    /**
+     * 按投递计划的依赖图投递事件.
+     * <p>没有依赖关系的事件方法并行执行, 事件方法的所有投递完成后释放依赖它的事件方法.</p>
+     * @param plan 存在依赖图的投递计划
+     * @param event 事件对象
+     * @param resultSink 投递结果接收函数, 如不需要投递结果则为null
+     * @param barrier 同步投递的完成屏障, 将在所有投递完成后到达, 如非同步投递则为null
+     * @return 返回投递数量
+     */
+    private int deliverOrdered(EventDispatchPlan plan,
+                               EventObject event,
+                               ObjIntConsumer<EventDeliveryResult> resultSink,
+                               CompletionBarrier barrier) {
+        final HandlerMethod[] handlerMethods = plan.getHandlerMethods();
+        final List<Set<EventHandler>> handlerSets = new ArrayList<>(handlerMethods.length);
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            handlerSets.add(getHandlerObjects(handlerMethod));
+        }
+        return deliverOrdered(plan, handlerSets, event, resultSink, barrier);
+    }
+
+    /**
+     * 按投递计划的依赖图将事件投递到指定的EventHandler对象.
+     * @param plan 存在依赖图的投递计划
+     * @param handlerSets 按投递计划中事件方法的顺序排列的EventHandler对象
+     * @param event 事件对象
+     * @param resultSink 投递结果接收函数, 将以投递结果及其在所有投递中的位置调用, 如不需要投递结果则为null
+     * @param barrier 同步投递的完成屏障, 将在所有投递完成后到达, 如非同步投递则为null
+     * @return 返回投递数量
+     */
+    private int deliverOrdered(EventDispatchPlan plan,
+                               List<? extends Collection<EventHandler>> handlerSets,
+                               EventObject event,
+                               ObjIntConsumer<EventDeliveryResult> resultSink,
+                               CompletionBarrier barrier) {
+        final HandlerMethod[] handlerMethods = plan.getHandlerMethods();
+        final int[] firstIndexes = new int[handlerMethods.length];
+        int deliveryCount = 0;
+        for (int node = 0; node < handlerMethods.length; node++) {
+            firstIndexes[node] = deliveryCount;
+            deliveryCount += handlerSets.get(node).size();
+        }
+        if(barrier != null) {
+            barrier.register();
+        }
+        new OrderedDelivery(plan.getOrderGraph(),
+                (delivery, node) -> launchOrderedNode(delivery, node, handlerMethods[node],
+                        handlerSets.get(node), firstIndexes[node], event, resultSink),
+                barrier != null ? barrier::arrive : null).start();
+        return deliveryCount;
+    }
+
+    /**
+     * 启动依赖图中的节点, 即提交一个事件方法的所有投递.
+     * @param delivery 按依赖图执行的投递
+     * @param node 节点编号
+     * @param handlerMethod 节点对应的事件方法
+     * @param handlerSet 事件方法所属的EventHandler对象
+     * @param firstIndex 节点的首个投递在所有投递中的位置
+     * @param event 事件对象
+     * @param resultSink 投递结果接收函数, 可为null
+     */
+    private void launchOrderedNode(OrderedDelivery delivery,
+                                   int node,
+                                   HandlerMethod handlerMethod,
+                                   Collection<EventHandler> handlerSet,
+                                   int firstIndex,
+                                   EventObject event,
+                                   ObjIntConsumer<EventDeliveryResult> resultSink) {
+        delivery.beginNode(node, handlerSet.size());
+        try {
+            int resultIndex = firstIndex;
+            for (EventHandler handler : handlerSet) {
+                final int currentIndex = resultIndex++;
+                Runnable task = () -> {
+                    try {
+                        if(resultSink != null) {
+                            resultSink.accept(invokeEventMethodForResult(handlerMethod, handler, event), currentIndex);
+                        } else {
+                            invokeEventMethod(handlerMethod, handler, event);
+                        }
+                    } finally {
+                        delivery.finishDelivery(node);
+                    }
+                };
+                if(handlerMethod.isMicroBatch()) {
+                    task.run();
+                    continue;
+                }
+                try {
+                    executeTask(handlerMethod, handler, task);
+                } catch (RuntimeException e) {
+                    if(resultSink != null) {
+                        resultSink.accept(new EventDeliveryResult(handler, handlerMethod.getMethod(), event, null, e),
+                                currentIndex);
+                    }
+                    delivery.finishDelivery(node);
+                    handleUncaughtException(Thread.currentThread(), e);
+                }
+            }
+        } finally {
+            delivery.finishDelivery(node);
+        }
+    }
+
+    /**
+     * 按事件类型的接收限制投递事件.
+     * <p>事件的每个投递都将在开始执行时检查事件是否已被丢弃或替换, 所有投递执行完成后释放接收凭据.</p>
+     * @param plan 投递计划
+     * @param intake 事件类型的接收限制
+     * @param event 事件对象
+     * @return 返回已安排的投递数量, 如事件被丢弃或合并则返回0
+     */
+    private int deliverThroughIntake(EventDispatchPlan plan, EventIntake intake, EventObject event) {
+        EventIntake.Ticket ticket = intake.admit(event);
+        if(ticket == null) {
+            return 0;
+        }
+        int deliveryCount = 0;
+        try {
+            for (HandlerMethod handlerMethod : plan.getHandlerMethods()) {
+                for (EventHandler handler : getHandlerObjects(handlerMethod)) {
+                    deliveryCount++;
+                    if(ticket.isCallerRuns()) {
+                        if(getSerialMailbox(handler) != null || isDetached(handlerMethod, handler)) {
+                            deliver(handlerMethod, handler, event);
+                        } else {
+                            invokeEventMethod(handlerMethod, handler, event);
+                        }
+                        continue;
+                    }
+                    ticket.addDelivery();
+                    try {
+                        executeTask(handlerMethod, handler, () -> {
+                            try {
+                                EventObject admittedEvent = ticket.start();
+                                if(admittedEvent != null) {
+                                    invokeEventMethod(handlerMethod, handler, admittedEvent);
+                                }
+                            } finally {
+                                ticket.finishDelivery();
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        ticket.finishDelivery();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            ticket.finishDelivery();
+        }
+        return deliveryCount;
+    }
+
+    /**
+     * 获取事件对象所属类型的接收限制.
+     * @param event 事件对象
+     * @return 返回接收限制, 如未设置则返回null
+     */
+    private EventIntake getIntake(EventObject event) {
+        return intakeMap.isEmpty() ? null : intakeMap.get(event.getClass());
+    }
+
+    /**
+     * 设置事件类型的接收限制.
+     * <p>限制该类型已接收但尚未执行完成的事件数量, 达到上限时按接收策略处理新投递的事件,
+     * 使投递速度超过处理速度时线程池队列不会无限增长.</p>
+     * <p>接收限制只匹配完全相同的事件类型, 不包括子类, 且仅在以下投递中生效:</p>
+     * <ul>
+     *     <li>{@link #executor(EventObject)}, 包括事件合并后的投递及延迟投递到期后的投递;</li>
+     *     <li>{@link #executor(Collection)}中的事件, 受限制的事件不参与按EventHandler对象分组, 将逐个接收和投递.</li>
+     * </ul>
+     * <p>以下投递不检查接收限制, 也不计入未完成事件数量:</p>
+     * <ul>
+     *     <li>{@link PartitionedEventObject}, 其投递顺序由分区通道保证, 丢弃或替换事件将破坏分区内的顺序;</li>
+     *     <li>声明了{@link HandlerOrder}的事件类型, 按依赖图投递;</li>
+     *     <li>{@link #executorSync(EventObject)}、{@link #executorSync(Collection)}等同步投递, 调用线程本身将等待投递完成;</li>
+     *     <li>{@link #executorAsync(EventObject)}及{@link #query(EventObject, Class)}, 返回的结果需包含每个投递;</li>
+     *     <li>{@link #executor(EventHandler, EventObject)}, 即指定EventHandler对象的投递.</li>
+     * </ul>
+     * <p>重新设置接收限制时, 已接收的事件不再计入新的限制.</p>
+     * @param eventClass 事件类型
+     * @param capacity 未完成事件数量上限, 必须大于0
+     * @param policy 达到上限时的接收策略
+     */
+    public void setIntakeLimit(Class<? extends EventObject> eventClass, int capacity, IntakePolicy policy) {
+        intakeMap.put(Objects.requireNonNull(eventClass), new EventIntake(capacity, Objects.requireNonNull(policy)));
+    }
+
+    /**
+     * 移除事件类型的接收限制.
+     * @param eventClass 事件类型
+     */
+    public void removeIntakeLimit(Class<? extends EventObject> eventClass) {
+        intakeMap.remove(eventClass);
+    }
+
+    /**
+     * 获取事件类型的接收统计信息.
+     * @param eventClass 事件类型
+     * @return 返回统计信息快照, 如事件类型未设置接收限制则返回null
+     */
+    public IntakeStatistics getIntakeStatistics(Class<? extends EventObject> eventClass) {
+        EventIntake intake = intakeMap.get(eventClass);
+        return intake != null ? intake.getStatistics() : null;
+    }
+
+    /**
+     * 获取事件对象所属类型的事件合并器.
+     * @param event 事件对象
+     * @return 返回事件合并器, 如未设置事件合并或事件对象不是{@link CoalescingEventObject}则返回null
+     */
+    private EventCoalescer getCoalescer(EventObject event) {
+        return coalescerMap.isEmpty() || !(event instanceof CoalescingEventObject) ?
+                null : coalescerMap.get(event.getClass());
+    }
+
+    /**
+     * 设置事件类型的事件合并.
+     * <p>合并键相同的事件将被合并为一个事件投递, 以减少重复的事件方法调用:</p>
+     * <ul>
+     *     <li>如设置了合并窗口, 事件将在第一个事件到达后等待合并窗口时长再投递, 期间到达的事件都将被合并;</li>
+     *     <li>如合并窗口为0, 事件将立即提交投递, 在投递任务开始执行前到达的事件都将被合并.</li>
+     * </ul>
+     * <p>事件合并仅作用于{@link #executor(EventObject)}和{@link #executor(Collection)}, 且只匹配完全相同的事件类型.
+     * 事件合并先于接收限制等其他投递设置执行.</p>
+     * @param eventClass 事件类型
+     * @param window 合并窗口, 为0则不等待
+     * @param unit 合并窗口的时间单位
+     * @param mergeFunction 合并函数, 参数依次为等待投递的事件和新事件, 返回合并后的事件; 如为null则保留最新的事件
+     * @param <E> 事件类型
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends CoalescingEventObject> void setCoalescing(Class<E> eventClass,
+                                                                long window,
+                                                                TimeUnit unit,
+                                                                BinaryOperator<E> mergeFunction) {
+        if(window < 0) {
+            throw new IllegalArgumentException("window must not be negative");
+        }
+        EventCoalescer coalescer = new EventCoalescer(unit.toNanos(window),
+                (BinaryOperator<EventObject>) (BinaryOperator<?>) mergeFunction,
+                this::dispatch, this::executeTask, this::scheduleDelayed);
+        EventCoalescer oldCoalescer = coalescerMap.put(Objects.requireNonNull(eventClass), coalescer);
+        if(oldCoalescer != null) {
+            oldCoalescer.flush();
+        }
+    }
+
+    /**
+     * 移除事件类型的事件合并, 等待投递的事件将立即投递.
+     * @param eventClass 事件类型
+     */
+    public void removeCoalescing(Class<? extends CoalescingEventObject> eventClass) {
+        EventCoalescer coalescer = coalescerMap.remove(eventClass);
+        if(coalescer != null) {
+            coalescer.flush();
+        }
+    }
+
+    /**
+     * 获取事件类型被合并的事件数量.
+     * @param eventClass 事件类型
+     * @return 返回被合并到其他事件中的事件数量, 如未设置事件合并则返回0
+     */
+    public long getCoalescedCount(Class<? extends CoalescingEventObject> eventClass) {
+        EventCoalescer coalescer = coalescerMap.get(eventClass);
+        return coalescer != null ? coalescer.getCoalescedCount() : 0;
+    }
+
+    /**
+     * 设置追踪跨度接收器.
+     * <p>设置后, 每次发布都将获得一个追踪Id, 并记录发布跨度(从发布到该次发布的所有投递执行结束)和事件方法调用跨度.
+     * 追踪Id将沿因果链传递: 在事件方法内发布的事件, 通过{@link #resendCurrentEvent()}重新投递的事件,
+     * 延迟投递, 周期投递和重试的事件都将沿用发起者的追踪Id. 未设置时每次发布和调用只增加一次原子变量读取.</p>
+     * <p>批量事件方法的调用不记录跨度.</p>
+     * @param sink 追踪跨度接收器, 如为null则停止追踪
+     * @see ChromeTraceSink
+     */
+    public void setTraceSink(TraceSink sink) {
+        traceSink.set(sink);
+    }
+
+    /**
+     * 获取追踪跨度接收器.
+     * @return 返回追踪跨度接收器, 如未设置则返回null
+     */
+    public TraceSink getTraceSink() {
+        return traceSink.get();
+    }
+
+    /**
+     * 获取当前线程的追踪Id.
+     * <p>可在事件方法内调用, 以便将日志与追踪跨度关联.</p>
+     * @return 返回16位十六进制追踪Id, 如当前线程不在追踪跨度中则返回null
+     */
+    public static String getCurrentTraceId() {
+        TraceContext trace = currentTrace.get();
+        return trace != null ? TraceSpan.toHex(trace.getTraceId()) : null;
+    }
+
+    /**
+     * 获取事件方法等待队列中的投递数量.
+     * @param method 事件方法
+     * @return 返回等待执行的投递数量, 如事件方法未添加到执行器或未标注{@link ConcurrencyLimit}则返回0
+     */
+    public int getParkedDeliveryCount(Method method) {
+        HandlerMethod handlerMethod = handlerMethodMap.get(method);
+        ConcurrencyLimiter limiter = handlerMethod != null ? handlerMethod.getConcurrencyLimiter() : null;
+        return limiter != null ? limiter.getParkedCount() : 0;
+    }
+
+    /**
+     * 注册隔离执行器.
+     * <p>标注了{@link Bulkhead}且名称相同的事件方法的投递将提交到该执行器.
+     * 隔离执行器由使用者管理, 执行器关闭时不会关闭隔离执行器.</p>
+     * @param name 隔离执行器名称
+     * @param executor 隔离执行器
+     * @return 返回被替换的同名隔离执行器, 如不存在则返回null
+     */
+    public Executor registerBulkhead(String name, Executor executor) {
+        return bulkheadMap.put(Objects.requireNonNull(name), Objects.requireNonNull(executor));
+    }
+
+    /**
+     * 注销隔离执行器, 此后对应事件方法的投递将提交到线程池.
+     * @param name 隔离执行器名称
+     * @return 返回被注销的隔离执行器, 如不存在则返回null
+     */
+    public Executor unregisterBulkhead(String name) {
+        return bulkheadMap.remove(name);
+    }
+
+    /**
+     * 设置自适应隔离.
+     * <p>每隔检查周期计算一次各事件方法的平均执行时间, 已执行超过阈值但尚未结束的调用同样计入,
+     * 连续多个周期平均执行时间超过阈值的事件方法将被迁移到隔离执行器执行, 已隔离的事件方法连续多个周期
+     * 平均执行时间低于阈值的一半时迁回线程池. 通过{@link Bulkhead}分配了隔离执行器的事件方法不受影响.</p>
+     * <p>自适应隔离依赖运行指标, 如尚未启用运行指标({@link #setEnableMetrics(boolean)}), 将自动启用,
+     * 并在停止自适应隔离(包括关闭执行器)时恢复为不记录; 期间调用{@link #setEnableMetrics(boolean)}后将不再自动恢复.</p>
+     * @param executor 隔离执行器, 如为null则停止自适应隔离, 并将所有已隔离的事件方法迁回线程池
+     * @param threshold 平均执行时间阈值
+     * @param interval 检查周期
+     * @param unit 阈值和检查周期的时间单位
+     * @throws IllegalArgumentException 当阈值或检查周期小于等于0时抛出
+     * @see #getIsolatedMethods()
+     */
+    public void setAdaptiveIsolation(Executor executor, long threshold, long interval, TimeUnit unit) {
+        AdaptiveIsolation newIsolation = null;
+        if(executor != null) {
+            if(threshold <= 0 || interval <= 0) {
+                throw new IllegalArgumentException("threshold and interval must be greater than 0");
+            }
+            if(enableMetrics.compareAndSet(false, true)) {
+                metricsEnabledByIsolation.set(true);
+            }
+            newIsolation = new AdaptiveIsolation(executor, unit.toNanos(threshold), unit.toNanos(interval),
+                    handlerMethodMap::values, this::scheduleDelayed);
+        }
+        AdaptiveIsolation oldIsolation = adaptiveIsolation.getAndSet(newIsolation);
+        if(oldIsolation != null) {
+            oldIsolation.stop();
+        }
+        if(newIsolation != null) {
+            newIsolation.start();
+        } else {
+            restoreMetricsAfterIsolation();
+        }
+    }
+
+    /**
+     * 如运行指标由自适应隔离启用, 则恢复为不记录.
+     */
+    private void restoreMetricsAfterIsolation() {
+        if(metricsEnabledByIsolation.getAndSet(false)) {
+            enableMetrics.set(false);
+        }
+    }
+
+    /**
+     * 获取已被自适应隔离迁移到隔离执行器的事件方法.
+     * @return 返回事件方法集合
+     */
+    public Set<Method> getIsolatedMethods() {
+        Set<Method> methods = new HashSet<>();
+        for (HandlerMethod handlerMethod : handlerMethodMap.values()) {
+            if(handlerMethod.isIsolated()) {
+                methods.add(handlerMethod.getMethod());
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * 设置慢调用看门狗.
+     * <p>设置后, 执行器将跟踪正在执行的事件方法调用, 每隔阈值的一半检查一次,
+     * 执行时间超过阈值的调用将采样其执行线程的堆栈并报告给监听器, 每次调用只报告一次.
+     * 检查及监听器的调用在单独的看门狗线程中执行, 监听器执行缓慢将推迟后续的检查, 但不影响事件投递和定时任务.</p>
+     * <p>事件方法单次调用的超时通过{@link HandlerTimeout}声明, 不需要设置看门狗.</p>
+     * @param listener 慢调用监听器, 如为null则停止看门狗
+     * @param threshold 慢调用阈值
+     * @param unit 阈值的时间单位
+     * @throws IllegalArgumentException 当阈值小于等于0时抛出
+     */
+    public void setSlowHandlerWatchdog(SlowHandlerListener listener, long threshold, TimeUnit unit) {
+        HandlerWatchdog newWatchdog = null;
+        if(listener != null) {
+            if(threshold <= 0) {
+                throw new IllegalArgumentException("threshold must be greater than 0");
+            }
+            newWatchdog = new HandlerWatchdog(unit.toNanos(threshold), listener,
+                    this::scheduleDelayed, getWatchdogExecutor());
+            newWatchdog.start();
+        }
+        HandlerWatchdog oldWatchdog = watchdog.getAndSet(newWatchdog);
+        if(oldWatchdog != null) {
+            oldWatchdog.stop();
+        }
+    }
+
+    /**
+     * 设置是否记录事件方法运行指标.
+     * <p>启用后, 将按事件方法和事件类型记录调用次数, 失败次数, 正在执行的调用数量,
+     * 投递任务的排队时间和事件方法的执行时间分布. 未启用时每次调用只增加一次原子变量读取.</p>
+     * @param enable 是否启用
+     * @see #getHandlerMetrics()
+     */
+    public void setEnableMetrics(boolean enable) {
+        metricsEnabledByIsolation.set(false);
+        enableMetrics.set(enable);
+    }
+
+    /**
+     * 是否正在记录事件方法运行指标.
+     * @return 如已启用返回true
+     */
+    public boolean isEnableMetrics() {
+        return enableMetrics.get();
+    }
+
+    /**
+     * 获取所有事件方法的运行指标.
+     * @return 返回各事件方法处理各事件类型的运行指标快照
+     */
+    public List<HandlerMetrics> getHandlerMetrics() {
+        List<HandlerMetrics> metricsList = new ArrayList<>();
+        for (HandlerMethod handlerMethod : handlerMethodMap.values()) {
+            for (MethodMetrics metrics : handlerMethod.getAllMetrics()) {
+                metricsList.add(metrics.snapshot());
+            }
+        }
+        return metricsList;
+    }
 
-/**
- * 事件执行器.
- */
-public class EventExecutor {
+    /**
+     * 获取事件方法的运行指标.
+     * @param method 事件方法
+     * @return 返回事件方法处理各事件类型的运行指标快照, 如事件方法未添加到执行器则返回空列表
+     */
+    public List<HandlerMetrics> getHandlerMetrics(Method method) {
+        HandlerMethod handlerMethod = handlerMethodMap.get(method);
+        if(handlerMethod == null) {
+            return Collections.emptyList();
+        }
+        List<HandlerMetrics> metricsList = new ArrayList<>();
+        for (MethodMetrics metrics : handlerMethod.getAllMetrics()) {
+            metricsList.add(metrics.snapshot());
+        }
+        return metricsList;
+    }
 
-    private final EventHandlerList eventHandlerList;
+    /**
+     * 清空所有事件方法的运行指标计数, 正在执行的调用数量不受影响.
+     */
+    public void resetHandlerMetrics() {
+        for (HandlerMethod handlerMethod : handlerMethodMap.values()) {
+            handlerMethod.getAllMetrics().forEach(MethodMetrics::reset);
+        }
+    }
 
-    private final EventHandlerObjectMap eventHandlerObjectMap;
+    /**
+     * 将运行指标注册为平台MBeanServer中的MXBean.
+     * <p>MXBean的ObjectName为{@code net.lamgc.utils.event:type=EventExecutor,name=<name>},
+     * 其中名称将经{@link ObjectName#quote(String)}处理. 执行器关闭时将自动注销, 注册MXBean不会启用运行指标的记录.</p>
+     * @param name MXBean名称
+     * @return 返回MXBean的ObjectName
+     * @throws JMException 当名称不合法或已被注册时抛出
+     * @throws IllegalStateException 当已注册MXBean时抛出
+     */
+    public ObjectName registerMetricsMBean(String name) throws JMException {
+        ObjectName objectName =
+                new ObjectName("net.lamgc.utils.event:type=EventExecutor,name=" + ObjectName.quote(name));
+        if(!metricsObjectName.compareAndSet(null, objectName)) {
+            throw new IllegalStateException("Metrics MBean has been registered");
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new EventMetrics(this), objectName);
+        } catch (JMException | RuntimeException e) {
+            metricsObjectName.set(null);
+            throw e;
+        }
+        return objectName;
+    }
 
-    private final ThreadPoolExecutor threadPoolExecutor;
+    /**
+     * 注销运行指标MXBean, 如未注册则忽略.
+     */
+    public void unregisterMetricsMBean() {
+        ObjectName objectName = metricsObjectName.getAndSet(null);
+        if(objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ignored) {
+            // MXBean已被注销.
+        }
+    }
 
-    private final AtomicReference<Thread.UncaughtExceptionHandler> exceptionHandler = new AtomicReference<>();
-    private final AtomicReference<EventUncaughtExceptionHandler> eventExceptionHandler = new AtomicReference<>();
-    private final AtomicBoolean enableEventResend = new AtomicBoolean();
+    /**
+     * 获取事件方法的重试统计信息.
+     * @param method 事件方法
+     * @return 返回重试统计信息, 如事件方法未添加到执行器或未标注{@link Retry}则返回null
+     */
+    public RetryStatistics getRetryStatistics(Method method) {
+        HandlerMethod handlerMethod = handlerMethodMap.get(method);
+        RetryPolicy retryPolicy = handlerMethod != null ? handlerMethod.getRetryPolicy() : null;
+        return retryPolicy != null ? retryPolicy.getStatistics() : null;
+    }
 
     /**
-     * 构造一个EventExecutor.
-     * @param threadPoolExecutor 事件线程池, 线程池将用于执行Handler中的EventMethod.
+     * 提交任务到串行邮箱.
+     * @param mailbox 串行邮箱
+     * @param handlerMethod 任务所调用的事件方法, 如任务调用多个事件方法则为null
+     * @param barrier 同步投递的完成屏障, 如非同步投递则为null
+     * @param task 任务
      */
-    public EventExecutor(ThreadPoolExecutor threadPoolExecutor){
-        this(threadPoolExecutor, null, null);
+    private void submitToMailbox(SerialMailbox mailbox, HandlerMethod handlerMethod,
+                                 CompletionBarrier barrier, Runnable task) {
+        Executor executor = handlerMethod != null ? getMailboxExecutor(mailbox, handlerMethod) : mailbox;
+        if(barrier == null) {
+            executeTraced(executor, task);
+        } else if(mailbox.isDrainingThread()) {
+            task.run();
+        } else {
+            submitSyncTask(barrier, executor, task);
+        }
     }
 
     /**
-     * 构造一个EventExecutor.
-     * @param threadPoolExecutor 事件线程池, 线程池将用于执行Handler中的EventMethod.
-     * @param eventHandlerList 事件列表, 用于存储EventObject对应EventHandlerMethod.
-     * @param eventHandlerObjectMap EventHandlerObject存储, 用于存储EventHandler对象.
+     * 获取用于提交事件方法投递的串行邮箱执行器.
+     * @param mailbox 串行邮箱
+     * @param handlerMethod 事件方法
+     * @return 如事件方法需在隔离执行器中执行或受并发限制, 返回在事件方法所用执行器中执行任务的邮箱视图, 否则返回邮箱
      */
-    public EventExecutor(ThreadPoolExecutor threadPoolExecutor,
-                         EventHandlerList eventHandlerList,
-                         EventHandlerObjectMap eventHandlerObjectMap) {
-        this.threadPoolExecutor = threadPoolExecutor;
-        final ThreadFactory threadFactory = this.threadPoolExecutor.getThreadFactory();
-        this.threadPoolExecutor.setThreadFactory(r -> {
-            Thread newThread = threadFactory.newThread(r);
-            if(newThread.getUncaughtExceptionHandler() == newThread.getThreadGroup()){
-                newThread.setUncaughtExceptionHandler((t, e) -> {
-                    EventUncaughtExceptionHandler eventUncaughtHandler;
-                    if(e instanceof EventInvokeException && (eventUncaughtHandler = eventExceptionHandler.get()) != null){
-                        EventInvokeException exception = (EventInvokeException) e;
-                        eventUncaughtHandler.exceptionHandler(
-                                /* Thread: */ t,
-                                exception.getHandler(),
-                                exception.getHandlerMethod(),
-                                exception.getEventObject(),
-                                exception.getCause());
-                        return;
-                    }
-                    Thread.UncaughtExceptionHandler threadExceptionHandler;
-                    if((threadExceptionHandler = this.exceptionHandler.get()) != null){
-                        threadExceptionHandler.uncaughtException(t, e);
-                    }
-                });
+    private Executor getMailboxExecutor(SerialMailbox mailbox, HandlerMethod handlerMethod) {
+        return hasDedicatedExecutor(handlerMethod) ? mailbox.handOff(getTaskExecutor(handlerMethod)) : mailbox;
+    }
+
+    /**
+     * 获取分区事件所属的分区通道.
+     * @param event 分区事件对象
+     * @return 返回分区通道
+     */
+    private SerialMailbox getPartitionLane(EventObject event) {
+        SerialMailbox[] lanes;
+        for (;;) {
+            if((lanes = partitionLanes.get()) != null) {
+                break;
             }
-            return newThread;
-        });
-        this.eventHandlerList = eventHandlerList != null ? eventHandlerList : new BasicEventHandlerList();
-        this.eventHandlerObjectMap = eventHandlerObjectMap != null ? eventHandlerObjectMap : new HashHandlerObjectMap();
+            SerialMailbox[] newLanes = new SerialMailbox[partitionLaneCount.get()];
+            for (int i = 0; i < newLanes.length; i++) {
+                newLanes[i] = new SerialMailbox(this::executeTask);
+            }
+            if(partitionLanes.compareAndSet(null, newLanes)) {
+                lanes = newLanes;
+                break;
+            }
+        }
+        int hash = Objects.hashCode(((PartitionedEventObject) event).getPartitionKey());
+        hash ^= hash >>> 16;
+        return lanes[(hash & Integer.MAX_VALUE) % lanes.length];
     }
 
     /**
-     * 添加EventHandler.
+     * 设置分区通道数量.
+     * <p>分区通道数量决定了分区事件的最大并行度, 默认为可用处理器数量.</p>
+     * @param laneCount 分区通道数量, 必须大于0
+     * @see PartitionedEventObject
+     */
+    public void setPartitionLaneCount(int laneCount) {
+        if(laneCount <= 0) {
+            throw new IllegalArgumentException("laneCount must be greater than 0");
+        }
+        partitionLaneCount.set(laneCount);
+        partitionLanes.set(null);
+    }
+
+    /**
+     * 获取分区通道数量.
+     * @return 返回分区通道数量
+     */
+    public int getPartitionLaneCount() {
+        return partitionLaneCount.get();
+    }
+
+    /**
+     * 获取EventHandler对象的串行邮箱.
      * @param handler EventHandler对象
-     * @throws IllegalAccessException 当EventHandler内方法不为Public时可能会抛出,
-     *                                是否抛出由{@link EventHandlerList}所使用的实现决定
+     * @return 返回串行邮箱, 如该对象不是串行投递的对象则返回null
      */
-    public void addHandler(EventHandler handler) throws IllegalAccessException {
-        eventHandlerObjectMap.addHandlerObject(handler);
-        eventHandlerList.addEventHandler(handler.getClass());
+    private SerialMailbox getSerialMailbox(EventHandler handler) {
+        return serialMailboxMap.isEmpty() ? null : serialMailboxMap.get(handler);
     }
 
     /**
-     * 删除EventHandler
-     * @param handler 要删除的EventHandler对象
+     * 在当前线程依次执行同一EventHandler对象的批量投递.
+     * @param handler EventHandler对象
+     * @param deliveries 按事件顺序排列的投递列表
      */
-    public void removeHandler(EventHandler handler){
-        if(!eventHandlerObjectMap.removeHandlerObject(handler)){
-            eventHandlerList.removeEventHandler(handler);
+    private void invokeBatchDeliveries(EventHandler handler, List<EventBatch.Delivery> deliveries) {
+        for (EventBatch.Delivery delivery : deliveries) {
+            invokeEventMethod(delivery.getHandlerMethod(), handler, delivery.getEvent());
         }
     }
 
     /**
-     * 投递事件.
-     * 事件将会以方法为单位执行.
-     * @param eventObject 带有事件参数的事件对象
+     * 在投递线程中将同一EventHandler对象的批量投递中需在隔离执行器中执行或受并发限制的投递单独提交.
+     * @param handler EventHandler对象, 不是串行投递的对象
+     * @param deliveries 按事件顺序排列的投递列表
+     * @param barrier 同步投递的完成屏障, 如非同步投递则为null
+     * @return 返回其余需合并执行的投递, 如没有单独提交的投递则返回原列表
      */
-    public void executor(final EventObject eventObject){
-        Set<Method> eventHandlerMethodSet = eventHandlerList.getEventHandlerMethod(eventObject.getClass());
-        if(eventHandlerMethodSet == null || eventHandlerMethodSet.isEmpty()){
-            return;
+    private List<EventBatch.Delivery> submitDetached(EventHandler handler, List<EventBatch.Delivery> deliveries,
+                                                     CompletionBarrier barrier) {
+        List<EventBatch.Delivery> attachedDeliveries = null;
+        for (int i = 0; i < deliveries.size(); i++) {
+            EventBatch.Delivery delivery = deliveries.get(i);
+            HandlerMethod handlerMethod = delivery.getHandlerMethod();
+            if(!hasDedicatedExecutor(handlerMethod)) {
+                if(attachedDeliveries != null) {
+                    attachedDeliveries.add(delivery);
+                }
+                continue;
+            }
+            if(attachedDeliveries == null) {
+                attachedDeliveries = new ArrayList<>(deliveries.subList(0, i));
+            }
+            if(barrier != null) {
+                submitSyncTask(barrier, getTaskExecutor(handlerMethod),
+                        () -> invokeEventMethod(handlerMethod, handler, delivery.getEvent()));
+            } else {
+                executeTraced(getTaskExecutor(handlerMethod),
+                        new DeliveryTask(handlerMethod, handler, delivery.getEvent()));
+            }
         }
-        eventHandlerMethodSet.forEach(method -> {
-            final Set<EventHandler> handlerSet = eventHandlerObjectMap.getHandlerObject(method.getDeclaringClass());
-            threadPoolExecutor.execute(() ->
-                    handlerSet.forEach(handler -> executeEvent(handler, eventObject, method, null)));
-        });
+        return attachedDeliveries != null ? attachedDeliveries : deliveries;
     }
 
     /**
-     * 同步投递事件.
-     * 方法将会在事件执行结束后返回.
-     * @param eventObject 需投递的事件对象
-     * @throws InterruptedException 当等待执行完成时发生中断, 则抛出异常.
+     * 将同一EventHandler对象的批量投递提交到其串行邮箱.
+     * <p>如存在需在隔离执行器中执行或受并发限制的投递, 将逐个提交投递, 否则作为一个任务提交.</p>
+     * @param mailbox EventHandler对象的串行邮箱
+     * @param handler EventHandler对象
+     * @param deliveries 投递列表
+     * @param barrier 同步投递的完成屏障, 如非同步投递则为null
      */
-    public void executorSync(final EventObject eventObject) throws InterruptedException {
-        Set<Method> eventHandlerMethodSet = eventHandlerList.getEventHandlerMethod(eventObject.getClass());
-        if(eventHandlerMethodSet == null || eventHandlerMethodSet.isEmpty()){
+    private void submitToMailbox(SerialMailbox mailbox, EventHandler handler,
+                                 List<EventBatch.Delivery> deliveries, CompletionBarrier barrier) {
+        boolean dedicated = false;
+        for (EventBatch.Delivery delivery : deliveries) {
+            dedicated |= hasDedicatedExecutor(delivery.getHandlerMethod());
+        }
+        if(!dedicated) {
+            submitToMailbox(mailbox, null, barrier, () -> invokeBatchDeliveries(handler, deliveries));
             return;
         }
+        for (EventBatch.Delivery delivery : deliveries) {
+            HandlerMethod handlerMethod = delivery.getHandlerMethod();
+            submitToMailbox(mailbox, handlerMethod, barrier,
+                    () -> invokeEventMethod(handlerMethod, handler, delivery.getEvent()));
+        }
+    }
 
-        final AtomicInteger executeCount = new AtomicInteger();
+    /**
+     * 在指定延迟后执行任务.
+     * @param task 任务, 应只执行轻量操作
+     * @param delay 延迟
+     * @param unit 延迟的时间单位
+     */
+    private void scheduleDelayed(Runnable task, long delay, TimeUnit unit) {
+        getTimingWheel().schedule(task, delay, unit);
+    }
 
-        eventHandlerMethodSet.forEach(method -> {
-            final Set<EventHandler> handlerSet = eventHandlerObjectMap.getHandlerObject(method.getDeclaringClass());
-            handlerSet.forEach(handler -> executeEvent(handler, eventObject, method, executeCount));
-        });
-        if(executeCount.get() != 0){
-            synchronized (executeCount) {
-                executeCount.wait();
+    /**
+     * 获取延迟任务时间轮, 如尚未创建则创建.
+     * @return 返回时间轮
+     */
+    private HashedTimingWheel getTimingWheel() {
+        HashedTimingWheel currentTimingWheel = timingWheel;
+        if(currentTimingWheel == null) {
+            synchronized (this) {
+                if((currentTimingWheel = timingWheel) == null) {
+                    timingWheel = currentTimingWheel = new HashedTimingWheel(
+                            TIMING_WHEEL_TICK_MILLIS, TimeUnit.MILLISECONDS, TIMING_WHEEL_SIZE, r -> {
+                        Thread thread = new Thread(r, "EventExecutor-Timer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
             }
         }
+        return currentTimingWheel;
     }
 
-
     /**
-     * 对指定{@link EventHandler}投递事件
-     * @param handler 要进行事件投递的EventHandler
-     * @param eventObject 事件对象
-     * @return 返回已处理事件方法数量
-     * @throws IllegalAccessException 当EventHandler访问权不为public时抛出异常.
+     * 获取看门狗回调执行器, 如尚未创建则创建.
+     * @return 返回看门狗回调执行器
      */
-    public int executor(EventHandler handler, EventObject eventObject) throws IllegalAccessException {
-        Class<?> handlerClass = handler.getClass();
-        int classModifier = handlerClass.getModifiers();
-        if(!Modifier.isPublic(classModifier)) {
-            throw new IllegalAccessException("class is not public");
+    private Executor getWatchdogExecutor() {
+        ThreadPoolExecutor currentExecutor = watchdogExecutor;
+        if(currentExecutor == null) {
+            synchronized (this) {
+                if((currentExecutor = watchdogExecutor) == null) {
+                    currentExecutor = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "EventExecutor-Watchdog");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    currentExecutor.allowCoreThreadTimeOut(true);
+                    watchdogExecutor = currentExecutor;
+                }
+            }
         }
+        return currentExecutor;
+    }
 
-        Method[] methods = handlerClass.getDeclaredMethods();
-        int invokeCount = 0;
-        for (Method method : methods) {
-            if(!checkMethod(method, eventObject)) {
-                continue;
+    /**
+     * 写入死信, 如未设置死信存储则忽略.
+     * <p>写入失败的异常将交由{@link #setUncaughtExceptionHandler(Thread.UncaughtExceptionHandler)}设置的处理对象处理.</p>
+     * @param handler EventHandler对象, 如事件未投递到具体的EventHandler则为null
+     * @param handlerMethod 事件方法, 如事件未投递到具体的事件方法则为null
+     * @param event 事件对象
+     * @param cause 失败原因
+     */
+    private void writeDeadLetter(EventHandler handler, Method handlerMethod, EventObject event, Throwable cause) {
+        DeadLetterStore store = deadLetterStore.get();
+        if(store == null) {
+            return;
+        }
+        try {
+            store.append(handler, handlerMethod, event, cause);
+        } catch (IOException | RuntimeException e) {
+            Thread.UncaughtExceptionHandler threadExceptionHandler;
+            if((threadExceptionHandler = this.exceptionHandler.get()) != null){
+                threadExceptionHandler.uncaughtException(Thread.currentThread(), e);
             }
-            
-            executeEvent(handler, eventObject, method, null);
-            invokeCount++;
         }
-        return invokeCount;
     }
 
     /**
-     * 设置事件重投是否启用.<br>
-     * 事件重新投递(事件重投, EventResend)可以将当前EventHandler的方法处理的事件再次投递给当前EventHandler再次进行处理,
-     * 通过事件重投, 可以做到例如让事件延迟处理的能力.
-     * @param enable 如果启用,
-     *               则EventHandler内的事件处理方法将可以调用{@link #resendCurrentEvent()}重新投递当前任务到该EventHandler.
+     * 将执行器关闭时被丢弃的任务中的事件写入死信存储.
+     * @param discardedTasks 被丢弃的任务
      */
-    public void setEnableEventResend(boolean enable) {
-        enableEventResend.set(enable);
+    private void writeDiscardedDeadLetters(List<Runnable> discardedTasks) {
+        if(deadLetterStore.get() == null || discardedTasks.isEmpty()) {
+            return;
+        }
+        RejectedExecutionException cause = new RejectedExecutionException("EventExecutor has been shut down");
+        for (Runnable task : discardedTasks) {
+            if(task instanceof PendingEvent && ((PendingEvent) task).getEventObject() != null) {
+                PendingEvent pendingEvent = (PendingEvent) task;
+                writeDeadLetter(pendingEvent.getHandler(), pendingEvent.getHandlerMethod(),
+                        pendingEvent.getEventObject(), cause);
+            }
+        }
     }
 
     /**
-     * 对指定EventHandler的Method投递事件.
-     * @param handler 要投递事件的EventHandler对象
-     * @param event 事件对象
-     * @param eventMethod 事件方法
-     * @param executeCount 当需要进行执行计次时使用
-     */
-    private void executeEvent(final EventHandler handler,
-                              final EventObject event,
-                              final Method eventMethod,
-                              final AtomicInteger executeCount){
-        if(executeCount == null){
-            threadPoolExecutor.execute(() -> {
-                if(enableEventResend.get()) {
-                    setThreadResendInfo(this, handler, event);
-                }
-                createEventTask(handler, event, eventMethod).run();
-                clearThreadResendInfo();
-            });
-        } else {
-            executeCount.incrementAndGet();
-            threadPoolExecutor.execute(() -> {
-                try {
-                    if(enableEventResend.get()) {
-                        setThreadResendInfo(this, handler, event);
-                    }
-                    createEventTask(handler, event, eventMethod).run();
-                } finally {
-                    if(enableEventResend.get()) {
-                        clearThreadResendInfo();
-                    }
-                    int count = executeCount.decrementAndGet();
-                    if (count == 0) {
-                        synchronized (executeCount) {
-                            executeCount.notifyAll();
-                        }
-                    }
-                }
-            });
+     * 设置死信存储.
+     * <p>设置后, 最终投递失败的事件(包括重试次数用尽的事件)将连同EventHandler, 事件方法和异常写入死信存储,
+     * 关闭执行器时尚未投递的延迟事件, 以及{@code shutdown(true)}时线程池中尚未执行的投递任务所携带的事件也将写入死信存储.</p>
+     * <p>死信存储不会随执行器关闭而关闭.</p>
+     * @param store 死信存储, 如为null则不再写入死信
+     */
+    public void setDeadLetterStore(DeadLetterStore store) {
+        DeadLetterStore oldStore = deadLetterStore.getAndSet(store);
+        if(oldStore != null && oldStore != store) {
+            oldStore.setSyncScheduler(null);
+        }
+        if(store != null) {
+            store.setSyncScheduler(this::scheduleDelayed);
         }
     }
 
     /**
-     * 创建事件任务
-     * @param handler 要投递事件的EventHandler对象
-     * @param event 事件对象
-     * @param eventMethod 事件方法
+     * 获取死信存储.
+     * @return 返回死信存储, 如未设置则返回null
      */
-    private Runnable createEventTask(EventHandler handler, EventObject event, Method eventMethod){
-        return () -> {
-            try {
-                eventMethod.invoke(handler, event);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException(e);
-            } catch (InvocationTargetException e){
-                throw new EventInvokeException(handler, eventMethod, event, e.getCause());
-            }
-        };
+    public DeadLetterStore getDeadLetterStore() {
+        return deadLetterStore.get();
+    }
+
+    /**
+     * 处理事件线程中未捕获的异常.
+     * <p>如异常为{@link EventInvokeException}且设置了{@link EventUncaughtExceptionHandler}, 将交由其处理,
+     * 否则交由{@link #setUncaughtExceptionHandler(Thread.UncaughtExceptionHandler)}设置的处理对象处理.</p>
+     * @param t 发生异常的线程
+     * @param e 异常对象
+     */
+    private void handleUncaughtException(Thread t, Throwable e) {
+        if(e instanceof EventInvokeException) {
+            EventInvokeException exception = (EventInvokeException) e;
+            writeDeadLetter(exception.getHandler(), exception.getHandlerMethod(),
+                    exception.getEventObject(), exception.getCause());
+        }
+        EventUncaughtExceptionHandler eventUncaughtHandler;
+        if(e instanceof EventInvokeException && (eventUncaughtHandler = eventExceptionHandler.get()) != null){
+            EventInvokeException exception = (EventInvokeException) e;
+            eventUncaughtHandler.exceptionHandler(
+                    /* Thread: */ t,
+                    exception.getHandler(),
+                    exception.getHandlerMethod(),
+                    exception.getEventObject(),
+                    exception.getCause());
+            return;
+        }
+        Thread.UncaughtExceptionHandler threadExceptionHandler;
+        if((threadExceptionHandler = this.exceptionHandler.get()) != null){
+            threadExceptionHandler.uncaughtException(t, e);
+        }
     }
 
     /**
@@ -244,7 +2859,13 @@ public class EventExecutor {
      * @throws InterruptedException 当发生中断时抛出
      */
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-        return threadPoolExecutor.awaitTermination(timeout, unit);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if(!requireExecutorService().awaitTermination(timeout, unit)) {
+            return false;
+        }
+        VirtualThreadDispatcher dispatcher = virtualThreadDispatcher.get();
+        return dispatcher == null ||
+                dispatcher.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -263,10 +2884,46 @@ public class EventExecutor {
 
     /**
      * 获取EventExecutor所使用的{@link ThreadPoolExecutor}
-     * @return ThreadPoolExecutor对象
+     * @return ThreadPoolExecutor对象, 如EventExecutor所使用的执行器不是ThreadPoolExecutor, 则返回null
      */
     public ThreadPoolExecutor getThreadPoolExecutor(){
-        return this.threadPoolExecutor;
+        return executorService instanceof ThreadPoolExecutor ? (ThreadPoolExecutor) executorService : null;
+    }
+
+    /**
+     * 获取EventExecutor用于执行事件方法的执行器.
+     * @return 返回执行器对象, 如执行器不是ExecutorService则返回null
+     */
+    public ExecutorService getExecutorService() {
+        return this.executorService;
+    }
+
+    /**
+     * 获取EventExecutor用于执行事件方法的执行器.
+     * @return 返回执行器对象
+     */
+    public Executor getExecutor() {
+        return this.taskExecutor;
+    }
+
+    /**
+     * 检查是否启用了工作窃取模式.
+     * @return 如EventExecutor使用ForkJoinPool执行事件方法, 返回true
+     */
+    public boolean isWorkStealing() {
+        return forkJoinPool != null;
+    }
+
+    /**
+     * 获取执行器对应的ExecutorService.
+     * @return 返回ExecutorService
+     * @throws UnsupportedOperationException 当执行器不是ExecutorService时抛出
+     */
+    private ExecutorService requireExecutorService() {
+        if(executorService == null) {
+            throw new UnsupportedOperationException("Executor is not an ExecutorService");
+        }
+        return executorService;
     }
 
     /**
@@ -284,14 +2941,77 @@ public class EventExecutor {
      */
     @SuppressWarnings("UnusedReturnValue")
     public List<Runnable> shutdown(boolean shutdownNow){
+        HandlerWatchdog currentWatchdog = watchdog.getAndSet(null);
+        if(currentWatchdog != null) {
+            currentWatchdog.stop();
+        }
+        AdaptiveIsolation currentIsolation = adaptiveIsolation.getAndSet(null);
+        if(currentIsolation != null) {
+            currentIsolation.stop();
+            restoreMetricsAfterIsolation();
+        }
+        HashedTimingWheel currentTimingWheel = timingWheel;
+        if(currentTimingWheel != null) {
+            writeDiscardedDeadLetters(currentTimingWheel.stop());
+        }
+        unregisterMetricsMBean();
+        ExecutorService service = requireExecutorService();
+        VirtualThreadDispatcher dispatcher = virtualThreadDispatcher.get();
         if (shutdownNow) {
-            return threadPoolExecutor.shutdownNow();
+            // 先取出等待队列中的投递, 避免被中断的调用结束后继续执行等待队列.
+            List<Runnable> pendingTasks = new ArrayList<>();
+            for (HandlerMethod handlerMethod : handlerMethodMap.values()) {
+                ConcurrencyLimiter limiter = handlerMethod.getConcurrencyLimiter();
+                if(limiter != null) {
+                    pendingTasks.addAll(limiter.drainParked());
+                }
+            }
+            pendingTasks.addAll(service.shutdownNow());
+            for (SerialMailbox mailbox : serialMailboxMap.values()) {
+                pendingTasks.addAll(mailbox.drainStalled());
+            }
+            SerialMailbox[] lanes = partitionLanes.get();
+            if(lanes != null) {
+                for (SerialMailbox lane : lanes) {
+                    pendingTasks.addAll(lane.drainStalled());
+                }
+            }
+            if(dispatcher != null) {
+                pendingTasks.addAll(dispatcher.shutdownNow());
+            }
+            writeDiscardedDeadLetters(pendingTasks);
+            syncDeadLetterStore();
+            return pendingTasks;
         } else {
-            threadPoolExecutor.shutdown();
+            coalescerMap.values().forEach(EventCoalescer::flush);
+            handlerMethodMap.values().forEach(HandlerMethod::flushAccumulators);
+            if(dispatcher != null) {
+                dispatcher.shutdown();
+            }
+            service.shutdown();
+            syncDeadLetterStore();
             return null;
         }
     }
 
+    /**
+     * 将死信存储中已写入的记录落盘.
+     */
+    private void syncDeadLetterStore() {
+        DeadLetterStore store = deadLetterStore.get();
+        if(store == null) {
+            return;
+        }
+        try {
+            store.sync();
+        } catch (IOException e) {
+            Thread.UncaughtExceptionHandler threadExceptionHandler;
+            if((threadExceptionHandler = this.exceptionHandler.get()) != null){
+                threadExceptionHandler.uncaughtException(Thread.currentThread(), e);
+            }
+        }
+    }
+
     /**
      * 设置事件异常捕获处理对象.
      * 该对象能详细获得
@@ -301,6 +3021,16 @@ public class EventExecutor {
         this.eventExceptionHandler.set(handler);
     }
 
+    /**
+     * 当前线程正在执行事件方法的EventExecutor, 用于检测在事件方法内发起的同步投递.
+     */
+    private final static ThreadLocal<EventExecutor> invokingEventExecutor = new ThreadLocal<>();
+
+    /**
+     * 当前线程的追踪跨度.
+     */
+    private final static ThreadLocal<TraceContext> currentTrace = new ThreadLocal<>();
+
     private final static ThreadLocal<EventExecutor> threadEventExecutor = new ThreadLocal<>();
     private final static ThreadLocal<EventHandler> threadEventHandler = new ThreadLocal<>();
     private final static ThreadLocal<EventObject> threadEventObject = new ThreadLocal<>();
@@ -345,6 +3075,41 @@ public class EventExecutor {
         }
     }
 
+    /**
+     * 在指定延迟后重新投递当前任务到当前Handler.<br>
+     * 等待期间不占用执行器线程, 适用于事件处理方法需要稍后重试的情况.<br>
+     * 注意: 该方法本身并不会阻止多次调用, 故事件处理方法需自行控制重新投递操作.<br>
+     * @param delay 延迟
+     * @param unit 延迟的时间单位
+     * @return 返回可用于取消投递的ScheduledEvent对象
+     */
+    public static ScheduledEvent resendCurrentEvent(long delay, TimeUnit unit) {
+        final EventExecutor executor = threadEventExecutor.get();
+        if(executor == null) {
+            throw new UnsupportedOperationException("Resend not enabled");
+        }
+        final EventHandler handler = Objects.requireNonNull(threadEventHandler.get());
+        final TraceContext trace = executor.captureTrace();
+        ScheduledEventTask task = new ScheduledEventTask(executor.getTimingWheel(),
+                Objects.requireNonNull(threadEventObject.get()), handler, eventObject -> runInTrace(trace,
+                        () -> executor.executeTask(() -> executor.resendEvent(handler, eventObject))), 0);
+        task.start(unit.toNanos(Math.max(delay, 0)));
+        return task;
+    }
+
+    /**
+     * 重新投递事件到指定Handler.
+     * @param handler EventHandler对象
+     * @param eventObject 事件对象
+     */
+    private void resendEvent(EventHandler handler, EventObject eventObject) {
+        try {
+            executor(handler, eventObject);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * 检查指定方法是否为合法的事件接收方法
      * @param method 待检查的方法
@@ -365,25 +3130,57 @@ public class EventExecutor {
         if(!Modifier.isPublic(methodModifiers)){
             return false;
         }
-        Class<?>[] types = method.getParameterTypes();
-        if(types.length != 1){
+        Class<? extends EventObject> eventType = getEventType(method);
+        if(eventType == null){
             return false;
         }
-        if(eventObject == null) {
-            if(!EventObject.class.isAssignableFrom(types[0])) {
-                return false;
-            }
-        } else {
-            if(!types[0].isAssignableFrom(eventObject.getClass())) {
-                return false;
-            }
+        if(eventObject != null && !eventType.isAssignableFrom(eventObject.getClass())) {
+            return false;
         }
 
         return method.getDeclaredAnnotation(NotAccepted.class) == null;
     }
+
+    /**
+     * 获取事件方法所接收的事件类型.
+     * <p>对于形参为EventObject的事件方法, 返回形参类型;
+     * 对于标注了{@link MicroBatch}且形参为{@code List<SomeEvent>}的批量事件方法, 返回List的元素类型.</p>
+     * @param method 事件方法
+     * @return 返回事件类型, 如方法形参不符合事件方法的要求则返回null
+     */
+    public static Class<? extends EventObject> getEventType(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        if(types.length != 1){
+            return null;
+        }
+        if(EventObject.class.isAssignableFrom(types[0])) {
+            return types[0].asSubclass(EventObject.class);
+        }
+        if(types[0] != List.class || !method.isAnnotationPresent(MicroBatch.class)) {
+            return null;
+        }
+        Type parameterType = method.getGenericParameterTypes()[0];
+        if(!(parameterType instanceof ParameterizedType)) {
+            return null;
+        }
+        Type elementType = ((ParameterizedType) parameterType).getActualTypeArguments()[0];
+        if(elementType instanceof WildcardType) {
+            elementType = ((WildcardType) elementType).getUpperBounds()[0];
+        }
+        if(elementType instanceof Class && EventObject.class.isAssignableFrom((Class<?>) elementType)) {
+            return ((Class<?>) elementType).asSubclass(EventObject.class);
+        }
+        return null;
+    }
     
     @Override
     protected void finalize() {
-        threadPoolExecutor.shutdownNow();
+        HashedTimingWheel currentTimingWheel = timingWheel;
+        if(currentTimingWheel != null) {
+            currentTimingWheel.stop();
+        }
+        if(executorService != null) {
+            executorService.shutdownNow();
+        }
     }
 }
@@ -16,6 +16,18 @@ public interface EventHandlerList {
      */
     Set<Method> getEventHandlerMethod(Class<? extends EventObject> eventObject);
 
+    /**
+     * 获取以指定EventObject为参数的Method数组.
+     * <p>{@link EventExecutor}投递事件时使用该方法获取事件方法, 实现类可缓存返回的数组以减少投递开销,
+     * 因此调用方不可修改返回的数组.</p>
+     * @param eventObject 指定的EventObject
+     * @return 返回Method数组, 如果未找到将返回空数组
+     */
+    default Method[] getEventHandlerMethods(Class<? extends EventObject> eventObject) {
+        Set<Method> methods = getEventHandlerMethod(eventObject);
+        return methods == null ? new Method[0] : methods.toArray(new Method[0]);
+    }
+
     /**
      * 添加EventHandler.
      * EventHandler内所有形参为(EventObject)的方法收集为事件方法.
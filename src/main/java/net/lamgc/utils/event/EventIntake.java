@@ -0,0 +1,257 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 事件接收限制.
+ * <p>限制某一事件类型已接收但尚未执行完成的事件数量, 达到上限时按{@link IntakePolicy}处理新投递的事件.</p>
+ * <p>每个接收的事件对应一个{@link Ticket}, 事件的所有投递执行完成后释放. 尚未开始执行的事件按接收顺序链接,
+ * 以便{@link IntakePolicy#DROP_OLDEST}和{@link IntakePolicy#COALESCE}取消或替换.</p>
+ */
+final class EventIntake {
+
+    private final int capacity;
+
+    private final IntakePolicy policy;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * 未完成的事件数量, 由{@link #lock}保护.
+     */
+    private int pending;
+
+    /**
+     * 尚未开始执行的事件链表, 由{@link #lock}保护.
+     */
+    private Ticket waitingHead;
+    private Ticket waitingTail;
+
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder blockedCount = new LongAdder();
+    private final LongAdder callerRunsCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 构造事件接收限制.
+     * @param capacity 未完成事件数量上限, 必须大于0
+     * @param policy 达到上限时的接收策略
+     */
+    EventIntake(int capacity, IntakePolicy policy) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * 接收事件.
+     * @param event 事件对象
+     * @return 返回事件的接收凭据, 如事件被丢弃或合并到已接收的事件中, 则返回null.
+     *         如凭据的{@link Ticket#isCallerRuns()}为true, 调用方需在当前线程执行事件.
+     */
+    Ticket admit(EventObject event) {
+        lock.lock();
+        try {
+            if(pending >= capacity) {
+                switch (policy) {
+                    case BLOCK:
+                        blockedCount.increment();
+                        while (pending >= capacity) {
+                            notFull.awaitUninterruptibly();
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        Ticket oldest = waitingHead;
+                        droppedCount.increment();
+                        if(oldest == null) {
+                            return null;
+                        }
+                        unlink(oldest);
+                        oldest.state = Ticket.STATE_CANCELLED;
+                        pending--;
+                        break;
+                    case COALESCE:
+                        Ticket newest = waitingTail;
+                        if(newest == null) {
+                            droppedCount.increment();
+                            return null;
+                        }
+                        newest.event = event;
+                        coalescedCount.increment();
+                        return null;
+                    case CALLER_RUNS:
+                        callerRunsCount.increment();
+                        return new Ticket(this, event, true);
+                    case DROP_NEWEST:
+                    default:
+                        droppedCount.increment();
+                        return null;
+                }
+            }
+            Ticket ticket = new Ticket(this, event, false);
+            link(ticket);
+            pending++;
+            acceptedCount.increment();
+            return ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void link(Ticket ticket) {
+        ticket.prev = waitingTail;
+        if(waitingTail == null) {
+            waitingHead = ticket;
+        } else {
+            waitingTail.next = ticket;
+        }
+        waitingTail = ticket;
+    }
+
+    private void unlink(Ticket ticket) {
+        if(ticket.prev == null) {
+            waitingHead = ticket.next;
+        } else {
+            ticket.prev.next = ticket.next;
+        }
+        if(ticket.next == null) {
+            waitingTail = ticket.prev;
+        } else {
+            ticket.next.prev = ticket.prev;
+        }
+        ticket.prev = ticket.next = null;
+    }
+
+    private EventObject start(Ticket ticket) {
+        lock.lock();
+        try {
+            if(ticket.state == Ticket.STATE_WAITING) {
+                unlink(ticket);
+                ticket.state = Ticket.STATE_STARTED;
+            }
+            return ticket.state == Ticket.STATE_STARTED ? ticket.event : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Ticket ticket) {
+        lock.lock();
+        try {
+            if(ticket.state == Ticket.STATE_CANCELLED) {
+                return;
+            }
+            if(ticket.state == Ticket.STATE_WAITING) {
+                unlink(ticket);
+            }
+            ticket.state = Ticket.STATE_COMPLETED;
+            pending--;
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取统计信息快照.
+     * @return 返回统计信息
+     */
+    IntakeStatistics getStatistics() {
+        int currentPending;
+        lock.lock();
+        try {
+            currentPending = pending;
+        } finally {
+            lock.unlock();
+        }
+        return new IntakeStatistics(capacity, policy, currentPending,
+                acceptedCount.sum(), droppedCount.sum(), blockedCount.sum(),
+                callerRunsCount.sum(), coalescedCount.sum());
+    }
+
+    /**
+     * 事件接收凭据.
+     * <p>凭据创建时持有一个额外的投递计数, 调用方提交完所有投递后需调用一次{@link #finishDelivery()}.</p>
+     */
+    static final class Ticket {
+
+        private final static int STATE_WAITING = 0;
+        private final static int STATE_STARTED = 1;
+        private final static int STATE_CANCELLED = 2;
+        private final static int STATE_COMPLETED = 3;
+
+        private final EventIntake intake;
+
+        private final boolean callerRuns;
+
+        private final AtomicInteger pendingDeliveries = new AtomicInteger(1);
+
+        /**
+         * 以下字段由所属EventIntake的锁保护, state和event额外声明为volatile以便快速读取.
+         */
+        private volatile int state = STATE_WAITING;
+        private volatile EventObject event;
+        private Ticket prev;
+        private Ticket next;
+
+        private Ticket(EventIntake intake, EventObject event, boolean callerRuns) {
+            this.intake = intake;
+            this.event = event;
+            this.callerRuns = callerRuns;
+        }
+
+        /**
+         * 检查是否需要在投递线程中执行事件.
+         * @return 如是则返回true
+         */
+        boolean isCallerRuns() {
+            return callerRuns;
+        }
+
+        /**
+         * 获取凭据当前对应的事件对象.
+         * @return 返回事件对象
+         */
+        EventObject getEvent() {
+            return event;
+        }
+
+        /**
+         * 登记一个投递.
+         */
+        void addDelivery() {
+            pendingDeliveries.incrementAndGet();
+        }
+
+        /**
+         * 开始执行投递.
+         * @return 返回需投递的事件对象, 如事件已被丢弃则返回null
+         */
+        EventObject start() {
+            int currentState = state;
+            if(currentState == STATE_STARTED) {
+                return event;
+            }
+            return currentState == STATE_CANCELLED ? null : intake.start(this);
+        }
+
+        /**
+         * 标记一个投递已完成, 所有投递完成后释放凭据.
+         */
+        void finishDelivery() {
+            if(pendingDeliveries.decrementAndGet() == 0 && !callerRuns) {
+                intake.release(this);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package net.lamgc.utils.event;
+
+/**
+ * 事件方法调用器.
+ * <p>事件方法在注册时将被编译为调用器, 投递事件时直接通过调用器调用事件方法, 以避免每次投递都经过反射调用.</p>
+ */
+@FunctionalInterface
+public interface EventMethodInvoker {
+
+    /**
+     * 调用事件方法.
+     * @param handler 事件方法所在的EventHandler对象, 如事件方法为静态方法则忽略该参数
+     * @param argument 事件方法的参数, 通常为{@link EventObject}
+     * @return 返回事件方法的返回值, 如事件方法返回类型为void则返回null
+     * @throws Throwable 事件方法抛出的异常将原样抛出, 不会经过{@link java.lang.reflect.InvocationTargetException}包装.
+     */
+    Object invoke(EventHandler handler, Object argument) throws Throwable;
+
+}
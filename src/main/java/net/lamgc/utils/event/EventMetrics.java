@@ -0,0 +1,36 @@
+package net.lamgc.utils.event;
+
+import java.util.List;
+
+/**
+ * 事件执行器运行指标的JMX实现.
+ */
+final class EventMetrics implements EventMetricsMXBean {
+
+    private final EventExecutor executor;
+
+    EventMetrics(EventExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return executor.isEnableMetrics();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        executor.setEnableMetrics(enabled);
+    }
+
+    @Override
+    public List<HandlerMetrics> getHandlerMetrics() {
+        return executor.getHandlerMetrics();
+    }
+
+    @Override
+    public void reset() {
+        executor.resetHandlerMetrics();
+    }
+
+}
@@ -0,0 +1,34 @@
+package net.lamgc.utils.event;
+
+import java.util.List;
+
+/**
+ * 事件执行器运行指标的JMX接口.
+ * @see EventExecutor#registerMetricsMBean(String)
+ */
+public interface EventMetricsMXBean {
+
+    /**
+     * 是否正在记录事件方法运行指标.
+     * @return 如已启用返回true
+     */
+    boolean isEnabled();
+
+    /**
+     * 设置是否记录事件方法运行指标.
+     * @param enabled 是否启用
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * 获取所有事件方法的运行指标.
+     * @return 返回运行指标快照
+     */
+    List<HandlerMetrics> getHandlerMetrics();
+
+    /**
+     * 清空所有事件方法的运行指标计数.
+     */
+    void reset();
+
+}
@@ -0,0 +1,194 @@
+package net.lamgc.utils.event;
+
+import com.google.common.primitives.Primitives;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * 事件查询.
+ * <p>由{@link EventExecutor#query(EventObject, Class)}创建, 用于获取事件方法返回的查询结果.</p>
+ * <p>所有获取结果的方法都不会阻塞, 带有等待时间的方法将在超时后以已收到的部分结果完成.</p>
+ * @param <R> 查询结果类型
+ */
+public final class EventQuery<R> {
+
+    private final Class<R> resultType;
+
+    private final DelayedTaskScheduler scheduler;
+
+    /**
+     * 按到达顺序排列的查询结果.
+     */
+    private final ConcurrentLinkedQueue<R> arrivedResults = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    private final CompletableFuture<R> firstResult = new CompletableFuture<>();
+
+    private volatile CompletableFuture<List<EventDeliveryResult>> completion;
+
+    EventQuery(Class<R> resultType, DelayedTaskScheduler scheduler) {
+        this.resultType = Primitives.wrap(Objects.requireNonNull(resultType));
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 接收一个投递结果.
+     * @param result 投递结果
+     */
+    void onResult(EventDeliveryResult result) {
+        if(!result.isSuccess()) {
+            failureCount.incrementAndGet();
+            return;
+        }
+        if(resultType.isInstance(result.getReturnValue())) {
+            R value = resultType.cast(result.getReturnValue());
+            arrivedResults.add(value);
+            firstResult.complete(value);
+        }
+    }
+
+    /**
+     * 绑定投递完成的Future.
+     * @param deliveryCompletion 投递结果列表的Future
+     */
+    void bind(CompletableFuture<List<EventDeliveryResult>> deliveryCompletion) {
+        this.completion = deliveryCompletion;
+        deliveryCompletion.whenComplete((results, cause) -> firstResult.complete(null));
+    }
+
+    /**
+     * 获取所有查询结果.
+     * @return 返回在所有投递执行结束后以查询结果列表完成的Future, 结果按投递顺序排列
+     */
+    public CompletableFuture<List<R>> all() {
+        return completion.thenApply(results -> {
+            List<R> values = new ArrayList<>(results.size());
+            for (EventDeliveryResult result : results) {
+                if(result.isSuccess() && resultType.isInstance(result.getReturnValue())) {
+                    values.add(resultType.cast(result.getReturnValue()));
+                }
+            }
+            return Collections.unmodifiableList(values);
+        });
+    }
+
+    /**
+     * 在限定时间内获取所有查询结果.
+     * @param timeout 等待时间
+     * @param unit 时间单位
+     * @return 返回查询结果列表的Future, 如超时仍有投递未执行结束, 将以已收到的部分结果完成
+     */
+    public CompletableFuture<List<R>> all(long timeout, TimeUnit unit) {
+        return withTimeout(all(), this::getPartialResults, timeout, unit);
+    }
+
+    /**
+     * 获取首个查询结果.
+     * @return 返回以最先到达的查询结果完成的Future, 如所有投递都没有返回查询结果, 则以null完成
+     */
+    public CompletableFuture<R> first() {
+        return firstResult.thenApply(value -> value);
+    }
+
+    /**
+     * 在限定时间内获取首个查询结果.
+     * @param timeout 等待时间
+     * @param unit 时间单位
+     * @return 返回首个查询结果的Future, 如超时仍未收到查询结果, 则以null完成
+     */
+    public CompletableFuture<R> first(long timeout, TimeUnit unit) {
+        return withTimeout(firstResult, () -> null, timeout, unit);
+    }
+
+    /**
+     * 归约所有查询结果.
+     * @param identity 初始值
+     * @param accumulator 归约函数
+     * @param <A> 归约结果类型
+     * @return 返回在所有投递执行结束后以归约结果完成的Future
+     */
+    public <A> CompletableFuture<A> reduce(A identity, BiFunction<A, ? super R, A> accumulator) {
+        return all().thenApply(values -> reduce(values, identity, accumulator));
+    }
+
+    /**
+     * 在限定时间内归约查询结果.
+     * @param identity 初始值
+     * @param accumulator 归约函数
+     * @param timeout 等待时间
+     * @param unit 时间单位
+     * @param <A> 归约结果类型
+     * @return 返回归约结果的Future, 如超时仍有投递未执行结束, 将以已收到的部分结果的归约结果完成
+     */
+    public <A> CompletableFuture<A> reduce(A identity, BiFunction<A, ? super R, A> accumulator,
+                                           long timeout, TimeUnit unit) {
+        return all(timeout, unit).thenApply(values -> reduce(values, identity, accumulator));
+    }
+
+    private static <A, R> A reduce(List<R> values, A identity, BiFunction<A, ? super R, A> accumulator) {
+        A result = identity;
+        for (R value : values) {
+            result = accumulator.apply(result, value);
+        }
+        return result;
+    }
+
+    /**
+     * 获取当前已收到的查询结果.
+     * @return 返回按到达顺序排列的查询结果列表
+     */
+    public List<R> getPartialResults() {
+        return Collections.unmodifiableList(new ArrayList<>(arrivedResults));
+    }
+
+    /**
+     * 获取所有投递的投递结果.
+     * @return 返回在所有投递执行结束后以投递结果列表完成的Future
+     */
+    public CompletableFuture<List<EventDeliveryResult>> getDeliveryResults() {
+        return completion.thenApply(results -> results);
+    }
+
+    /**
+     * 获取执行失败的投递数量.
+     * @return 返回当前已执行失败的投递数量
+     */
+    public int getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * 检查所有投递是否已执行结束.
+     * @return 如所有投递都已执行结束返回true
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> source, Supplier<T> fallback,
+                                                 long timeout, TimeUnit unit) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        source.whenComplete((value, cause) -> {
+            if(cause != null) {
+                future.completeExceptionally(cause);
+            } else {
+                future.complete(value);
+            }
+        });
+        if(!future.isDone()) {
+            scheduler.schedule(() -> future.complete(fallback.get()), timeout, unit);
+        }
+        return future;
+    }
+
+}
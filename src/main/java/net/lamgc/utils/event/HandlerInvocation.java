@@ -0,0 +1,131 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 正在执行的事件方法调用.
+ * <p>用于慢调用检测和调用超时. 调用只能从RUNNING经一次CAS进入结束(DONE)或超时(INTERRUPTING)中的一个,
+ * 因此超时与正常结束只会有一方生效, 超时也只会报告一次. 时间轮线程与执行线程通过状态保证中断只作用于该次调用:
+ * 时间轮线程将状态从RUNNING改为INTERRUPTING后才中断线程, 完成后改为INTERRUPTED;
+ * 执行线程结束调用时如无法将状态从RUNNING改为DONE, 则等待中断完成, 清除中断标志后将状态改为TIMED_OUT.</p>
+ */
+final class HandlerInvocation {
+
+    private final static int RUNNING = 0;
+    private final static int DONE = 1;
+    private final static int INTERRUPTING = 2;
+    private final static int TIMED_OUT = 3;
+    private final static int INTERRUPTED = 4;
+
+    private final HandlerMethod handlerMethod;
+
+    private final EventHandler handler;
+
+    private final EventObject event;
+
+    private final Thread thread = Thread.currentThread();
+
+    private final long startTime = System.nanoTime();
+
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+    /**
+     * 是否已报告为慢调用, 仅由看门狗线程访问.
+     */
+    private boolean reported;
+
+    private volatile HashedTimingWheel.Timeout timeout;
+
+    HandlerInvocation(HandlerMethod handlerMethod, EventHandler handler, EventObject event) {
+        this.handlerMethod = handlerMethod;
+        this.handler = handler;
+        this.event = event;
+    }
+
+    HandlerMethod getHandlerMethod() {
+        return handlerMethod;
+    }
+
+    EventHandler getHandler() {
+        return handler;
+    }
+
+    EventObject getEvent() {
+        return event;
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+
+    long getElapsedNanos() {
+        return System.nanoTime() - startTime;
+    }
+
+    void setTimeout(HashedTimingWheel.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * 标记为已报告.
+     * @return 如此前尚未报告返回true
+     */
+    boolean markReported() {
+        if(reported) {
+            return false;
+        }
+        reported = true;
+        return true;
+    }
+
+    /**
+     * 在时间轮线程中处理调用超时.
+     * @param interrupt 是否中断执行线程
+     * @return 如调用在超时时仍在执行返回true
+     */
+    boolean timeout(boolean interrupt) {
+        if(!state.compareAndSet(RUNNING, INTERRUPTING)) {
+            return false;
+        }
+        if(!interrupt) {
+            state.set(TIMED_OUT);
+            return true;
+        }
+        try {
+            thread.interrupt();
+        } finally {
+            state.set(INTERRUPTED);
+        }
+        return true;
+    }
+
+    /**
+     * 在执行线程中结束调用, 可重复调用.
+     * @return 如调用已超时返回true
+     */
+    boolean finish() {
+        int currentState = state.get();
+        if(currentState == DONE) {
+            return false;
+        } else if(currentState == TIMED_OUT) {
+            return true;
+        }
+        HashedTimingWheel.Timeout currentTimeout = timeout;
+        if(currentTimeout != null) {
+            currentTimeout.cancel();
+        }
+        if(state.compareAndSet(RUNNING, DONE)) {
+            return false;
+        }
+        while((currentState = state.get()) == INTERRUPTING) {
+            Thread.yield();
+        }
+        if(currentState == INTERRUPTED) {
+            // 清除针对本次调用的中断.
+            Thread.interrupted();
+            state.set(TIMED_OUT);
+        }
+        return true;
+    }
+
+}
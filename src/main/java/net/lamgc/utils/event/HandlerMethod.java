@@ -0,0 +1,251 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 事件方法信息.
+ * <p>在添加EventHandler时为每个事件方法创建, 保存事件方法及其调用器, 供事件投递时直接使用.</p>
+ */
+final class HandlerMethod {
+
+    private final Method method;
+
+    private final EventMethodInvoker compiledInvoker;
+
+    private final EventMethodInvoker reflectInvoker;
+
+    private final MicroBatch microBatch;
+
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * 单次调用的超时时间(纳秒), 如为0则不限制.
+     */
+    private final long timeoutNanos;
+
+    private final boolean interruptOnTimeout;
+
+    /**
+     * 通过{@link Bulkhead}指定的隔离执行器名称.
+     */
+    private final String bulkheadName;
+
+    /**
+     * 通过{@link ConcurrencyLimit}声明的并发限制器.
+     */
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * 是否已被自适应隔离迁移到隔离执行器.
+     */
+    private volatile boolean isolated;
+
+    /**
+     * 正在执行的调用, 仅在启用自适应隔离时记录.
+     */
+    private final Set<HandlerInvocation> inFlightInvocations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 以事件类型为键的运行指标, 仅在启用运行指标后创建.
+     */
+    private final ConcurrentHashMap<Class<?>, MethodMetrics> metricsMap = new ConcurrentHashMap<>();
+
+    /**
+     * 批量事件方法中各EventHandler对象的事件批次累积器.
+     */
+    private final ConcurrentHashMap<EventHandler, MicroBatchAccumulator> accumulatorMap;
+
+    HandlerMethod(Method method) {
+        this.method = Objects.requireNonNull(method);
+        this.compiledInvoker = LambdaEventMethodInvoker.create(method);
+        this.reflectInvoker = new ReflectEventMethodInvoker(method);
+        this.microBatch = method.getParameterTypes()[0] == List.class ? method.getAnnotation(MicroBatch.class) : null;
+        this.accumulatorMap = microBatch != null ? new ConcurrentHashMap<>() : null;
+        this.retryPolicy = microBatch == null ? RetryPolicy.of(method) : null;
+        HandlerTimeout timeout = method.getAnnotation(HandlerTimeout.class);
+        if(timeout != null && timeout.value() <= 0) {
+            throw new IllegalArgumentException("HandlerTimeout must be greater than 0");
+        }
+        this.timeoutNanos = timeout != null ? timeout.unit().toNanos(timeout.value()) : 0;
+        this.interruptOnTimeout = timeout != null && timeout.interrupt();
+        Bulkhead bulkhead = method.getAnnotation(Bulkhead.class);
+        this.bulkheadName = bulkhead != null ? bulkhead.value() : null;
+        ConcurrencyLimit concurrencyLimit = microBatch == null ? method.getAnnotation(ConcurrencyLimit.class) : null;
+        if(concurrencyLimit != null && concurrencyLimit.value() <= 0) {
+            throw new IllegalArgumentException("ConcurrencyLimit must be greater than 0");
+        }
+        this.concurrencyLimiter = concurrencyLimit != null ? new ConcurrencyLimiter(concurrencyLimit.value()) : null;
+    }
+
+    /**
+     * 获取事件方法.
+     * @return 返回事件方法对象
+     */
+    Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 获取事件方法所属的EventHandler类.
+     * @return 返回声明事件方法的类
+     */
+    Class<?> getHandlerClass() {
+        return method.getDeclaringClass();
+    }
+
+    /**
+     * 获取事件方法调用器.
+     * @param compiled 是否获取已编译的调用器, 如为false则返回反射调用器
+     * @return 返回事件方法调用器
+     */
+    EventMethodInvoker getInvoker(boolean compiled) {
+        return compiled ? compiledInvoker : reflectInvoker;
+    }
+
+    /**
+     * 检查事件方法是否为批量事件方法.
+     * @return 如果事件方法标注了{@link MicroBatch}且形参为List, 返回true
+     */
+    boolean isMicroBatch() {
+        return microBatch != null;
+    }
+
+    /**
+     * 获取批量事件方法的配置.
+     * @return 返回批量事件方法的注解, 如不是批量事件方法则返回null
+     */
+    MicroBatch getMicroBatch() {
+        return microBatch;
+    }
+
+    /**
+     * 获取事件方法的重试策略.
+     * @return 返回重试策略, 如事件方法未标注{@link Retry}或为批量事件方法则返回null
+     */
+    RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * 获取事件方法单次调用的超时时间.
+     * @return 返回超时时间(纳秒), 如事件方法未标注{@link HandlerTimeout}则返回0
+     */
+    long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    /**
+     * 调用超时时是否中断执行线程.
+     * @return 如需中断返回true
+     */
+    boolean isInterruptOnTimeout() {
+        return interruptOnTimeout;
+    }
+
+    /**
+     * 获取事件方法通过{@link Bulkhead}指定的隔离执行器名称.
+     * @return 返回隔离执行器名称, 如未标注则返回null
+     */
+    String getBulkheadName() {
+        return bulkheadName;
+    }
+
+    /**
+     * 获取事件方法的并发限制器.
+     * @return 返回并发限制器, 如事件方法未标注{@link ConcurrencyLimit}则返回null
+     */
+    ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    boolean isIsolated() {
+        return isolated;
+    }
+
+    void setIsolated(boolean isolated) {
+        this.isolated = isolated;
+    }
+
+    void addInFlight(HandlerInvocation invocation) {
+        inFlightInvocations.add(invocation);
+    }
+
+    void removeInFlight(HandlerInvocation invocation) {
+        inFlightInvocations.remove(invocation);
+    }
+
+    /**
+     * 获取正在执行的调用.
+     * @return 返回正在执行的调用集合, 仅在启用自适应隔离时记录
+     */
+    Collection<HandlerInvocation> getInFlightInvocations() {
+        return inFlightInvocations;
+    }
+
+    /**
+     * 获取事件方法处理指定事件类型的运行指标, 如不存在则创建.
+     * @param eventType 事件类型
+     * @return 返回运行指标
+     */
+    MethodMetrics getMetrics(Class<?> eventType) {
+        MethodMetrics metrics = metricsMap.get(eventType);
+        return metrics != null ? metrics : metricsMap.computeIfAbsent(eventType, type -> new MethodMetrics(this, type));
+    }
+
+    /**
+     * 获取事件方法已记录的所有运行指标.
+     * @return 返回运行指标集合
+     */
+    Collection<MethodMetrics> getAllMetrics() {
+        return metricsMap.values();
+    }
+
+    /**
+     * 获取指定EventHandler对象的事件批次累积器.
+     * @param handler EventHandler对象
+     * @return 返回事件批次累积器, 如尚未创建则返回null
+     */
+    MicroBatchAccumulator getAccumulator(EventHandler handler) {
+        return accumulatorMap != null ? accumulatorMap.get(handler) : null;
+    }
+
+    /**
+     * 获取指定EventHandler对象的事件批次累积器, 如不存在则创建.
+     * @param handler EventHandler对象
+     * @param factory 用于创建累积器的函数
+     * @return 返回事件批次累积器
+     * @throws IllegalStateException 当事件方法不是批量事件方法时抛出
+     */
+    MicroBatchAccumulator computeAccumulator(EventHandler handler,
+                                             Function<EventHandler, MicroBatchAccumulator> factory) {
+        if(accumulatorMap == null) {
+            throw new IllegalStateException("Not a micro batch method");
+        }
+        return accumulatorMap.computeIfAbsent(handler, factory);
+    }
+
+    /**
+     * 删除指定EventHandler对象的事件批次累积器.
+     * @param handler EventHandler对象
+     * @return 返回被删除的累积器, 如不存在则返回null
+     */
+    MicroBatchAccumulator removeAccumulator(EventHandler handler) {
+        return accumulatorMap != null ? accumulatorMap.remove(handler) : null;
+    }
+
+    /**
+     * 立即投递所有EventHandler对象已累积的事件.
+     */
+    void flushAccumulators() {
+        if(accumulatorMap != null) {
+            accumulatorMap.values().forEach(MicroBatchAccumulator::flush);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+
+/**
+ * 事件方法运行指标.
+ * <p>某一事件方法处理某一事件类型时, 在获取指标时的计数和延迟分布快照.</p>
+ * @see EventExecutor#setEnableMetrics(boolean)
+ * @see EventExecutor#getHandlerMetrics()
+ */
+public final class HandlerMetrics {
+
+    private final String handlerClassName;
+
+    private final String handlerMethodName;
+
+    private final String eventType;
+
+    private final long invocations;
+
+    private final long failures;
+
+    private final long inFlight;
+
+    private final LatencySnapshot queueWaitTime;
+
+    private final LatencySnapshot executionTime;
+
+    HandlerMetrics(Method handlerMethod, Class<?> eventType, long invocations, long failures, long inFlight,
+                   LatencySnapshot queueWaitTime, LatencySnapshot executionTime) {
+        this.handlerClassName = handlerMethod.getDeclaringClass().getName();
+        this.handlerMethodName = handlerMethod.getName();
+        this.eventType = eventType.getName();
+        this.invocations = invocations;
+        this.failures = failures;
+        this.inFlight = inFlight;
+        this.queueWaitTime = queueWaitTime;
+        this.executionTime = executionTime;
+    }
+
+    /**
+     * 获取声明事件方法的类名.
+     * @return 返回类名
+     */
+    public String getHandlerClassName() {
+        return handlerClassName;
+    }
+
+    /**
+     * 获取事件方法名.
+     * @return 返回方法名
+     */
+    public String getHandlerMethodName() {
+        return handlerMethodName;
+    }
+
+    /**
+     * 获取事件类型.
+     * @return 返回事件对象的类名
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * 获取已完成的调用次数.
+     * @return 返回调用次数
+     */
+    public long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * 获取抛出异常的调用次数.
+     * @return 返回失败次数
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * 获取正在执行的调用数量.
+     * @return 返回正在执行的调用数量
+     */
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 获取投递任务在执行器中的排队时间分布.
+     * <p>只记录单独提交到执行器的投递任务, 在投递线程中直接执行的调用不计入.</p>
+     * @return 返回排队时间分布
+     */
+    public LatencySnapshot getQueueWaitTime() {
+        return queueWaitTime;
+    }
+
+    /**
+     * 获取事件方法执行时间分布.
+     * @return 返回执行时间分布
+     */
+    public LatencySnapshot getExecutionTime() {
+        return executionTime;
+    }
+
+    @Override
+    public String toString() {
+        return "HandlerMetrics{" +
+                "handler=" + handlerClassName + '#' + handlerMethodName +
+                ", eventType=" + eventType +
+                ", invocations=" + invocations +
+                ", failures=" + failures +
+                ", inFlight=" + inFlight +
+                ", queueWaitTime=" + queueWaitTime +
+                ", executionTime=" + executionTime +
+                '}';
+    }
+
+}
@@ -0,0 +1,35 @@
+package net.lamgc.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明事件方法的执行顺序.
+ * <p>可标注在事件方法或EventHandler类上, 标注在类上时对类中所有事件方法生效, 方法上的注解优先.</p>
+ * <p>当同一事件类型的事件方法中存在标注了该注解的方法时, {@link EventExecutor}将根据优先级和依赖关系
+ * 为该事件类型建立依赖图, 没有依赖关系的事件方法并行执行, 依赖的事件方法全部执行完成后(包括执行失败),
+ * 后续的事件方法才会开始执行, 等待期间不会占用线程.</p>
+ * <p>未标注该注解的事件方法优先级为0, 且没有依赖. {@link #after()}中的EventHandler类需先于依赖它的类添加,
+ * 如依赖的类尚未添加, 或事件方法之间存在循环依赖, {@link EventExecutor#addHandler(EventHandler)}将抛出{@link IllegalStateException}.</p>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HandlerOrder {
+
+    /**
+     * 事件方法的优先级.
+     * <p>数值越大越先执行, 优先级较低的事件方法将在所有优先级较高的事件方法执行完成后执行.</p>
+     * @return 返回优先级
+     */
+    int priority() default 0;
+
+    /**
+     * 需要在其之后执行的EventHandler类.
+     * <p>事件方法将在指定类(包括其子类)中接收同一事件的所有事件方法执行完成后执行.</p>
+     * @return 返回EventHandler类数组
+     */
+    Class<? extends EventHandler>[] after() default {};
+
+}
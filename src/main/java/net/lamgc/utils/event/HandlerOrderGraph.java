@@ -0,0 +1,179 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * 事件方法依赖图.
+ * <p>根据事件方法上的{@link HandlerOrder}建立, 依赖图中的节点按拓扑顺序排列,
+ * 因此依次执行排序后的事件方法即可满足所有依赖关系.</p>
+ */
+final class HandlerOrderGraph {
+
+    private final static int[] EMPTY_SUCCESSORS = new int[0];
+
+    private final HandlerMethod[] sortedMethods;
+
+    private final int[][] successors;
+
+    private final int[] predecessorCounts;
+
+    private final int[] roots;
+
+    private HandlerOrderGraph(HandlerMethod[] sortedMethods, int[][] successors, int[] predecessorCounts) {
+        this.sortedMethods = sortedMethods;
+        this.successors = successors;
+        this.predecessorCounts = predecessorCounts;
+        int rootCount = 0;
+        int[] rootNodes = new int[predecessorCounts.length];
+        for (int i = 0; i < predecessorCounts.length; i++) {
+            if(predecessorCounts[i] == 0) {
+                rootNodes[rootCount++] = i;
+            }
+        }
+        this.roots = Arrays.copyOf(rootNodes, rootCount);
+    }
+
+    /**
+     * 建立事件方法依赖图.
+     * @param methods 接收同一事件类型的事件方法
+     * @return 返回依赖图, 如所有事件方法都没有标注{@link HandlerOrder}, 则返回null
+     * @throws IllegalStateException 当事件方法之间存在循环依赖时抛出
+     */
+    static HandlerOrderGraph build(HandlerMethod[] methods) {
+        int count = methods.length;
+        HandlerOrder[] orders = new HandlerOrder[count];
+        boolean ordered = false;
+        for (int i = 0; i < count; i++) {
+            orders[i] = getHandlerOrder(methods[i].getMethod());
+            ordered |= orders[i] != null;
+        }
+        if(!ordered) {
+            return null;
+        }
+
+        final int[] priorities = new int[count];
+        for (int i = 0; i < count; i++) {
+            priorities[i] = orders[i] != null ? orders[i].priority() : 0;
+        }
+        // dependencies[i][j] 为true表示节点i需在节点j之后执行
+        boolean[][] dependencies = new boolean[count][count];
+        for (int i = 0; i < count; i++) {
+            boolean hasHigherPriority = false;
+            int nextPriority = Integer.MAX_VALUE;
+            for (int j = 0; j < count; j++) {
+                if(priorities[j] > priorities[i] && priorities[j] <= nextPriority) {
+                    nextPriority = priorities[j];
+                    hasHigherPriority = true;
+                }
+            }
+            for (int j = 0; j < count; j++) {
+                if(hasHigherPriority && priorities[j] == nextPriority) {
+                    dependencies[i][j] = true;
+                }
+            }
+            if(orders[i] == null) {
+                continue;
+            }
+            for (Class<? extends EventHandler> afterClass : orders[i].after()) {
+                for (int j = 0; j < count; j++) {
+                    Class<?> handlerClass = methods[j].getHandlerClass();
+                    if(handlerClass != methods[i].getHandlerClass() && afterClass.isAssignableFrom(handlerClass)) {
+                        dependencies[i][j] = true;
+                    }
+                }
+            }
+        }
+
+        int[] remaining = new int[count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < count; j++) {
+                if(dependencies[i][j]) {
+                    remaining[i]++;
+                }
+            }
+        }
+        PriorityQueue<Integer> available = new PriorityQueue<>(Math.max(1, count),
+                Comparator.<Integer>comparingInt(node -> -priorities[node]).thenComparingInt(node -> node));
+        for (int i = 0; i < count; i++) {
+            if(remaining[i] == 0) {
+                available.add(i);
+            }
+        }
+        int[] order = new int[count];
+        int sortedCount = 0;
+        while(!available.isEmpty()) {
+            int node = available.poll();
+            order[sortedCount++] = node;
+            for (int i = 0; i < count; i++) {
+                if(dependencies[i][node] && --remaining[i] == 0) {
+                    available.add(i);
+                }
+            }
+        }
+        if(sortedCount != count) {
+            throw new IllegalStateException("Cyclic handler dependencies: " + Arrays.toString(methods));
+        }
+
+        int[] position = new int[count];
+        HandlerMethod[] sortedMethods = new HandlerMethod[count];
+        for (int i = 0; i < count; i++) {
+            position[order[i]] = i;
+            sortedMethods[i] = methods[order[i]];
+        }
+        int[][] successors = new int[count][];
+        int[] predecessorCounts = new int[count];
+        for (int i = 0; i < count; i++) {
+            int node = order[i];
+            int[] nodeSuccessors = new int[count];
+            int successorCount = 0;
+            for (int j = 0; j < count; j++) {
+                if(dependencies[j][node]) {
+                    nodeSuccessors[successorCount++] = position[j];
+                }
+                if(dependencies[node][j]) {
+                    predecessorCounts[i]++;
+                }
+            }
+            successors[i] = successorCount == 0 ? EMPTY_SUCCESSORS : Arrays.copyOf(nodeSuccessors, successorCount);
+        }
+        return new HandlerOrderGraph(sortedMethods, successors, predecessorCounts);
+    }
+
+    /**
+     * 获取事件方法声明的执行顺序.
+     * @param method 事件方法
+     * @return 返回事件方法或其所在类上的{@link HandlerOrder}, 方法上的注解优先, 如均未声明则返回null
+     */
+    static HandlerOrder getHandlerOrder(Method method) {
+        HandlerOrder order = method.getAnnotation(HandlerOrder.class);
+        return order != null ? order : method.getDeclaringClass().getAnnotation(HandlerOrder.class);
+    }
+
+    /**
+     * 获取按拓扑顺序排列的事件方法.
+     * @return 返回事件方法数组, 节点编号即为数组下标
+     */
+    HandlerMethod[] getSortedMethods() {
+        return sortedMethods;
+    }
+
+    int getNodeCount() {
+        return sortedMethods.length;
+    }
+
+    int[] getSuccessors(int node) {
+        return successors[node];
+    }
+
+    int getPredecessorCount(int node) {
+        return predecessorCounts[node];
+    }
+
+    int[] getRoots() {
+        return roots;
+    }
+
+}
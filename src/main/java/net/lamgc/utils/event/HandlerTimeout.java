@@ -0,0 +1,39 @@
+package net.lamgc.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 声明事件方法单次调用的超时时间.
+ * <p>事件方法调用超过超时时间仍未结束时, 执行器将以{@link java.util.concurrent.TimeoutException}为原因
+ * 调用{@link EventUncaughtExceptionHandler}, 该异常的堆栈为超时时事件方法所在线程的堆栈.
+ * 如{@link #interrupt()}为true, 还将中断执行事件方法的线程, 中断只会作用于该次调用, 不会影响线程之后执行的任务.</p>
+ * <p>超时报告在单独的看门狗线程中执行. 每次调用只会报告一次失败: 超时后事件方法抛出的异常(例如因中断而抛出的异常)
+ * 不会再交由异常处理对象处理, 也不会再写入死信或触发{@link Retry}重试.</p>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HandlerTimeout {
+
+    /**
+     * 超时时间.
+     * @return 返回超时时间
+     */
+    long value();
+
+    /**
+     * {@link #value()}的时间单位.
+     * @return 返回时间单位
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * 超时时是否中断执行事件方法的线程.
+     * @return 如需中断返回true
+     */
+    boolean interrupt() default true;
+
+}
@@ -0,0 +1,109 @@
+package net.lamgc.utils.event;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢调用看门狗.
+ * <p>记录正在执行的事件方法调用, 并定期检查执行时间超过阈值的调用, 采样其执行线程的堆栈后报告给监听器.
+ * 检查由时间轮定时触发, 在单线程的回调执行器中进行, 间隔为阈值的一半.</p>
+ */
+final class HandlerWatchdog {
+
+    private final Set<HandlerInvocation> runningInvocations = ConcurrentHashMap.newKeySet();
+
+    private final long thresholdNanos;
+
+    private final long intervalNanos;
+
+    private final SlowHandlerListener listener;
+
+    private final DelayedTaskScheduler scheduler;
+
+    private final Executor callbackExecutor;
+
+    private volatile boolean stopped;
+
+    /**
+     * 构造慢调用看门狗.
+     * @param thresholdNanos 慢调用阈值(纳秒)
+     * @param listener 慢调用监听器
+     * @param scheduler 用于定时触发检查的调度器
+     * @param callbackExecutor 执行检查及监听器的执行器, 必须只有一个线程
+     */
+    HandlerWatchdog(long thresholdNanos, SlowHandlerListener listener,
+                    DelayedTaskScheduler scheduler, Executor callbackExecutor) {
+        this.thresholdNanos = thresholdNanos;
+        this.intervalNanos = Math.max(thresholdNanos / 2, TimeUnit.MILLISECONDS.toNanos(1));
+        this.listener = listener;
+        this.scheduler = scheduler;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * 开始定期检查.
+     */
+    void start() {
+        scheduler.schedule(this::submitCheck, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 停止定期检查.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    void register(HandlerInvocation invocation) {
+        runningInvocations.add(invocation);
+    }
+
+    void unregister(HandlerInvocation invocation) {
+        runningInvocations.remove(invocation);
+    }
+
+    int getRunningCount() {
+        return runningInvocations.size();
+    }
+
+    /**
+     * 在时间轮线程中将检查提交到回调执行器.
+     */
+    private void submitCheck() {
+        if(!stopped) {
+            callbackExecutor.execute(this::check);
+        }
+    }
+
+    private void check() {
+        if(stopped) {
+            return;
+        }
+        try {
+            for (HandlerInvocation invocation : runningInvocations) {
+                long elapsed = invocation.getElapsedNanos();
+                if(elapsed < thresholdNanos || !invocation.markReported()) {
+                    continue;
+                }
+                StackTraceElement[] stackTrace = invocation.getThread().getStackTrace();
+                if(!runningInvocations.contains(invocation)) {
+                    // 采样期间调用已结束, 堆栈与该调用无关.
+                    continue;
+                }
+                listener.onSlowHandler(new SlowHandlerReport(invocation.getHandler(),
+                        invocation.getHandlerMethod().getMethod(), invocation.getEvent(),
+                        invocation.getThread(), elapsed, stackTrace));
+            }
+        } finally {
+            try {
+                scheduler.schedule(this::submitCheck, intervalNanos, TimeUnit.NANOSECONDS);
+            } catch (IllegalStateException e) {
+                // 时间轮已停止.
+                stopped = true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,386 @@
+package net.lamgc.utils.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮.
+ * <p>时间轮由固定数量的槽组成, 工作线程每经过一个刻度推进一个槽, 并执行槽内已到期的任务.
+ * 添加和取消任务的时间复杂度均为O(1), 适用于存在大量待执行延迟任务的场景.
+ * 任务的执行精度为一个刻度, 且在工作线程中执行, 因此任务应当只执行轻量的操作(例如向线程池提交任务).</p>
+ * <p>工作线程在首次添加任务时启动.</p>
+ */
+final class HashedTimingWheel implements DelayedTaskScheduler {
+
+    private final static int WORKER_INIT = 0;
+    private final static int WORKER_STARTED = 1;
+    private final static int WORKER_SHUTDOWN = 2;
+
+    /**
+     * 每个刻度最多从队列中转移到槽内的任务数量, 避免工作线程因大量新任务而延误刻度.
+     */
+    private final static int MAX_TRANSFER_PER_TICK = 100000;
+
+    private final long tickNanos;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final Thread workerThread;
+
+    private final AtomicInteger workerState = new AtomicInteger(WORKER_INIT);
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final List<Timeout> unprocessedTimeouts = new ArrayList<>();
+
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+
+    private volatile long startTime;
+
+    /**
+     * 工作线程当前的刻度, 仅由工作线程访问.
+     */
+    private long tick;
+
+    /**
+     * 构造哈希时间轮.
+     * @param tickDuration 刻度时长
+     * @param unit 刻度时长的时间单位
+     * @param wheelSize 槽的数量, 将向上取整为2的幂
+     * @param threadFactory 工作线程的线程工厂
+     */
+    HashedTimingWheel(long tickDuration, TimeUnit unit, int wheelSize, ThreadFactory threadFactory) {
+        if(tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0");
+        }
+        if(wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize must be in (0, 2^30]");
+        }
+        int normalizedSize = Integer.highestOneBit(wheelSize - 1) << 1;
+        normalizedSize = Math.max(1, normalizedSize);
+        this.wheel = new Bucket[normalizedSize];
+        for (int i = 0; i < normalizedSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = normalizedSize - 1;
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.workerThread = threadFactory.newThread(this::runWorker);
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        newTimeout(task, delay, unit);
+    }
+
+    /**
+     * 添加延迟任务.
+     * @param task 任务
+     * @param delay 延迟
+     * @param unit 延迟的时间单位
+     * @return 返回可用于取消任务的Timeout
+     * @throws IllegalStateException 当时间轮已停止时抛出
+     */
+    Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0)) - startTime;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void start() {
+        switch (workerState.get()) {
+            case WORKER_INIT:
+                if(workerState.compareAndSet(WORKER_INIT, WORKER_STARTED)) {
+                    workerThread.start();
+                } else if(workerState.get() == WORKER_SHUTDOWN) {
+                    throw new IllegalStateException("Timing wheel has been stopped");
+                }
+                break;
+            case WORKER_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("Timing wheel has been stopped");
+        }
+        boolean interrupted = false;
+        while(startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 停止时间轮.
+     * @return 返回尚未执行且未取消的任务
+     */
+    List<Runnable> stop() {
+        if(Thread.currentThread() == workerThread) {
+            throw new IllegalStateException("Timing wheel cannot be stopped from its worker thread");
+        }
+        if(workerState.getAndSet(WORKER_SHUTDOWN) != WORKER_STARTED) {
+            return new ArrayList<>();
+        }
+        boolean interrupted = false;
+        while(workerThread.isAlive()) {
+            workerThread.interrupt();
+            try {
+                workerThread.join(100);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> tasks = new ArrayList<>(unprocessedTimeouts.size());
+        for (Timeout timeout : unprocessedTimeouts) {
+            tasks.add(timeout.task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 获取尚未执行的任务数量(包括尚未转移到槽内的任务).
+     * @return 返回任务数量的近似值
+     */
+    int getPendingCount() {
+        int count = pendingTimeouts.size();
+        for (Bucket bucket : wheel) {
+            count += bucket.size;
+        }
+        return count;
+    }
+
+    private void runWorker() {
+        long now = System.nanoTime();
+        // 0 被用于表示尚未初始化.
+        startTime = now == 0 ? 1 : now;
+        startTimeInitialized.countDown();
+        do {
+            long deadline = waitForNextTick();
+            if(deadline > 0) {
+                processCancelledTimeouts();
+                transferTimeoutsToBuckets();
+                wheel[(int) (tick & mask)].expireTimeouts(deadline);
+                tick++;
+            }
+        } while(workerState.get() == WORKER_STARTED);
+
+        for (Bucket bucket : wheel) {
+            bucket.clearTimeouts(unprocessedTimeouts);
+        }
+        Timeout timeout;
+        while((timeout = pendingTimeouts.poll()) != null) {
+            if(!timeout.isCancelled()) {
+                unprocessedTimeouts.add(timeout);
+            }
+        }
+        processCancelledTimeouts();
+    }
+
+    /**
+     * 等待下一个刻度.
+     * @return 返回当前刻度的截止时间(相对于启动时间), 如时间轮已停止则返回-1
+     */
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        for (;;) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - currentTime + 999999) / 1000000;
+            if(sleepMillis <= 0) {
+                return Math.max(currentTime, 1);
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if(workerState.get() == WORKER_SHUTDOWN) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferTimeoutsToBuckets() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if(timeout == null) {
+                break;
+            }
+            if(timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].addTimeout(timeout);
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        Timeout timeout;
+        while((timeout = cancelledTimeouts.poll()) != null) {
+            Bucket bucket = timeout.bucket;
+            if(bucket != null) {
+                bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * 延迟任务.
+     */
+    static final class Timeout {
+
+        private final static int STATE_INIT = 0;
+        private final static int STATE_CANCELLED = 1;
+        private final static int STATE_EXPIRED = 2;
+
+        private final HashedTimingWheel timingWheel;
+
+        private final Runnable task;
+
+        /**
+         * 任务的截止时间(相对于时间轮启动时间).
+         */
+        private final long deadline;
+
+        private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+        /**
+         * 以下字段仅由工作线程访问.
+         */
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+        private Bucket bucket;
+
+        private Timeout(HashedTimingWheel timingWheel, Runnable task, long deadline) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消任务.
+         * @return 如任务尚未执行且取消成功返回true
+         */
+        boolean cancel() {
+            if(!state.compareAndSet(STATE_INIT, STATE_CANCELLED)) {
+                return false;
+            }
+            timingWheel.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+
+        boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        private void expire() {
+            if(!state.compareAndSet(STATE_INIT, STATE_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+
+    }
+
+    /**
+     * 时间轮的槽, 以双向链表保存任务, 仅由工作线程访问.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+        private int size;
+
+        void addTimeout(Timeout timeout) {
+            timeout.bucket = this;
+            if(head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+            size++;
+        }
+
+        void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while(timeout != null) {
+                Timeout next = timeout.next;
+                if(timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if(timeout.deadline <= deadline) {
+                        timeout.expire();
+                    }
+                } else if(timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if(timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if(timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if(next != null) {
+                next.prev = timeout.prev;
+            }
+            if(timeout == head) {
+                head = next;
+            }
+            if(timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+            size--;
+        }
+
+        void clearTimeouts(List<Timeout> unprocessed) {
+            Timeout timeout;
+            while((timeout = head) != null) {
+                remove(timeout);
+                if(!timeout.isExpired() && !timeout.isCancelled()) {
+                    unprocessed.add(timeout);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package net.lamgc.utils.event;
+
+/**
+ * 事件接收策略.
+ * <p>决定某一事件类型未完成的事件数量达到上限时, {@link EventExecutor}如何处理新投递的事件.</p>
+ * @see EventExecutor#setIntakeLimit(Class, int, IntakePolicy)
+ */
+public enum IntakePolicy {
+
+    /**
+     * 阻塞投递线程, 直到有未完成的事件执行完成.
+     */
+    BLOCK,
+
+    /**
+     * 丢弃新投递的事件.
+     */
+    DROP_NEWEST,
+
+    /**
+     * 丢弃最早的尚未开始执行的事件, 并接收新投递的事件.
+     * <p>如所有未完成的事件都已开始执行, 则丢弃新投递的事件.</p>
+     */
+    DROP_OLDEST,
+
+    /**
+     * 在投递线程中直接执行新投递的事件, 以降低投递速度.
+     */
+    CALLER_RUNS,
+
+    /**
+     * 以新投递的事件替换最近接收的尚未开始执行的事件, 即只保留最新的事件.
+     * <p>如所有未完成的事件都已开始执行, 则丢弃新投递的事件.</p>
+     */
+    COALESCE
+
+}
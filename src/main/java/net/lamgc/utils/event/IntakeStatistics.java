@@ -0,0 +1,115 @@
+package net.lamgc.utils.event;
+
+/**
+ * 事件接收统计信息.
+ * <p>某一事件类型在获取统计信息时的接收计数快照.</p>
+ * @see EventExecutor#getIntakeStatistics(Class)
+ */
+public final class IntakeStatistics {
+
+    private final int capacity;
+
+    private final IntakePolicy policy;
+
+    private final int pending;
+
+    private final long accepted;
+
+    private final long dropped;
+
+    private final long blocked;
+
+    private final long callerRuns;
+
+    private final long coalesced;
+
+    IntakeStatistics(int capacity, IntakePolicy policy, int pending,
+                     long accepted, long dropped, long blocked, long callerRuns, long coalesced) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.pending = pending;
+        this.accepted = accepted;
+        this.dropped = dropped;
+        this.blocked = blocked;
+        this.callerRuns = callerRuns;
+        this.coalesced = coalesced;
+    }
+
+    /**
+     * 获取未完成事件数量上限.
+     * @return 返回上限
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 获取事件接收策略.
+     * @return 返回接收策略
+     */
+    public IntakePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 获取未完成的事件数量.
+     * @return 返回已接收但尚未执行完成的事件数量
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * 获取已接收的事件数量.
+     * @return 返回已接收的事件数量, 不包括在投递线程中执行的事件
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * 获取已丢弃的事件数量.
+     * @return 返回已丢弃的事件数量
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * 获取因达到上限而阻塞投递线程的次数.
+     * @return 返回阻塞次数
+     */
+    public long getBlocked() {
+        return blocked;
+    }
+
+    /**
+     * 获取在投递线程中执行的事件数量.
+     * @return 返回在投递线程中执行的事件数量
+     */
+    public long getCallerRuns() {
+        return callerRuns;
+    }
+
+    /**
+     * 获取被替换的事件数量.
+     * @return 返回被新事件替换的事件数量
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    @Override
+    public String toString() {
+        return "IntakeStatistics{" +
+                "capacity=" + capacity +
+                ", policy=" + policy +
+                ", pending=" + pending +
+                ", accepted=" + accepted +
+                ", dropped=" + dropped +
+                ", blocked=" + blocked +
+                ", callerRuns=" + callerRuns +
+                ", coalesced=" + coalesced +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package net.lamgc.utils.event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * 使用Java序列化的死信事件对象序列化器.
+ */
+final class JavaDeadLetterSerializer implements DeadLetterSerializer {
+
+    final static JavaDeadLetterSerializer INSTANCE = new JavaDeadLetterSerializer();
+
+    private JavaDeadLetterSerializer() {}
+
+    @Override
+    public byte[] serialize(EventObject eventObject) throws IOException {
+        if(!(eventObject instanceof Serializable)) {
+            throw new NotSerializableException(eventObject.getClass().getName());
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+            objectOutput.writeObject(eventObject);
+        }
+        return output.toByteArray();
+    }
+
+    @Override
+    public EventObject deserialize(byte[] data) throws IOException {
+        try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (EventObject) objectInput.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Cannot deserialize event object", e);
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package net.lamgc.utils.event;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于{@link LambdaMetafactory}的事件方法调用器工厂.
+ * <p>为每个事件方法生成一个调用器类, 调用器直接以字节码调用事件方法, 与手写的调用代码一样可被JIT内联优化,
+ * 而保存在实例字段中的MethodHandle不会被JIT视为常量, 调用时无法内联.</p>
+ * <p>如事件方法或其参数类型无法从本类所在的类加载器直接访问, 将退回到{@link MethodHandleEventMethodInvoker}.</p>
+ */
+final class LambdaEventMethodInvoker {
+
+    private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private LambdaEventMethodInvoker() {
+    }
+
+    /**
+     * 为事件方法创建调用器.
+     * @param method 事件方法
+     * @return 返回事件方法调用器
+     */
+    static EventMethodInvoker create(Method method) {
+        if(!isDirectlyAccessible(method)) {
+            return MethodHandleEventMethodInvoker.create(method);
+        }
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        boolean isVoid = method.getReturnType() == void.class;
+        Class<?> invokerType;
+        String invokerName;
+        MethodType samType;
+        if(isStatic) {
+            invokerType = isVoid ? StaticVoidInvoker.class : StaticInvoker.class;
+            invokerName = isVoid ? "invokeStaticVoid" : "invokeStatic";
+            samType = MethodType.methodType(isVoid ? void.class : Object.class, Object.class);
+        } else {
+            invokerType = isVoid ? VoidInvoker.class : EventMethodInvoker.class;
+            invokerName = isVoid ? "invokeVoid" : "invoke";
+            samType = MethodType.methodType(isVoid ? void.class : Object.class, EventHandler.class, Object.class);
+        }
+        MethodType instantiatedType = isStatic ?
+                MethodType.methodType(isVoid ? void.class : Object.class, method.getParameterTypes()[0]) :
+                MethodType.methodType(isVoid ? void.class : Object.class,
+                        method.getDeclaringClass(), method.getParameterTypes()[0]);
+        try {
+            MethodHandle implMethod = LOOKUP.unreflect(method);
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, invokerName,
+                    MethodType.methodType(invokerType), samType, implMethod, instantiatedType);
+            return (EventMethodInvoker) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            return MethodHandleEventMethodInvoker.create(method);
+        }
+    }
+
+    /**
+     * 检查生成的调用器类能否直接访问事件方法.
+     * <p>调用器类由本类所在的类加载器解析, 因此事件方法所在的类及其参数类型必须是公开的, 且对该类加载器可见.</p>
+     * @param method 事件方法
+     * @return 如可直接访问返回true
+     */
+    private static boolean isDirectlyAccessible(Method method) {
+        if(!Modifier.isPublic(method.getModifiers()) || method.getParameterCount() != 1) {
+            return false;
+        }
+        return isVisible(method.getDeclaringClass()) && isVisible(method.getParameterTypes()[0]);
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        if(!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, LambdaEventMethodInvoker.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 返回类型为void的实例事件方法的调用器.
+     */
+    @FunctionalInterface
+    interface VoidInvoker extends EventMethodInvoker {
+
+        void invokeVoid(EventHandler handler, Object argument) throws Throwable;
+
+        @Override
+        default Object invoke(EventHandler handler, Object argument) throws Throwable {
+            invokeVoid(handler, argument);
+            return null;
+        }
+    }
+
+    /**
+     * 静态事件方法的调用器.
+     */
+    @FunctionalInterface
+    interface StaticInvoker extends EventMethodInvoker {
+
+        Object invokeStatic(Object argument) throws Throwable;
+
+        @Override
+        default Object invoke(EventHandler handler, Object argument) throws Throwable {
+            return invokeStatic(argument);
+        }
+    }
+
+    /**
+     * 返回类型为void的静态事件方法的调用器.
+     */
+    @FunctionalInterface
+    interface StaticVoidInvoker extends EventMethodInvoker {
+
+        void invokeStaticVoid(Object argument) throws Throwable;
+
+        @Override
+        default Object invoke(EventHandler handler, Object argument) throws Throwable {
+            invokeStaticVoid(argument);
+            return null;
+        }
+    }
+
+}
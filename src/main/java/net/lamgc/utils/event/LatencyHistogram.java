@@ -0,0 +1,98 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图.
+ * <p>以2的幂划分区间, 每个区间再等分为{@value #SUB_BUCKET_COUNT}个子区间, 相对误差不超过12.5%.
+ * 记录操作只有一次原子自增和一次累加, 不会阻塞.</p>
+ */
+final class LatencyHistogram {
+
+    private final static int SUB_BUCKET_BITS = 3;
+
+    private final static int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    final static int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值.
+     * @param value 值, 负数将按0记录
+     */
+    void record(long value) {
+        if(value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(value));
+        sum.add(value);
+        long currentMax;
+        while(value > (currentMax = max.get())) {
+            if(max.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 获取所有记录值的总和.
+     * @return 返回总和
+     */
+    long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * 获取直方图快照.
+     * @return 返回快照
+     */
+    LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new LatencySnapshot(counts, sum.sum(), max.get());
+    }
+
+    /**
+     * 清空直方图.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if(value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * 获取区间的上界.
+     * @param index 区间索引
+     * @return 返回区间内的最大值
+     */
+    static long bucketUpperBound(int index) {
+        if(index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+}
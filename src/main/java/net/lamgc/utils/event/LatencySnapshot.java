@@ -0,0 +1,119 @@
+package net.lamgc.utils.event;
+
+/**
+ * 延迟分布快照.
+ * <p>所有时间均以纳秒为单位, 百分位数为所在区间的上界, 相对误差不超过12.5%.</p>
+ * @see HandlerMetrics
+ */
+public final class LatencySnapshot {
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long sum;
+
+    private final long max;
+
+    LatencySnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        this.count = total;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * 获取记录数量.
+     * @return 返回记录数量
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 获取平均值.
+     * @return 返回平均值, 如没有记录则返回0
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * 获取最大值.
+     * @return 返回最大值
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * 获取50百分位数.
+     * @return 返回百分位数
+     */
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    /**
+     * 获取90百分位数.
+     * @return 返回百分位数
+     */
+    public long getP90() {
+        return getPercentile(90);
+    }
+
+    /**
+     * 获取99百分位数.
+     * @return 返回百分位数
+     */
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * 获取99.9百分位数.
+     * @return 返回百分位数
+     */
+    public long getP999() {
+        return getPercentile(99.9);
+    }
+
+    /**
+     * 获取百分位数.
+     * @param percentile 百分位, 取值范围为[0, 100]
+     * @return 返回百分位数, 如没有记录则返回0
+     */
+    public long getPercentile(double percentile) {
+        if(percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]");
+        }
+        if(count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{" +
+                "count=" + count +
+                ", mean=" + getMean() +
+                ", p50=" + getP50() +
+                ", p99=" + getP99() +
+                ", max=" + max +
+                '}';
+    }
+
+}
@@ -0,0 +1,48 @@
+package net.lamgc.utils.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于{@link MethodHandle}的事件方法调用器.
+ * <p>在创建时将事件方法转换为类型固定的MethodHandle, 调用时无需创建参数数组及包装异常.
+ * 由于MethodHandle保存在实例字段中, JIT无法将其视为常量而内联, 因此仅作为{@link LambdaEventMethodInvoker}的后备方案.</p>
+ */
+final class MethodHandleEventMethodInvoker implements EventMethodInvoker {
+
+    private final static MethodType INVOKER_TYPE = MethodType.methodType(Object.class, EventHandler.class, Object.class);
+
+    private final MethodHandle methodHandle;
+
+    private MethodHandleEventMethodInvoker(MethodHandle methodHandle) {
+        this.methodHandle = methodHandle;
+    }
+
+    @Override
+    public Object invoke(EventHandler handler, Object argument) throws Throwable {
+        return (Object) methodHandle.invokeExact(handler, argument);
+    }
+
+    /**
+     * 为事件方法创建调用器.
+     * <p>如无法访问该方法而不能转换为MethodHandle, 将返回基于反射的调用器.</p>
+     * @param method 事件方法
+     * @return 返回事件方法调用器
+     */
+    static EventMethodInvoker create(Method method) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            return new ReflectEventMethodInvoker(method);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, EventHandler.class);
+        }
+        return new MethodHandleEventMethodInvoker(handle.asType(INVOKER_TYPE));
+    }
+
+}
@@ -0,0 +1,76 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件方法对某一事件类型的运行指标.
+ * <p>所有记录操作均为无锁操作.</p>
+ */
+final class MethodMetrics {
+
+    private final HandlerMethod handlerMethod;
+
+    private final Class<?> eventType;
+
+    private final LongAdder invocations = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder inFlight = new LongAdder();
+
+    private final LatencyHistogram queueWaitTime = new LatencyHistogram();
+
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+
+    MethodMetrics(HandlerMethod handlerMethod, Class<?> eventType) {
+        this.handlerMethod = handlerMethod;
+        this.eventType = eventType;
+    }
+
+    /**
+     * 记录调用开始.
+     * @param queueWaitNanos 投递任务的排队时间(纳秒), 如未知则为负数
+     */
+    void onStart(long queueWaitNanos) {
+        inFlight.increment();
+        if(queueWaitNanos >= 0) {
+            queueWaitTime.record(queueWaitNanos);
+        }
+    }
+
+    /**
+     * 记录调用结束.
+     * @param executionNanos 执行时间(纳秒)
+     * @param failed 调用是否抛出了异常
+     */
+    void onFinish(long executionNanos, boolean failed) {
+        inFlight.decrement();
+        invocations.increment();
+        if(failed) {
+            failures.increment();
+        }
+        executionTime.record(executionNanos);
+    }
+
+    long getInvocations() {
+        return invocations.sum();
+    }
+
+    long getExecutionTimeSum() {
+        return executionTime.getSum();
+    }
+
+    HandlerMetrics snapshot() {
+        return new HandlerMetrics(handlerMethod.getMethod(), eventType,
+                invocations.sum(), failures.sum(), inFlight.sum(),
+                queueWaitTime.snapshot(), executionTime.snapshot());
+    }
+
+    void reset() {
+        invocations.reset();
+        failures.reset();
+        queueWaitTime.reset();
+        executionTime.reset();
+    }
+
+}
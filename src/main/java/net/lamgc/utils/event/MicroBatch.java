@@ -0,0 +1,44 @@
+package net.lamgc.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标注批量事件方法.
+ * <p>标注了该注解, 且形参为{@code List<SomeEvent>}(SomeEvent为{@link EventObject}的实现类)的事件方法,
+ * 将接收由{@link EventExecutor}累积的事件批次, 而不是每个事件调用一次.</p>
+ * <p>事件批次在累积达到{@link #maxSize()}个事件, 或第一个事件等待超过{@link #maxLinger()}时投递,
+ * 同一EventHandler对象的批次将按顺序依次投递.</p>
+ * <p>注意:</p>
+ * <ol>
+ *     <li>同步投递事件时, 事件加入批次后即视为投递完成;</li>
+ *     <li>批量事件方法不支持事件重投;</li>
+ *     <li>批量事件方法抛出异常时, {@link EventUncaughtExceptionHandler}收到的事件对象为该批次的第一个事件.</li>
+ * </ol>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MicroBatch {
+
+    /**
+     * 单个批次的最大事件数量.
+     * @return 返回最大事件数量
+     */
+    int maxSize() default 100;
+
+    /**
+     * 批次中第一个事件的最长等待时间.
+     * @return 返回最长等待时间
+     */
+    long maxLinger() default 100;
+
+    /**
+     * {@link #maxLinger()}的时间单位.
+     * @return 返回时间单位
+     */
+    TimeUnit lingerUnit() default TimeUnit.MILLISECONDS;
+
+}
@@ -0,0 +1,110 @@
+package net.lamgc.utils.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 事件批次累积器.
+ * <p>为某一批量事件方法的某一EventHandler对象累积事件.
+ * 添加事件的操作是无锁的, 批次将在线程池中投递, 且同一时间只有一个批次在投递, 以保证事件顺序.</p>
+ */
+final class MicroBatchAccumulator {
+
+    private final ConcurrentLinkedQueue<EventObject> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final int maxSize;
+    private final long lingerNanos;
+    private final Executor executor;
+    private final DelayedTaskScheduler scheduler;
+    private final Consumer<List<EventObject>> batchConsumer;
+
+    /**
+     * 构造事件批次累积器.
+     * @param microBatch 批量事件方法的配置
+     * @param executor 用于投递批次的线程池
+     * @param scheduler 用于等待批次超时的调度器
+     * @param batchConsumer 批次处理对象, 将在线程池中调用
+     */
+    MicroBatchAccumulator(MicroBatch microBatch,
+                          Executor executor,
+                          DelayedTaskScheduler scheduler,
+                          Consumer<List<EventObject>> batchConsumer) {
+        this.maxSize = Math.max(1, microBatch.maxSize());
+        this.lingerNanos = Math.max(0, microBatch.lingerUnit().toNanos(microBatch.maxLinger()));
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.batchConsumer = batchConsumer;
+    }
+
+    /**
+     * 添加事件.
+     * @param event 事件对象
+     */
+    void add(EventObject event) {
+        queue.offer(event);
+        int currentSize = size.incrementAndGet();
+        if(currentSize >= maxSize) {
+            requestDrain(false);
+        } else if(currentSize == 1) {
+            scheduleLinger();
+        }
+    }
+
+    /**
+     * 立即投递所有已累积的事件.
+     */
+    void flush() {
+        requestDrain(true);
+    }
+
+    private void scheduleLinger() {
+        scheduler.schedule(() -> requestDrain(true), lingerNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void requestDrain(boolean force) {
+        if(draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(force));
+        }
+    }
+
+    /**
+     * 投递批次.
+     * @param force 如为true, 则投递所有已累积的事件, 否则只投递已满的批次.
+     */
+    private void drain(boolean force) {
+        try {
+            while (force || size.get() >= maxSize) {
+                List<EventObject> batch = new ArrayList<>(Math.min(maxSize, Math.max(1, size.get())));
+                EventObject event;
+                while (batch.size() < maxSize && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+                if(batch.isEmpty()) {
+                    break;
+                }
+                size.addAndGet(-batch.size());
+                batchConsumer.accept(batch);
+                if(batch.size() < maxSize) {
+                    break;
+                }
+            }
+        } finally {
+            draining.set(false);
+            int remaining = size.get();
+            if(remaining >= maxSize) {
+                requestDrain(false);
+            } else if(remaining > 0) {
+                scheduleLinger();
+            }
+        }
+    }
+
+}
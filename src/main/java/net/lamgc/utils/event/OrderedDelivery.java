@@ -0,0 +1,97 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 按依赖图执行的一次事件投递.
+ * <p>每个节点在其所有前驱节点完成后启动, 节点的所有投递完成后释放其后继节点, 全部节点完成后执行完成回调.
+ * 状态通过原子计数器维护, 不会有线程阻塞等待前驱节点.</p>
+ */
+final class OrderedDelivery {
+
+    /**
+     * 节点启动器.
+     */
+    @FunctionalInterface
+    interface NodeLauncher {
+
+        /**
+         * 启动节点.
+         * <p>启动器需先调用{@link #beginNode(int, int)}设置节点的投递数量, 每个投递完成后调用{@link #finishDelivery(int)},
+         * 并在提交完所有投递后再调用一次{@link #finishDelivery(int)}.</p>
+         * @param delivery 投递对象
+         * @param node 节点编号
+         */
+        void launch(OrderedDelivery delivery, int node);
+
+    }
+
+    private final HandlerOrderGraph graph;
+
+    private final NodeLauncher launcher;
+
+    private final Runnable completion;
+
+    private final AtomicIntegerArray waitingPredecessors;
+
+    private final AtomicIntegerArray pendingDeliveries;
+
+    private final AtomicInteger remainingNodes;
+
+    /**
+     * 创建按依赖图执行的投递.
+     * @param graph 事件方法依赖图
+     * @param launcher 节点启动器
+     * @param completion 全部节点完成后执行的回调, 可为null
+     */
+    OrderedDelivery(HandlerOrderGraph graph, NodeLauncher launcher, Runnable completion) {
+        this.graph = graph;
+        this.launcher = launcher;
+        this.completion = completion;
+        int nodeCount = graph.getNodeCount();
+        this.waitingPredecessors = new AtomicIntegerArray(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            waitingPredecessors.set(i, graph.getPredecessorCount(i));
+        }
+        this.pendingDeliveries = new AtomicIntegerArray(nodeCount);
+        this.remainingNodes = new AtomicInteger(nodeCount);
+    }
+
+    /**
+     * 启动所有没有前驱的节点.
+     */
+    void start() {
+        for (int root : graph.getRoots()) {
+            launcher.launch(this, root);
+        }
+    }
+
+    /**
+     * 设置节点的投递数量.
+     * @param node 节点编号
+     * @param deliveryCount 节点的投递数量
+     */
+    void beginNode(int node, int deliveryCount) {
+        pendingDeliveries.set(node, deliveryCount + 1);
+    }
+
+    /**
+     * 标记节点的一个投递已完成.
+     * @param node 节点编号
+     */
+    void finishDelivery(int node) {
+        if(pendingDeliveries.decrementAndGet(node) != 0) {
+            return;
+        }
+        for (int successor : graph.getSuccessors(node)) {
+            if(waitingPredecessors.decrementAndGet(successor) == 0) {
+                launcher.launch(this, successor);
+            }
+        }
+        if(remainingNodes.decrementAndGet() == 0 && completion != null) {
+            completion.run();
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package net.lamgc.utils.event;
+
+/**
+ * 分区事件对象.
+ * <p>实现了该接口的事件对象, 将按分区键的哈希值分配到{@link EventExecutor}的一个分区通道中投递,
+ * 每个分区通道同一时刻只执行一个事件, 因此分区键相同的事件将按投递顺序依次执行,
+ * 分区键不同的事件可在不同的分区通道中并行执行. 分区通道数量可通过{@link EventExecutor#setPartitionLaneCount(int)}设置.</p>
+ * <p>注意:</p>
+ * <ol>
+ *     <li>同一事件对所有EventHandler的投递将在分区通道中按投递计划的顺序依次执行;</li>
+ *     <li>为保证顺序, 分区事件的同步投递总是提交到分区通道执行, 不会在调用线程执行;</li>
+ *     <li>修改分区通道数量时, 已提交到原分区通道的事件与之后投递的事件之间不保证顺序.</li>
+ * </ol>
+ */
+public interface PartitionedEventObject extends EventObject {
+
+    /**
+     * 获取事件的分区键.
+     * @return 返回分区键, 如为null则分配到固定的分区通道
+     */
+    Object getPartitionKey();
+
+}
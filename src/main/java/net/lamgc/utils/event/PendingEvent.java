@@ -0,0 +1,29 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+
+/**
+ * 尚未完成投递的事件.
+ * <p>由投递任务和延迟任务实现, 使执行器关闭时能够识别被丢弃的任务所携带的事件, 并写入死信存储.</p>
+ */
+interface PendingEvent {
+
+    /**
+     * 获取待投递的事件对象.
+     * @return 返回事件对象
+     */
+    EventObject getEventObject();
+
+    /**
+     * 获取事件将投递到的EventHandler对象.
+     * @return 返回EventHandler对象, 如事件将投递到所有EventHandler则返回null
+     */
+    EventHandler getHandler();
+
+    /**
+     * 获取事件将投递到的事件方法.
+     * @return 返回事件方法, 如事件将投递到所有事件方法则返回null
+     */
+    Method getHandlerMethod();
+
+}
@@ -0,0 +1,28 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * 基于反射的事件方法调用器.
+ * <p>通过{@link Method#invoke(Object, Object...)}调用事件方法, 用于无法编译调用器时的后备方案.</p>
+ */
+final class ReflectEventMethodInvoker implements EventMethodInvoker {
+
+    private final Method method;
+
+    ReflectEventMethodInvoker(Method method) {
+        this.method = Objects.requireNonNull(method);
+    }
+
+    @Override
+    public Object invoke(EventHandler handler, Object argument) throws Throwable {
+        try {
+            return method.invoke(handler, argument);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+}
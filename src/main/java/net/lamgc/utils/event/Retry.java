@@ -0,0 +1,71 @@
+package net.lamgc.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标注事件方法失败时自动重试.
+ * <p>事件方法抛出{@link #retryOn()}中的异常时, 将在退避时间后重新调用该事件方法(仅投递到同一EventHandler对象),
+ * 第n次重试的退避时间为{@code delay * multiplier^(n-1)}, 不超过{@link #maxDelay()},
+ * 并在此基础上随机浮动{@link #jitter()}比例以避免重试风暴.
+ * 等待重试期间不占用执行器线程.</p>
+ * <p>只有在最后一次调用仍失败, 或异常不可重试时, 异常才会交由{@link EventUncaughtExceptionHandler}处理.</p>
+ * <p>注意:</p>
+ * <ol>
+ *     <li>同步投递事件时, 只等待首次调用完成, 重试将在之后进行;</li>
+ *     <li>{@link EventExecutor#executorAsync(EventObject)}和{@link EventExecutor#query(EventObject, Class)}
+ *     的投递结果即为首次调用的结果, 不会重试;</li>
+ *     <li>批量事件方法不支持重试.</li>
+ * </ol>
+ * @see EventExecutor#getRetryStatistics(java.lang.reflect.Method)
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Retry {
+
+    /**
+     * 最大调用次数(包括首次调用).
+     * @return 返回最大调用次数
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * 首次重试前的退避时间.
+     * @return 返回退避时间
+     */
+    long delay() default 100;
+
+    /**
+     * 退避时间的上限.
+     * @return 返回退避时间上限
+     */
+    long maxDelay() default 30000;
+
+    /**
+     * 每次重试后退避时间的倍数.
+     * @return 返回退避倍数
+     */
+    double multiplier() default 2.0;
+
+    /**
+     * 退避时间的随机浮动比例, 取值范围为[0, 1].
+     * @return 返回随机浮动比例
+     */
+    double jitter() default 0.2;
+
+    /**
+     * {@link #delay()}和{@link #maxDelay()}的时间单位.
+     * @return 返回时间单位
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * 可重试的异常类型, 事件方法抛出的异常为其中任一类型(或子类)时才会重试.
+     * @return 返回可重试的异常类型
+     */
+    Class<? extends Throwable>[] retryOn() default {Exception.class};
+
+}
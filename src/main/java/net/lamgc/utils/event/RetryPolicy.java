@@ -0,0 +1,114 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件方法的重试策略.
+ * <p>由事件方法的{@link Retry}注解创建, 计算退避时间并记录重试计数.</p>
+ */
+final class RetryPolicy {
+
+    private final int maxAttempts;
+
+    private final long delayNanos;
+
+    private final long maxDelayNanos;
+
+    private final double multiplier;
+
+    private final double jitter;
+
+    private final Class<? extends Throwable>[] retryOn;
+
+    private final LongAdder retries = new LongAdder();
+
+    private final LongAdder recovered = new LongAdder();
+
+    private final LongAdder exhausted = new LongAdder();
+
+    private RetryPolicy(Retry retry) {
+        if(retry.maxAttempts() < 1) {
+            throw new IllegalArgumentException("maxAttempts must be greater than 0");
+        }
+        if(retry.delay() < 0 || retry.maxDelay() < 0) {
+            throw new IllegalArgumentException("delay and maxDelay cannot be negative");
+        }
+        if(retry.multiplier() < 1) {
+            throw new IllegalArgumentException("multiplier cannot be less than 1");
+        }
+        if(retry.jitter() < 0 || retry.jitter() > 1) {
+            throw new IllegalArgumentException("jitter must be in [0, 1]");
+        }
+        this.maxAttempts = retry.maxAttempts();
+        this.delayNanos = retry.unit().toNanos(retry.delay());
+        this.maxDelayNanos = retry.unit().toNanos(retry.maxDelay());
+        this.multiplier = retry.multiplier();
+        this.jitter = retry.jitter();
+        this.retryOn = retry.retryOn();
+    }
+
+    /**
+     * 根据事件方法的{@link Retry}注解创建重试策略.
+     * @param method 事件方法
+     * @return 返回重试策略, 如事件方法未标注{@link Retry}则返回null
+     * @throws IllegalArgumentException 当注解参数不合法时抛出
+     */
+    static RetryPolicy of(Method method) {
+        Retry retry = method.getAnnotation(Retry.class);
+        return retry != null ? new RetryPolicy(retry) : null;
+    }
+
+    /**
+     * 检查调用失败后是否应当重试.
+     * @param attempt 已进行的调用次数
+     * @param cause 事件方法抛出的异常
+     * @return 如应当重试返回true
+     */
+    boolean shouldRetry(int attempt, Throwable cause) {
+        if(attempt >= maxAttempts) {
+            return false;
+        }
+        for (Class<? extends Throwable> type : retryOn) {
+            if(type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 计算下一次重试前的退避时间.
+     * @param attempt 已进行的调用次数
+     * @return 返回退避时间(纳秒)
+     */
+    long nextDelayNanos(int attempt) {
+        double delay = Math.min(delayNanos * Math.pow(multiplier, attempt - 1), maxDelayNanos);
+        if(jitter > 0) {
+            delay *= 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        }
+        return (long) Math.max(delay, 0);
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordRecovered() {
+        recovered.increment();
+    }
+
+    void recordExhausted() {
+        exhausted.increment();
+    }
+
+    /**
+     * 获取重试计数快照.
+     * @return 返回重试统计信息
+     */
+    RetryStatistics getStatistics() {
+        return new RetryStatistics(maxAttempts, retries.sum(), recovered.sum(), exhausted.sum());
+    }
+
+}
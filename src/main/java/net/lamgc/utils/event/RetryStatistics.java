@@ -0,0 +1,67 @@
+package net.lamgc.utils.event;
+
+/**
+ * 事件方法重试统计信息.
+ * <p>某一事件方法在获取统计信息时的重试计数快照.</p>
+ * @see EventExecutor#getRetryStatistics(java.lang.reflect.Method)
+ */
+public final class RetryStatistics {
+
+    private final int maxAttempts;
+
+    private final long retries;
+
+    private final long recovered;
+
+    private final long exhausted;
+
+    RetryStatistics(int maxAttempts, long retries, long recovered, long exhausted) {
+        this.maxAttempts = maxAttempts;
+        this.retries = retries;
+        this.recovered = recovered;
+        this.exhausted = exhausted;
+    }
+
+    /**
+     * 获取最大调用次数.
+     * @return 返回最大调用次数(包括首次调用)
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 获取已进行的重试次数.
+     * @return 返回重试次数
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * 获取经重试后调用成功的投递数量.
+     * @return 返回重试成功的投递数量
+     */
+    public long getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * 获取重试次数用尽或异常不可重试而最终失败的投递数量.
+     * @return 返回最终失败的投递数量
+     */
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryStatistics{" +
+                "maxAttempts=" + maxAttempts +
+                ", retries=" + retries +
+                ", recovered=" + recovered +
+                ", exhausted=" + exhausted +
+                '}';
+    }
+
+}
@@ -0,0 +1,320 @@
+package net.lamgc.utils.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于环形缓冲区的任务执行器.
+ * <p>环形缓冲区在构造时预先分配, 提交任务的线程通过CAS申请序号并写入对应槽位, 消费线程按序号批量领取任务执行,
+ * 整个过程无需加锁, 适用于对延迟敏感的事件流. 可作为{@link EventExecutor}的执行器使用.</p>
+ * <p>当缓冲区已满时, 提交任务的线程将短暂休眠并重试, 直到有空闲槽位.</p>
+ */
+public class RingBufferExecutor extends AbstractExecutorService {
+
+    /**
+     * 消费线程在没有可执行任务时的等待策略.
+     */
+    public enum WaitStrategy {
+        /**
+         * 持续自旋等待, 延迟最低, 但会占满CPU核心.
+         */
+        BUSY_SPIN,
+        /**
+         * 自旋一定次数后让出CPU.
+         */
+        YIELDING,
+        /**
+         * 自旋及让出CPU后每次休眠{@link #PARK_NANOS}纳秒(50微秒), CPU占用最低, 但空闲后的首个任务延迟最高.
+         */
+        PARKING
+    }
+
+    private final static int SPIN_TRIES = 100;
+    private final static int YIELD_TRIES = 100;
+    /**
+     * {@link WaitStrategy#PARKING}策略每次休眠的时长(纳秒).
+     */
+    public final static long PARK_NANOS = 50_000L;
+
+    private final Runnable[] entries;
+    private final AtomicIntegerArray availableFlags;
+    private final int indexMask;
+    private final int indexShift;
+    private final int bufferSize;
+    private final int batchSize;
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * 已申请的最大序号.
+     */
+    private final AtomicLong cursor = new AtomicLong(-1);
+    /**
+     * 已被消费线程领取的最大序号.
+     */
+    private final AtomicLong workSequence = new AtomicLong(-1);
+    /**
+     * 各消费线程已处理完成的序号.
+     */
+    private final AtomicLong[] consumerSequences;
+    private volatile long cachedGatingSequence = -1;
+
+    private final Thread[] consumers;
+    private final CountDownLatch terminationLatch;
+    /**
+     * 正在申请序号或写入槽位的提交线程数量, 消费线程在关闭后需等待其归零才能退出, 以免遗漏已接收的任务.
+     */
+    private final AtomicInteger claimingCount = new AtomicInteger();
+    private volatile boolean shutdown = false;
+    private volatile boolean shutdownNow = false;
+
+    /**
+     * 构造一个环形缓冲区执行器.
+     * @param bufferSize 缓冲区大小, 必须为2的幂
+     * @param consumerCount 消费线程数量
+     * @param waitStrategy 消费线程的等待策略
+     */
+    public RingBufferExecutor(int bufferSize, int consumerCount, WaitStrategy waitStrategy) {
+        this(bufferSize, consumerCount, waitStrategy, 64, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * 构造一个环形缓冲区执行器.
+     * @param bufferSize 缓冲区大小, 必须为2的幂
+     * @param consumerCount 消费线程数量
+     * @param waitStrategy 消费线程的等待策略
+     * @param batchSize 消费线程单次最多领取的任务数量
+     * @param threadFactory 用于创建消费线程的线程工厂
+     */
+    public RingBufferExecutor(int bufferSize,
+                              int consumerCount,
+                              WaitStrategy waitStrategy,
+                              int batchSize,
+                              ThreadFactory threadFactory) {
+        if(bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        } else if(consumerCount < 1) {
+            throw new IllegalArgumentException("consumerCount must be greater than 0");
+        } else if(batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.waitStrategy = waitStrategy;
+        this.entries = new Runnable[bufferSize];
+        this.availableFlags = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            availableFlags.set(i, -1);
+        }
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+
+        this.consumerSequences = new AtomicLong[consumerCount];
+        this.consumers = new Thread[consumerCount];
+        this.terminationLatch = new CountDownLatch(consumerCount);
+        for (int i = 0; i < consumerCount; i++) {
+            final AtomicLong sequence = new AtomicLong(-1);
+            consumerSequences[i] = sequence;
+            consumers[i] = threadFactory.newThread(() -> {
+                try {
+                    consume(sequence);
+                } finally {
+                    terminationLatch.countDown();
+                }
+            });
+        }
+        for (Thread consumer : consumers) {
+            consumer.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if(command == null) {
+            throw new NullPointerException();
+        }
+        // 先登记再检查关闭状态: 消费线程在观察到关闭后, 只要登记数为0, 之后的提交线程必然能观察到关闭而拒绝任务.
+        claimingCount.incrementAndGet();
+        try {
+            long next;
+            for (;;) {
+                if(shutdown) {
+                    throw new RejectedExecutionException("RingBufferExecutor has been shut down");
+                }
+                long current = cursor.get();
+                next = current + 1;
+                long wrapPoint = next - bufferSize;
+                if(wrapPoint > cachedGatingSequence) {
+                    long gatingSequence = getMinimumSequence(current);
+                    if(wrapPoint > gatingSequence) {
+                        LockSupport.parkNanos(1L);
+                        continue;
+                    }
+                    cachedGatingSequence = gatingSequence;
+                }
+                if(cursor.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+
+            int index = (int) next & indexMask;
+            entries[index] = command;
+            availableFlags.lazySet(index, (int) (next >>> indexShift));
+        } finally {
+            claimingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * 消费线程主循环.
+     * @param sequence 当前消费线程已处理完成的序号
+     */
+    private void consume(AtomicLong sequence) {
+        int idleCount = 0;
+        while (!shutdownNow) {
+            long current = workSequence.get();
+            long next = current + 1;
+            // 此时当前线程已处理完之前领取的任务, 更新序号以免阻塞提交任务的线程.
+            sequence.set(current);
+            if(!isAvailable(next)) {
+                if(shutdown && claimingCount.get() == 0 && cursor.get() == current) {
+                    return;
+                }
+                idleCount = idle(idleCount);
+                continue;
+            }
+            long end = next;
+            long limit = current + batchSize;
+            while (end < limit && isAvailable(end + 1)) {
+                end++;
+            }
+            if(!workSequence.compareAndSet(current, end)) {
+                continue;
+            }
+            idleCount = 0;
+            for (long seq = next; seq <= end; seq++) {
+                int index = (int) seq & indexMask;
+                Runnable task = entries[index];
+                entries[index] = null;
+                runTask(task);
+            }
+            sequence.set(end);
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private boolean isAvailable(long sequence) {
+        return availableFlags.get((int) sequence & indexMask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * 获取所有消费线程中最小的已处理序号.
+     * @param defaultSequence 默认序号
+     * @return 返回最小的已处理序号
+     */
+    private long getMinimumSequence(long defaultSequence) {
+        long minimum = defaultSequence;
+        for (AtomicLong sequence : consumerSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * 按照等待策略进行一次等待.
+     * @param idleCount 连续等待的次数
+     * @return 返回更新后的连续等待次数
+     */
+    private int idle(int idleCount) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                return idleCount;
+            case YIELDING:
+                if(idleCount >= SPIN_TRIES) {
+                    Thread.yield();
+                    return idleCount;
+                }
+                return idleCount + 1;
+            case PARKING:
+            default:
+                if(idleCount < SPIN_TRIES) {
+                    return idleCount + 1;
+                } else if(idleCount < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                    return idleCount + 1;
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+                return idleCount;
+        }
+    }
+
+    /**
+     * 获取缓冲区大小.
+     * @return 返回缓冲区槽位数量
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 获取已提交但尚未被领取的任务数量.
+     * @return 返回等待执行的任务数量
+     */
+    public long getPendingCount() {
+        return Math.max(0, cursor.get() - workSequence.get());
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        shutdownNow = true;
+        List<Runnable> pendingTasks = new ArrayList<>();
+        long current;
+        do {
+            current = workSequence.get();
+        } while (!workSequence.compareAndSet(current, Long.MAX_VALUE - bufferSize));
+        long published = cursor.get();
+        for (long seq = current + 1; seq <= published && isAvailable(seq); seq++) {
+            int index = (int) seq & indexMask;
+            pendingTasks.add(entries[index]);
+            entries[index] = null;
+        }
+        for (Thread consumer : consumers) {
+            consumer.interrupt();
+        }
+        return pendingTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminationLatch.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationLatch.await(timeout, unit);
+    }
+
+}
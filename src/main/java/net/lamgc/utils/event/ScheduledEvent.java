@@ -0,0 +1,42 @@
+package net.lamgc.utils.event;
+
+/**
+ * 延迟或周期投递的事件.
+ * @see EventExecutor#executorDelayed(EventObject, long, java.util.concurrent.TimeUnit)
+ * @see EventExecutor#executorPeriodic(EventObject, long, long, java.util.concurrent.TimeUnit)
+ */
+public interface ScheduledEvent {
+
+    /**
+     * 获取将被投递的事件对象.
+     * @return 返回事件对象
+     */
+    EventObject getEventObject();
+
+    /**
+     * 取消投递.
+     * <p>取消后, 尚未投递的事件将不再投递, 已开始的投递不受影响.</p>
+     * @return 如本次调用成功取消投递返回true, 如已取消或已投递完成则返回false
+     */
+    boolean cancel();
+
+    /**
+     * 是否已取消.
+     * @return 如已取消返回true
+     */
+    boolean isCancelled();
+
+    /**
+     * 是否已完成.
+     * <p>延迟投递的事件在提交投递或被取消后完成, 周期投递的事件仅在被取消后完成.</p>
+     * @return 如已完成返回true
+     */
+    boolean isDone();
+
+    /**
+     * 获取已提交投递的次数.
+     * @return 返回投递次数
+     */
+    long getDeliveryCount();
+
+}
@@ -0,0 +1,144 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 基于时间轮的延迟或周期投递任务.
+ * <p>时间轮到期后任务只将投递操作提交给执行器, 周期任务按固定频率重新加入时间轮,
+ * 下次到期时间以首次到期时间为基准计算, 因此不会因投递耗时而累积漂移.</p>
+ */
+final class ScheduledEventTask implements ScheduledEvent, PendingEvent, Runnable {
+
+    private final static int STATE_SCHEDULED = 0;
+    private final static int STATE_CANCELLED = 1;
+    private final static int STATE_DONE = 2;
+
+    private final HashedTimingWheel timingWheel;
+
+    private final EventObject eventObject;
+
+    private final EventHandler handler;
+
+    private final Consumer<EventObject> deliverer;
+
+    /**
+     * 周期(纳秒), 如为0则为延迟任务.
+     */
+    private final long periodNanos;
+
+    private final AtomicInteger state = new AtomicInteger(STATE_SCHEDULED);
+
+    private final AtomicLong deliveryCount = new AtomicLong();
+
+    /**
+     * 下一次到期的时间点({@link System#nanoTime()}).
+     */
+    private long nextFireTime;
+
+    private HashedTimingWheel.Timeout currentTimeout;
+
+    /**
+     * 构造投递任务.
+     * @param timingWheel 时间轮
+     * @param eventObject 事件对象
+     * @param handler 事件将投递到的EventHandler对象, 如事件将投递到所有EventHandler则为null
+     * @param deliverer 投递操作, 将在时间轮工作线程中调用, 应只提交投递而不执行事件方法
+     * @param periodNanos 周期(纳秒), 如为0则为延迟任务
+     */
+    ScheduledEventTask(HashedTimingWheel timingWheel, EventObject eventObject, EventHandler handler,
+                       Consumer<EventObject> deliverer, long periodNanos) {
+        this.timingWheel = timingWheel;
+        this.eventObject = eventObject;
+        this.handler = handler;
+        this.deliverer = deliverer;
+        this.periodNanos = periodNanos;
+    }
+
+    /**
+     * 开始调度.
+     * @param delayNanos 首次投递的延迟(纳秒)
+     */
+    synchronized void start(long delayNanos) {
+        nextFireTime = System.nanoTime() + delayNanos;
+        currentTimeout = timingWheel.newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void run() {
+        if(state.get() != STATE_SCHEDULED) {
+            return;
+        }
+        if(periodNanos == 0 && !state.compareAndSet(STATE_SCHEDULED, STATE_DONE)) {
+            return;
+        }
+        deliveryCount.incrementAndGet();
+        try {
+            deliverer.accept(eventObject);
+        } finally {
+            if(periodNanos != 0) {
+                reschedule();
+            }
+        }
+    }
+
+    private synchronized void reschedule() {
+        if(state.get() != STATE_SCHEDULED) {
+            return;
+        }
+        nextFireTime += periodNanos;
+        try {
+            currentTimeout = timingWheel.newTimeout(this, nextFireTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (IllegalStateException e) {
+            // 时间轮已停止.
+            state.compareAndSet(STATE_SCHEDULED, STATE_DONE);
+        }
+    }
+
+    @Override
+    public EventObject getEventObject() {
+        return eventObject;
+    }
+
+    @Override
+    public EventHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public Method getHandlerMethod() {
+        return null;
+    }
+
+    @Override
+    public boolean cancel() {
+        if(!state.compareAndSet(STATE_SCHEDULED, STATE_CANCELLED)) {
+            return false;
+        }
+        synchronized (this) {
+            if(currentTimeout != null) {
+                currentTimeout.cancel();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state.get() == STATE_CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return state.get() != STATE_SCHEDULED;
+    }
+
+    @Override
+    public long getDeliveryCount() {
+        return deliveryCount.get();
+    }
+
+}
@@ -0,0 +1,22 @@
+package net.lamgc.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注串行投递的EventHandler.
+ * <p>标注了该注解的EventHandler, 每个对象都将拥有一个独立的串行邮箱,
+ * 投递到同一对象的事件将按投递顺序逐个执行, 不会并发执行; 不同对象之间依然并行执行.
+ * 邮箱不持有线程, 仅在有待执行的投递时占用线程池中的一个线程.</p>
+ * <p>注意:</p>
+ * <ol>
+ *     <li>仅对通过{@link EventExecutor#addHandler(EventHandler)}添加的对象生效;</li>
+ *     <li>同步投递时, 串行EventHandler的投递不会在调用线程执行, 除非调用线程正在执行该对象的事件方法.</li>
+ * </ol>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SerialDelivery {
+}
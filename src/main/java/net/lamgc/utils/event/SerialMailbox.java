@@ -0,0 +1,199 @@
+package net.lamgc.utils.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 串行邮箱.
+ * <p>提交到邮箱的任务将按提交顺序在底层执行器上逐个执行, 同一时刻最多只有一个线程在执行邮箱中的任务.
+ * 邮箱通过计数器协调, 提交任务和执行任务均不需要加锁.</p>
+ * <p>为避免长时间占用线程, 单次执行最多执行{@link #DRAIN_LIMIT}个任务, 之后将重新提交到执行器继续执行.</p>
+ * <p>执行器拒绝执行(例如已关闭)时, 只有触发提交的任务被移除并抛出异常, 其他已接收的任务依然保留在邮箱中,
+ * 由之后的提交重新尝试执行, 或通过{@link #drainStalled()}取出.</p>
+ * <p>通过{@link #handOff(Executor)}提交的任务将在指定的执行器中执行, 该任务执行结束前邮箱暂停执行后续任务,
+ * 但不会占用线程等待.</p>
+ */
+final class SerialMailbox implements Executor {
+
+    /**
+     * 单次执行的最大任务数.
+     */
+    final static int DRAIN_LIMIT = 64;
+
+    private final Executor executor;
+
+    private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已提交但尚未执行完成的任务数.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /**
+     * 邮箱中有任务, 但执行器拒绝执行而没有线程在执行邮箱.
+     */
+    private final AtomicBoolean stalled = new AtomicBoolean();
+
+    private volatile Thread drainThread;
+
+    /**
+     * 构造串行邮箱.
+     * @param executor 用于执行任务的执行器
+     */
+    SerialMailbox(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        taskQueue.offer(task);
+        if(wip.getAndIncrement() == 0 || stalled.compareAndSet(true, false)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 此时没有线程在执行邮箱, 只移除本次提交的任务, 其他任务留待之后的提交.
+                taskQueue.remove(task);
+                if(wip.decrementAndGet() != 0) {
+                    stalled.set(true);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 取出因执行器拒绝执行而滞留在邮箱中的任务.
+     * @return 返回尚未执行的任务, 如邮箱未滞留则返回空列表
+     */
+    List<Runnable> drainStalled() {
+        List<Runnable> tasks = new ArrayList<>();
+        if(!stalled.compareAndSet(true, false)) {
+            return tasks;
+        }
+        Runnable task;
+        while((task = taskQueue.poll()) != null) {
+            wip.decrementAndGet();
+            tasks.add(task instanceof HandOffTask ? ((HandOffTask) task).task : task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 获取在指定执行器中执行任务的邮箱视图.
+     * <p>提交到视图的任务与直接提交到邮箱的任务一样按提交顺序执行, 轮到该任务时将提交到指定执行器,
+     * 任务执行结束后邮箱才会继续执行后续任务.</p>
+     * @param target 用于执行任务的执行器
+     * @return 返回邮箱视图
+     */
+    Executor handOff(Executor target) {
+        return task -> execute(new HandOffTask(target, task));
+    }
+
+    /**
+     * 检查当前线程是否正在执行邮箱中的任务.
+     * @return 如是则返回true
+     */
+    boolean isDrainingThread() {
+        return drainThread == Thread.currentThread();
+    }
+
+    private void drain() {
+        boolean resubmit = false;
+        drainThread = Thread.currentThread();
+        try {
+            for (int processed = 1; ; processed++) {
+                Runnable task = taskQueue.poll();
+                if(task instanceof HandOffTask) {
+                    HandOffTask handOffTask = (HandOffTask) task;
+                    drainThread = null;
+                    if(handOffTask.submit()) {
+                        // 邮箱暂停, 由该任务结束后继续执行, 此处不能再提交执行.
+                        resubmit = false;
+                        return;
+                    }
+                    // 执行器拒绝了任务, 在当前线程执行.
+                    drainThread = Thread.currentThread();
+                    task = handOffTask.task;
+                }
+                try {
+                    task.run();
+                } finally {
+                    resubmit = wip.decrementAndGet() != 0;
+                }
+                if(!resubmit || processed >= DRAIN_LIMIT) {
+                    break;
+                }
+            }
+        } finally {
+            if(drainThread == Thread.currentThread()) {
+                drainThread = null;
+            }
+            if(resubmit) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    stalled.set(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * 在其他执行器中执行的邮箱任务.
+     */
+    private final class HandOffTask implements Runnable {
+
+        private final Executor target;
+        private final Runnable task;
+
+        HandOffTask(Executor target, Runnable task) {
+            this.target = target;
+            this.task = task;
+        }
+
+        /**
+         * 将任务提交到指定的执行器.
+         * @return 如提交成功返回true
+         */
+        boolean submit() {
+            try {
+                target.execute(this);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        /**
+         * 继续执行邮箱中的后续任务.
+         * <p>如底层执行器已关闭而拒绝执行, 后续任务将在当前线程执行, 以免已接收的任务丢失.</p>
+         */
+        private void resume() {
+            try {
+                executor.execute(SerialMailbox.this::drain);
+            } catch (RejectedExecutionException e) {
+                drain();
+            }
+        }
+
+        @Override
+        public void run() {
+            drainThread = Thread.currentThread();
+            try {
+                task.run();
+            } finally {
+                drainThread = null;
+                if(wip.decrementAndGet() != 0) {
+                    resume();
+                }
+            }
+        }
+    }
+
+}
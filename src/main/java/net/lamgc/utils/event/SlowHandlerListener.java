@@ -0,0 +1,17 @@
+package net.lamgc.utils.event;
+
+/**
+ * 慢调用监听器.
+ * @see EventExecutor#setSlowHandlerWatchdog(SlowHandlerListener, long, java.util.concurrent.TimeUnit)
+ */
+@FunctionalInterface
+public interface SlowHandlerListener {
+
+    /**
+     * 当事件方法调用的执行时间超过阈值时触发, 每次调用只触发一次.
+     * <p>该方法在执行器的看门狗线程中调用, 执行缓慢将推迟之后的慢调用检查和超时报告, 应尽快返回.</p>
+     * @param report 慢调用报告
+     */
+    void onSlowHandler(SlowHandlerReport report);
+
+}
@@ -0,0 +1,82 @@
+package net.lamgc.utils.event;
+
+import java.lang.reflect.Method;
+
+/**
+ * 慢调用报告.
+ * <p>记录一次执行时间超过阈值的事件方法调用, 以及采样时执行线程的堆栈.</p>
+ * @see SlowHandlerListener
+ */
+public final class SlowHandlerReport {
+
+    private final EventHandler handler;
+
+    private final Method handlerMethod;
+
+    private final EventObject eventObject;
+
+    private final Thread thread;
+
+    private final long elapsedNanos;
+
+    private final StackTraceElement[] stackTrace;
+
+    SlowHandlerReport(EventHandler handler, Method handlerMethod, EventObject eventObject,
+                      Thread thread, long elapsedNanos, StackTraceElement[] stackTrace) {
+        this.handler = handler;
+        this.handlerMethod = handlerMethod;
+        this.eventObject = eventObject;
+        this.thread = thread;
+        this.elapsedNanos = elapsedNanos;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * 获取事件方法所在的EventHandler对象.
+     * @return 返回EventHandler对象
+     */
+    public EventHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * 获取事件方法.
+     * @return 返回事件方法
+     */
+    public Method getHandlerMethod() {
+        return handlerMethod;
+    }
+
+    /**
+     * 获取事件对象.
+     * @return 返回事件对象
+     */
+    public EventObject getEventObject() {
+        return eventObject;
+    }
+
+    /**
+     * 获取执行事件方法的线程.
+     * @return 返回线程对象
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * 获取采样时调用已执行的时间.
+     * @return 返回已执行时间(纳秒)
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 获取采样时执行线程的堆栈.
+     * @return 返回堆栈, 如采样时调用已结束则可能与事件方法无关
+     */
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace.clone();
+    }
+
+}
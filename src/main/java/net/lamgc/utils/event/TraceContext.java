@@ -0,0 +1,130 @@
+package net.lamgc.utils.event;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 正在进行的追踪跨度.
+ * <p>发布跨度以引用计数跟踪该次发布尚未完成的投递任务, 发布线程持有一个引用,
+ * 每个提交到执行器的投递任务各持有一个引用, 引用全部释放时跨度结束.
+ * 事件方法调用跨度在调用结束时直接结束.</p>
+ */
+final class TraceContext {
+
+    /**
+     * {@link System#nanoTime()}到Unix纪元纳秒时间的偏移.
+     */
+    private final static long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1000000 - System.nanoTime();
+
+    private final long traceId;
+
+    private final long spanId;
+
+    private final long parentSpanId;
+
+    private final String name;
+
+    private final String category;
+
+    private final Class<?> eventType;
+
+    private final Thread thread = Thread.currentThread();
+
+    private final long startTime = System.nanoTime();
+
+    private final Consumer<TraceSpan> reporter;
+
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    /**
+     * 开始跨度前线程的当前跨度, 用于在跨度结束后恢复, 仅由开始跨度的线程访问.
+     */
+    private TraceContext outer;
+
+    private TraceContext(TraceContext parent, String name, String category,
+                         Class<?> eventType, Consumer<TraceSpan> reporter) {
+        this.traceId = parent != null ? parent.traceId : nextId();
+        this.spanId = nextId();
+        this.parentSpanId = parent != null ? parent.spanId : 0;
+        this.name = name;
+        this.category = category;
+        this.eventType = eventType;
+        this.reporter = reporter;
+    }
+
+    private static long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while(id == 0);
+        return id;
+    }
+
+    /**
+     * 开始发布跨度.
+     * @param parent 父跨度, 如为因果链的起点则为null
+     * @param eventType 事件类型
+     * @param reporter 跨度结束时的接收函数
+     * @return 返回发布跨度
+     */
+    static TraceContext beginPublish(TraceContext parent, Class<?> eventType, Consumer<TraceSpan> reporter) {
+        return new TraceContext(parent, eventType.getSimpleName(), TraceSpan.CATEGORY_PUBLISH, eventType, reporter);
+    }
+
+    /**
+     * 开始以当前跨度为父跨度的事件方法调用跨度.
+     * @param handlerMethod 事件方法
+     * @param eventType 事件类型
+     * @return 返回事件方法调用跨度
+     */
+    TraceContext beginHandler(HandlerMethod handlerMethod, Class<?> eventType) {
+        return new TraceContext(this, handlerMethod.getHandlerClass().getSimpleName() + '#' +
+                handlerMethod.getMethod().getName(), TraceSpan.CATEGORY_HANDLER, eventType, reporter);
+    }
+
+    long getTraceId() {
+        return traceId;
+    }
+
+    void setOuter(TraceContext outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * 取出开始跨度前线程的当前跨度.
+     * @return 返回先前的当前跨度, 可能为null
+     */
+    TraceContext takeOuter() {
+        TraceContext previous = outer;
+        outer = null;
+        return previous;
+    }
+
+    /**
+     * 增加一个引用.
+     */
+    void retain() {
+        references.incrementAndGet();
+    }
+
+    /**
+     * 释放一个引用, 如引用全部释放则结束跨度.
+     */
+    void release() {
+        if(references.decrementAndGet() == 0) {
+            finish(false);
+        }
+    }
+
+    /**
+     * 结束跨度.
+     * @param failed 事件方法是否抛出了异常
+     */
+    void finish(boolean failed) {
+        long duration = System.nanoTime() - startTime;
+        reporter.accept(new TraceSpan(traceId, spanId, parentSpanId, name, category, eventType.getName(),
+                startTime + EPOCH_OFFSET_NANOS, duration, thread.getId(), thread.getName(), failed));
+    }
+
+}
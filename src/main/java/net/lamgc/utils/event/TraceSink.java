@@ -0,0 +1,18 @@
+package net.lamgc.utils.event;
+
+/**
+ * 追踪跨度接收器.
+ * <p>通过{@link EventExecutor#setTraceSink(TraceSink)}设置后, 执行器将在每次发布完成及每次事件方法调用结束时
+ * 将对应的{@link TraceSpan}交由接收器处理. 接收器可能被多个线程同时调用, 实现需保证线程安全, 并尽量避免阻塞.</p>
+ * @see ChromeTraceSink
+ */
+@FunctionalInterface
+public interface TraceSink {
+
+    /**
+     * 处理已结束的追踪跨度.
+     * @param span 追踪跨度
+     */
+    void onSpan(TraceSpan span);
+
+}
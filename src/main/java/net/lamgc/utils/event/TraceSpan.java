@@ -0,0 +1,166 @@
+package net.lamgc.utils.event;
+
+/**
+ * 追踪跨度.
+ * <p>记录一次事件发布(从发布到该次发布的所有投递执行结束)或一次事件方法调用的耗时.
+ * 同一因果链上的跨度具有相同的追踪Id: 在事件方法内发布的事件, 重新投递的事件, 以及延迟投递的事件,
+ * 其发布跨度的父跨度为发起发布的事件方法调用跨度; 事件方法调用跨度的父跨度为所属的发布跨度.</p>
+ */
+public final class TraceSpan {
+
+    /**
+     * 发布跨度的类别.
+     */
+    public final static String CATEGORY_PUBLISH = "publish";
+
+    /**
+     * 事件方法调用跨度的类别.
+     */
+    public final static String CATEGORY_HANDLER = "handler";
+
+    private final long traceId;
+
+    private final long spanId;
+
+    private final long parentSpanId;
+
+    private final String name;
+
+    private final String category;
+
+    private final String eventType;
+
+    private final long startTimeNanos;
+
+    private final long durationNanos;
+
+    private final long threadId;
+
+    private final String threadName;
+
+    private final boolean failed;
+
+    TraceSpan(long traceId, long spanId, long parentSpanId, String name, String category, String eventType,
+              long startTimeNanos, long durationNanos, long threadId, String threadName, boolean failed) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.category = category;
+        this.eventType = eventType;
+        this.startTimeNanos = startTimeNanos;
+        this.durationNanos = durationNanos;
+        this.threadId = threadId;
+        this.threadName = threadName;
+        this.failed = failed;
+    }
+
+    /**
+     * 获取追踪Id.
+     * @return 返回16位十六进制追踪Id
+     */
+    public String getTraceId() {
+        return toHex(traceId);
+    }
+
+    /**
+     * 获取跨度Id.
+     * @return 返回16位十六进制跨度Id
+     */
+    public String getSpanId() {
+        return toHex(spanId);
+    }
+
+    /**
+     * 获取父跨度Id.
+     * @return 返回16位十六进制父跨度Id, 如为因果链的起点则返回null
+     */
+    public String getParentSpanId() {
+        return parentSpanId != 0 ? toHex(parentSpanId) : null;
+    }
+
+    /**
+     * 获取跨度名称.
+     * <p>发布跨度为事件类型的简单类名, 事件方法调用跨度为{@code 类名#方法名}.</p>
+     * @return 返回跨度名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取跨度类别.
+     * @return 返回{@link #CATEGORY_PUBLISH}或{@link #CATEGORY_HANDLER}
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * 获取事件类型.
+     * @return 返回事件对象的类名
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * 获取开始时间.
+     * @return 返回自1970-01-01T00:00:00Z起的纳秒数
+     */
+    public long getStartTimeNanos() {
+        return startTimeNanos;
+    }
+
+    /**
+     * 获取持续时间.
+     * @return 返回持续时间(纳秒)
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * 获取开始跨度的线程Id.
+     * @return 返回线程Id
+     */
+    public long getThreadId() {
+        return threadId;
+    }
+
+    /**
+     * 获取开始跨度的线程名.
+     * @return 返回线程名
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * 事件方法是否抛出了异常.
+     * @return 如事件方法调用跨度的事件方法抛出了异常返回true, 发布跨度总是返回false
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    static String toHex(long id) {
+        String hex = Long.toHexString(id);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceSpan{" +
+                "traceId=" + getTraceId() +
+                ", spanId=" + getSpanId() +
+                ", parentSpanId=" + getParentSpanId() +
+                ", name='" + name + '\'' +
+                ", category='" + category + '\'' +
+                ", durationNanos=" + durationNanos +
+                ", threadName='" + threadName + '\'' +
+                ", failed=" + failed +
+                '}';
+    }
+
+}
@@ -0,0 +1,126 @@
+package net.lamgc.utils.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程任务分发器.
+ * <p>为每个任务创建一个虚拟线程执行, 并为每个事件方法提供并发数限制.
+ * 虚拟线程在Java 21及以上版本可用, 分发器通过反射创建虚拟线程执行器, 因此在Java 8环境下依然可以加载, 只是无法启用.</p>
+ */
+final class VirtualThreadDispatcher implements Executor {
+
+    private final static MethodHandle VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+    private final static MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private final ExecutorService virtualExecutor;
+
+    private final int maxConcurrencyPerMethod;
+
+    private final ConcurrentHashMap<Method, Semaphore> permitsMap = new ConcurrentHashMap<>();
+
+    /**
+     * 构造虚拟线程任务分发器.
+     * @param maxConcurrencyPerMethod 每个事件方法的最大并发调用数, 小于等于0则不限制
+     * @throws UnsupportedOperationException 当前Java版本不支持虚拟线程时抛出
+     */
+    VirtualThreadDispatcher(int maxConcurrencyPerMethod) {
+        if(VIRTUAL_EXECUTOR_FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            this.virtualExecutor = (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invokeExact();
+        } catch (Throwable e) {
+            throw new UnsupportedOperationException("Unable to create virtual thread executor", e);
+        }
+        this.maxConcurrencyPerMethod = maxConcurrencyPerMethod;
+    }
+
+    /**
+     * 检查当前Java版本是否支持虚拟线程.
+     * @return 如支持则返回true
+     */
+    static boolean isSupported() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    private static MethodHandle findVirtualExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class,
+                    "isVirtual", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 检查当前线程是否为虚拟线程.
+     * @return 如当前线程为虚拟线程则返回true
+     */
+    static boolean isVirtualThread() {
+        if(IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 在新的虚拟线程中执行任务.
+     * @param task 任务
+     */
+    @Override
+    public void execute(Runnable task) {
+        virtualExecutor.execute(task);
+    }
+
+    /**
+     * 获取事件方法的并发许可.
+     * <p>许可只应在虚拟线程中获取, 在平台线程中等待许可会占用该线程, 在事件线程中还可能导致死锁.</p>
+     * @param handlerMethod 事件方法
+     * @return 返回事件方法的信号量, 如不限制并发数则返回null
+     */
+    Semaphore getPermits(HandlerMethod handlerMethod) {
+        if(maxConcurrencyPerMethod <= 0) {
+            return null;
+        }
+        Semaphore permits = permitsMap.get(handlerMethod.getMethod());
+        return permits != null ? permits :
+                permitsMap.computeIfAbsent(handlerMethod.getMethod(), key -> new Semaphore(maxConcurrencyPerMethod));
+    }
+
+    void shutdown() {
+        virtualExecutor.shutdown();
+    }
+
+    List<Runnable> shutdownNow() {
+        return virtualExecutor.shutdownNow();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return virtualExecutor.awaitTermination(timeout, unit);
+    }
+
+}
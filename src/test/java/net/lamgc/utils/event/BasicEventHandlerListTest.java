@@ -0,0 +1,35 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+public class BasicEventHandlerListTest {
+
+    @Test
+    public void dispatchCacheTest() throws IllegalAccessException, NoSuchMethodException {
+        BasicEventHandlerList list = new BasicEventHandlerList();
+        Assert.assertEquals(0, list.getEventHandlerMethods(SimpleEventObject.class).length);
+
+        list.addEventHandler(SimpleEventHandler.class);
+        Method[] methods = list.getEventHandlerMethods(SimpleEventObject.class);
+        Assert.assertEquals(1, methods.length);
+        Assert.assertEquals(SimpleEventHandler.class.getMethod("simpleEventHandler", SimpleEventObject.class), methods[0]);
+        Assert.assertSame(methods, list.getEventHandlerMethods(SimpleEventObject.class));
+
+        list.removeEventHandler(SimpleEventHandler.class);
+        Assert.assertEquals(0, list.getEventHandlerMethods(SimpleEventObject.class).length);
+        Assert.assertTrue(list.getEventHandlerMethod(SimpleEventObject.class).isEmpty());
+    }
+
+    @Test
+    public void superClassDispatchCacheTest() throws IllegalAccessException {
+        BasicEventHandlerList list = new BasicEventHandlerList();
+        Assert.assertEquals(0, list.getEventHandlerMethods(SuperClassParameterReceiveTest.EventObjectB.class).length);
+        list.addEventHandler(SuperClassParameterReceiveTest.EventHandlerA.class);
+        Assert.assertEquals(1, list.getEventHandlerMethods(SuperClassParameterReceiveTest.EventObjectB.class).length);
+        Assert.assertEquals(1, list.getEventHandlerMethods(SuperClassParameterReceiveTest.EventObjectA.class).length);
+    }
+
+}
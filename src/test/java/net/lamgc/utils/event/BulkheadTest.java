@@ -0,0 +1,220 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BulkheadTest {
+
+    private static EventExecutor newExecutor(int threads) {
+        return new EventExecutor(new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    private static ExecutorService newBulkhead(String name) {
+        return Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Test
+    public void annotatedBulkheadTest() throws IllegalAccessException, InterruptedException {
+        ExecutorService bulkhead = newBulkhead("io-bulkhead");
+        for (DispatchGranularity granularity : DispatchGranularity.values()) {
+            EventExecutor executor = newExecutor(2);
+            executor.setDispatchGranularity(granularity);
+            executor.registerBulkhead("io", bulkhead);
+            BulkheadHandler handler = new BulkheadHandler();
+            executor.addHandler(handler);
+            ThreadEvent event = new ThreadEvent();
+            executor.executor(event);
+            Assert.assertTrue(event.done.await(1L, TimeUnit.SECONDS));
+            Assert.assertEquals(granularity.name(), "io-bulkhead", event.isolatedThread.get());
+            Assert.assertFalse(granularity.name(), "io-bulkhead".equals(event.sharedThread.get()));
+            executor.shutdown(true);
+        }
+        bulkhead.shutdownNow();
+    }
+
+    @Test
+    public void unregisteredBulkheadTest() throws IllegalAccessException, InterruptedException {
+        ExecutorService bulkhead = newBulkhead("io-bulkhead");
+        EventExecutor executor = newExecutor(2);
+        executor.addHandler(new BulkheadHandler());
+        ThreadEvent event = new ThreadEvent();
+        executor.executor(event);
+        Assert.assertTrue(event.done.await(1L, TimeUnit.SECONDS));
+        Assert.assertNotEquals("io-bulkhead", event.isolatedThread.get());
+
+        Assert.assertNull(executor.registerBulkhead("io", bulkhead));
+        Assert.assertSame(bulkhead, executor.unregisterBulkhead("io"));
+        event = new ThreadEvent();
+        executor.executor(event);
+        Assert.assertTrue(event.done.await(1L, TimeUnit.SECONDS));
+        Assert.assertNotEquals("io-bulkhead", event.isolatedThread.get());
+        executor.shutdown(true);
+        bulkhead.shutdownNow();
+    }
+
+    @Test
+    public void slowHandlerNotStarvingTest() throws IllegalAccessException, InterruptedException {
+        ExecutorService bulkhead = newBulkhead("io-bulkhead");
+        EventExecutor executor = newExecutor(1);
+        executor.registerBulkhead("io", bulkhead);
+        executor.addHandler(new BulkheadHandler());
+        BlockEvent blockEvent = new BlockEvent();
+        executor.executor(blockEvent);
+
+        // 线程池只有一个线程, 阻塞的事件方法在隔离执行器中执行, 不影响其他事件方法.
+        ThreadEvent event = new ThreadEvent();
+        executor.executor(event);
+        Assert.assertTrue(event.done.await(1L, TimeUnit.SECONDS));
+        blockEvent.release.countDown();
+        executor.shutdown(true);
+        bulkhead.shutdownNow();
+    }
+
+    @Test
+    public void batchAndSerialBulkheadTest() throws IllegalAccessException, InterruptedException {
+        ExecutorService bulkhead = newBulkhead("io-bulkhead");
+        EventExecutor executor = newExecutor(2);
+        executor.registerBulkhead("io", bulkhead);
+        executor.addHandler(new BulkheadHandler());
+        SerialBulkheadHandler serialHandler = new SerialBulkheadHandler();
+        executor.addHandler(serialHandler);
+
+        // 批量投递与串行投递的事件方法同样在隔离执行器中执行, 串行投递的顺序保持不变.
+        List<OrderEvent> events = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            events.add(new OrderEvent(i));
+            expected.add(i);
+        }
+        ThreadEvent threadEvent = new ThreadEvent();
+        executor.executor(Collections.singletonList(threadEvent));
+        executor.executor(events);
+        Assert.assertTrue(threadEvent.done.await(1L, TimeUnit.SECONDS));
+        Assert.assertEquals("io-bulkhead", threadEvent.isolatedThread.get());
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertTrue(serialHandler.done.await(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(expected, serialHandler.received);
+        Assert.assertEquals(Collections.singleton("io-bulkhead"), serialHandler.threads);
+        bulkhead.shutdownNow();
+    }
+
+    @Test
+    public void adaptiveIsolationTest() throws IllegalAccessException, InterruptedException, NoSuchMethodException {
+        ExecutorService isolation = newBulkhead("isolation");
+        EventExecutor executor = newExecutor(4);
+        executor.setAdaptiveIsolation(isolation, 1L, 50L, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(executor.isEnableMetrics());
+        executor.addHandler(new AdaptiveHandler());
+        long deadline = System.currentTimeMillis() + 5000L;
+        while(executor.getIsolatedMethods().isEmpty() && System.currentTimeMillis() < deadline) {
+            for (int i = 0; i < 8; i++) {
+                executor.executor(new SlowEvent());
+                executor.executor(new ThreadEvent());
+            }
+            Thread.sleep(10L);
+        }
+        Assert.assertEquals(1, executor.getIsolatedMethods().size());
+        Assert.assertTrue(executor.getIsolatedMethods()
+                .contains(AdaptiveHandler.class.getMethod("onSlow", SlowEvent.class)));
+
+        SlowEvent slowEvent = new SlowEvent();
+        executor.executor(slowEvent);
+        Assert.assertTrue(slowEvent.done.await(1L, TimeUnit.SECONDS));
+        Assert.assertEquals("isolation", slowEvent.thread.get());
+
+        executor.setAdaptiveIsolation(null, 0L, 0L, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(executor.getIsolatedMethods().isEmpty());
+        executor.shutdown(true);
+        isolation.shutdownNow();
+    }
+
+    public static class ThreadEvent implements EventObject {
+        final AtomicReference<String> isolatedThread = new AtomicReference<>();
+        final AtomicReference<String> sharedThread = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(2);
+    }
+
+    public static class OrderEvent implements EventObject {
+        final int index;
+
+        OrderEvent(int index) {
+            this.index = index;
+        }
+    }
+
+    public static class BlockEvent implements EventObject {
+        final CountDownLatch release = new CountDownLatch(1);
+    }
+
+    public static class SlowEvent implements EventObject {
+        final AtomicReference<String> thread = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+    }
+
+    public static class BulkheadHandler implements EventHandler {
+
+        @Bulkhead("io")
+        public void onIsolated(ThreadEvent event) {
+            event.isolatedThread.set(Thread.currentThread().getName());
+            event.done.countDown();
+        }
+
+        public void onShared(ThreadEvent event) {
+            event.sharedThread.set(Thread.currentThread().getName());
+            event.done.countDown();
+        }
+
+        @Bulkhead("io")
+        public void onBlock(BlockEvent event) throws InterruptedException {
+            event.release.await();
+        }
+    }
+
+    @SerialDelivery
+    public static class SerialBulkheadHandler implements EventHandler {
+
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final CountDownLatch done = new CountDownLatch(50);
+
+        @Bulkhead("io")
+        public void onOrder(OrderEvent event) {
+            received.add(event.index);
+            threads.add(Thread.currentThread().getName());
+            done.countDown();
+        }
+    }
+
+    public static class AdaptiveHandler implements EventHandler {
+
+        public void onSlow(SlowEvent event) throws InterruptedException {
+            Thread.sleep(5L);
+            event.thread.set(Thread.currentThread().getName());
+            event.done.countDown();
+        }
+
+        public void onFast(ThreadEvent event) {
+            event.done.countDown();
+        }
+    }
+
+}
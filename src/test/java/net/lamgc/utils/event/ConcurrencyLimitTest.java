@@ -0,0 +1,239 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrencyLimitTest {
+
+    private static EventExecutor newExecutor(int threads) {
+        return new EventExecutor(new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    @Test
+    public void limitTest() throws IllegalAccessException, InterruptedException {
+        for (DispatchGranularity granularity : DispatchGranularity.values()) {
+            EventExecutor executor = newExecutor(8);
+            executor.setDispatchGranularity(granularity);
+            LimitedHandler handler = new LimitedHandler();
+            executor.addHandler(handler);
+            for (int i = 0; i < 100; i++) {
+                executor.executor(new LimitedEvent(i));
+            }
+            executor.shutdown(false);
+            Assert.assertTrue(executor.awaitTermination(5L, TimeUnit.SECONDS));
+            Assert.assertEquals(granularity.name(), 100, handler.invocations.get());
+            Assert.assertTrue(granularity.name(), handler.maxConcurrency.get() <= 2);
+        }
+    }
+
+    @Test
+    public void parkedNotBlockingPoolTest() throws IllegalAccessException, InterruptedException, NoSuchMethodException {
+        EventExecutor executor = newExecutor(2);
+        LimitedHandler handler = new LimitedHandler();
+        executor.addHandler(handler);
+        BlockEvent blockEvent = new BlockEvent();
+        for (int i = 0; i < 5; i++) {
+            executor.executor(blockEvent);
+        }
+        Assert.assertTrue(blockEvent.started.await(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(4,
+                executor.getParkedDeliveryCount(LimitedHandler.class.getMethod("onBlock", BlockEvent.class)));
+
+        // 超出限制的投递在等待队列中暂存, 线程池的另一个线程依然可以执行其他事件方法.
+        FreeEvent freeEvent = new FreeEvent();
+        executor.executor(freeEvent);
+        Assert.assertTrue(freeEvent.done.await(1L, TimeUnit.SECONDS));
+
+        blockEvent.release.countDown();
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(5, blockEvent.invocations.get());
+        Assert.assertEquals(0,
+                executor.getParkedDeliveryCount(LimitedHandler.class.getMethod("onBlock", BlockEvent.class)));
+    }
+
+    @Test
+    public void orderTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(4);
+        OrderHandler handler = new OrderHandler();
+        executor.addHandler(handler);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            executor.executor(new LimitedEvent(i));
+            expected.add(i);
+        }
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(5L, TimeUnit.SECONDS));
+        Assert.assertEquals(expected, handler.received);
+    }
+
+    @Test
+    public void syncTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(4);
+        LimitedHandler handler = new LimitedHandler();
+        executor.addHandler(handler);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(executor.executorSync(new LimitedEvent(i), 1L, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(20, handler.invocations.get());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void shutdownNowTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(2);
+        executor.addHandler(new LimitedHandler());
+        BlockEvent blockEvent = new BlockEvent();
+        for (int i = 0; i < 3; i++) {
+            executor.executor(blockEvent);
+        }
+        Assert.assertTrue(blockEvent.started.await(1L, TimeUnit.SECONDS));
+        List<Runnable> pendingTasks = executor.shutdown(true);
+        Assert.assertEquals(2, pendingTasks.size());
+        blockEvent.release.countDown();
+    }
+
+    @Test
+    public void rejectedTaskRequeuedTest() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException();
+        };
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        limiter.execute(owner, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+            finished.countDown();
+        });
+        AtomicInteger rejectedRuns = new AtomicInteger();
+        Runnable rejectedTask = rejectedRuns::incrementAndGet;
+        limiter.execute(rejecting, rejectedTask);
+        Assert.assertEquals(1, limiter.getParkedCount());
+
+        // 其他执行器的任务不会在持有许可的线程中执行, 被拒绝后放回等待队列而不是丢弃.
+        release.countDown();
+        Assert.assertTrue(finished.await(1L, TimeUnit.SECONDS));
+        owner.shutdown();
+        Assert.assertTrue(owner.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(0, rejectedRuns.get());
+        Assert.assertEquals(0, limiter.getRunningCount());
+        Assert.assertEquals(Collections.singletonList(rejectedTask), limiter.drainParked());
+
+        // 当前线程提交的任务被拒绝时抛出异常, 不会在当前线程执行.
+        try {
+            limiter.execute(rejecting, rejectedTask);
+            Assert.fail("rejected task should throw");
+        } catch (RejectedExecutionException ignored) {
+        }
+        Assert.assertEquals(0, rejectedRuns.get());
+        Assert.assertEquals(0, limiter.getParkedCount());
+        Assert.assertEquals(0, limiter.getRunningCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLimitTest() throws IllegalAccessException {
+        newExecutor(1).addHandler(new InvalidHandler());
+    }
+
+    @Test
+    public void invalidHandlerNotRegisteredTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(1);
+        InvalidHandler handler = new InvalidHandler();
+        try {
+            executor.addHandler(handler);
+            Assert.fail("invalid handler should be rejected");
+        } catch (IllegalArgumentException ignored) {
+        }
+        // 注解解析失败时EventHandler的任何部分都不应被注册.
+        Assert.assertTrue(executor.executorSync(new FreeEvent(), 1L, TimeUnit.SECONDS));
+        Assert.assertEquals(0, handler.invocations.get());
+        executor.shutdown(true);
+    }
+
+    public static class LimitedEvent implements EventObject {
+        final int index;
+
+        LimitedEvent(int index) {
+            this.index = index;
+        }
+    }
+
+    public static class BlockEvent implements EventObject {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger invocations = new AtomicInteger();
+    }
+
+    public static class FreeEvent implements EventObject {
+        final CountDownLatch done = new CountDownLatch(1);
+    }
+
+    public static class LimitedHandler implements EventHandler {
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxConcurrency = new AtomicInteger();
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @ConcurrencyLimit(2)
+        public void onLimited(LimitedEvent event) throws InterruptedException {
+            int current = running.incrementAndGet();
+            maxConcurrency.accumulateAndGet(current, Math::max);
+            Thread.sleep(1L);
+            running.decrementAndGet();
+            invocations.incrementAndGet();
+        }
+
+        @ConcurrencyLimit(1)
+        public void onBlock(BlockEvent event) throws InterruptedException {
+            event.started.countDown();
+            event.release.await();
+            event.invocations.incrementAndGet();
+        }
+
+        public void onFree(FreeEvent event) {
+            event.done.countDown();
+        }
+    }
+
+    public static class OrderHandler implements EventHandler {
+
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+
+        @ConcurrencyLimit(1)
+        public void onLimited(LimitedEvent event) {
+            received.add(event.index);
+        }
+    }
+
+    public static class InvalidHandler implements EventHandler {
+
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @ConcurrencyLimit(0)
+        public void onLimited(LimitedEvent event) {
+        }
+
+        public void onFree(FreeEvent event) {
+            invocations.incrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+
+public class CopyOnWriteHandlerObjectMapTest {
+
+    @Test
+    public void addAndRemoveTest() {
+        CopyOnWriteHandlerObjectMap map = new CopyOnWriteHandlerObjectMap();
+        SimpleEventHandler handler1 = new SimpleEventHandler("handler1");
+        SimpleEventHandler handler2 = new SimpleEventHandler("handler2");
+        Assert.assertNull(map.getHandlerObject(SimpleEventHandler.class));
+
+        map.addHandlerObject(handler1);
+        map.addHandlerObject(handler2);
+        map.addHandlerObject(handler2);
+        Assert.assertEquals(2, map.getHandlerObject(SimpleEventHandler.class).size());
+
+        Assert.assertTrue(map.removeHandlerObject(handler1));
+        Assert.assertFalse(map.removeHandlerObject(handler2));
+        Assert.assertNull(map.getHandlerObject(SimpleEventHandler.class));
+        Assert.assertFalse(map.removeHandlerObject(handler2));
+    }
+
+    @Test
+    public void snapshotIterationTest() {
+        CopyOnWriteHandlerObjectMap map = new CopyOnWriteHandlerObjectMap();
+        map.addHandlerObject(new SimpleEventHandler("handler0"));
+        Set<EventHandler> snapshot = map.getHandlerObject(SimpleEventHandler.class);
+        int count = 0;
+        for (EventHandler ignored : snapshot) {
+            map.addHandlerObject(new SimpleEventHandler("handler" + (++count)));
+        }
+        Assert.assertEquals(1, snapshot.size());
+        Assert.assertEquals(2, map.getHandlerObject(SimpleEventHandler.class).size());
+    }
+
+}
@@ -0,0 +1,198 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DeadLetterStoreTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    private static File newFile() throws IOException {
+        File file = File.createTempFile("dead-letter", ".dat");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static DeadLetterStore newStore() throws IOException {
+        return new DeadLetterStore(newFile(), DeadLetterSerializer.javaSerialization());
+    }
+
+    @Test
+    public void failedEventTest() throws IOException, IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        DeadLetterStore store = newStore();
+        executor.setDeadLetterStore(store);
+        executor.addHandler(new FailingHandler());
+        executor.executor(new OrderEvent(1));
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+
+        List<DeadLetter> deadLetters = store.readAll();
+        Assert.assertEquals(1, deadLetters.size());
+        DeadLetter deadLetter = deadLetters.get(0);
+        Assert.assertEquals(1, ((OrderEvent) deadLetter.getEventObject()).id);
+        Assert.assertEquals(FailingHandler.class.getName(), deadLetter.getHandlerClassName());
+        Assert.assertTrue(deadLetter.getHandlerMethodName().contains("onOrder"));
+        Assert.assertTrue(deadLetter.getCause().contains("order 1 failed"));
+        store.close();
+    }
+
+    @Test
+    public void replayTest() throws IOException, IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        DeadLetterStore store = newStore();
+        executor.setDeadLetterStore(store);
+        FailingHandler handler = new FailingHandler();
+        executor.addHandler(handler);
+        for (int i = 0; i < 5; i++) {
+            executor.executor(new OrderEvent(i));
+        }
+        Thread.sleep(100L);
+        Assert.assertEquals(5, store.getAppendedCount());
+
+        handler.fail = false;
+        long start = System.nanoTime();
+        Assert.assertEquals(5, store.replay(executor, 20));
+        // 以每秒20个的速率投递5个事件, 至少需要200ms.
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150L));
+        Thread.sleep(100L);
+        Assert.assertEquals(5, handler.succeeded.get());
+        Assert.assertTrue(store.readAll().isEmpty());
+        executor.shutdown(true);
+        store.close();
+    }
+
+    @Test
+    public void shutdownNowTest() throws IOException, IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        DeadLetterStore store = newStore();
+        executor.setDeadLetterStore(store);
+        executor.addHandler(new FailingHandler());
+        BlockEvent blockEvent = new BlockEvent();
+        executor.executor(blockEvent);
+        Assert.assertTrue(blockEvent.started.await(1L, TimeUnit.SECONDS));
+        executor.executor(new OrderEvent(1));
+        executor.executor(new OrderEvent(2));
+        executor.executorDelayed(new OrderEvent(3), 1L, TimeUnit.HOURS);
+        Assert.assertEquals(2, executor.shutdown(true).size());
+
+        List<DeadLetter> deadLetters = store.readAll();
+        Assert.assertEquals(3, deadLetters.size());
+        int idSum = 0;
+        for (DeadLetter deadLetter : deadLetters) {
+            idSum += ((OrderEvent) deadLetter.getEventObject()).id;
+            Assert.assertTrue(deadLetter.getCause().contains("shut down"));
+        }
+        Assert.assertEquals(6, idSum);
+        store.close();
+    }
+
+    @Test
+    public void tornRecordTest() throws IOException {
+        File file = newFile();
+        DeadLetterStore store = new DeadLetterStore(file, DeadLetterSerializer.javaSerialization(),
+                1, 0L, TimeUnit.MILLISECONDS);
+        store.append(null, null, new OrderEvent(1), new IOException("failed"));
+        store.append(null, null, new OrderEvent(2), new IOException("failed"));
+        store.close();
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write(new byte[] {0, 0, 1, 0, 1, 2, 3});
+        }
+
+        DeadLetterStore reopened = new DeadLetterStore(file, DeadLetterSerializer.javaSerialization());
+        List<DeadLetter> deadLetters = reopened.readAll();
+        Assert.assertEquals(2, deadLetters.size());
+        Assert.assertNull(deadLetters.get(0).getHandlerClassName());
+        Assert.assertEquals(2, ((OrderEvent) deadLetters.get(1).getEventObject()).id);
+        reopened.close();
+    }
+
+    @Test
+    public void appendAfterTornRecordTest() throws IOException, IllegalAccessException, InterruptedException {
+        File file = newFile();
+        DeadLetterStore store = new DeadLetterStore(file, DeadLetterSerializer.javaSerialization(),
+                1, 0L, TimeUnit.MILLISECONDS);
+        store.append(null, null, new OrderEvent(1), new IOException("failed"));
+        store.close();
+        // 模拟崩溃时只写入了记录头和部分数据.
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write(new byte[] {0, 0, 1, 0, 1, 2, 3, 4, 5, 6, 7});
+        }
+
+        // 重新打开后写入的记录不应排在未写入完整的记录之后.
+        DeadLetterStore reopened = new DeadLetterStore(file, DeadLetterSerializer.javaSerialization(),
+                1, 0L, TimeUnit.MILLISECONDS);
+        reopened.append(null, null, new OrderEvent(2), new IOException("failed"));
+        reopened.append(null, null, new OrderEvent(3), new IOException("failed"));
+        List<DeadLetter> deadLetters = reopened.readAll();
+        Assert.assertEquals(3, deadLetters.size());
+        Assert.assertEquals(3, ((OrderEvent) deadLetters.get(2).getEventObject()).id);
+
+        EventExecutor executor = newExecutor();
+        FailingHandler handler = new FailingHandler();
+        handler.fail = false;
+        executor.addHandler(handler);
+        Assert.assertEquals(3, reopened.replay(executor, 100));
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(3, handler.succeeded.get());
+        Assert.assertTrue(reopened.readAll().isEmpty());
+        reopened.close();
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void notSerializableTest() throws IOException {
+        DeadLetterStore store = newStore();
+        try {
+            store.append(null, null, new BlockEvent(), new IOException("failed"));
+        } finally {
+            store.close();
+        }
+    }
+
+    public static class OrderEvent implements EventObject, Serializable {
+        final int id;
+
+        OrderEvent(int id) {
+            this.id = id;
+        }
+    }
+
+    public static class BlockEvent implements EventObject {
+        final CountDownLatch started = new CountDownLatch(1);
+    }
+
+    public static class FailingHandler implements EventHandler {
+
+        volatile boolean fail = true;
+        final AtomicInteger succeeded = new AtomicInteger();
+
+        public void onOrder(OrderEvent event) {
+            if(fail) {
+                throw new IllegalStateException("order " + event.id + " failed");
+            }
+            succeeded.incrementAndGet();
+        }
+
+        public void onBlock(BlockEvent event) throws InterruptedException {
+            event.started.countDown();
+            Thread.sleep(200L);
+        }
+    }
+
+}
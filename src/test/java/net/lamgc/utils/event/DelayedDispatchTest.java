@@ -0,0 +1,164 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DelayedDispatchTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(2, 2, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    @Test
+    public void delayedTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        DelayedHandler handler = new DelayedHandler();
+        executor.addHandler(handler);
+        long start = System.nanoTime();
+        ScheduledEvent scheduledEvent = executor.executorDelayed(new TickEvent(), 100L, TimeUnit.MILLISECONDS);
+        Assert.assertFalse(scheduledEvent.isDone());
+        Assert.assertTrue(handler.latch.await(1L, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100L));
+        Assert.assertTrue(scheduledEvent.isDone());
+        Assert.assertFalse(scheduledEvent.cancel());
+        Assert.assertEquals(1, scheduledEvent.getDeliveryCount());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void singleHandOffTest() throws IllegalAccessException, InterruptedException {
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(2, 2, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        EventExecutor executor = new EventExecutor(threadPool);
+        DelayedHandler handler = new DelayedHandler();
+        executor.addHandler(handler);
+        executor.executorDelayed(new TickEvent(), 50L, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(handler.latch.await(1L, TimeUnit.SECONDS));
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        // 到期后只提交一次任务, 事件方法直接在该任务中执行.
+        Assert.assertEquals(1, threadPool.getCompletedTaskCount());
+    }
+
+    @Test
+    public void cancelTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        DelayedHandler handler = new DelayedHandler();
+        executor.addHandler(handler);
+        ScheduledEvent scheduledEvent = executor.executorDelayed(new TickEvent(), 100L, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(scheduledEvent.cancel());
+        Assert.assertFalse(scheduledEvent.cancel());
+        Assert.assertTrue(scheduledEvent.isCancelled());
+        Thread.sleep(250L);
+        Assert.assertEquals(0, handler.count.get());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void periodicTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        DelayedHandler handler = new DelayedHandler();
+        executor.addHandler(handler);
+        ScheduledEvent scheduledEvent =
+                executor.executorPeriodic(new TickEvent(), 0L, 50L, TimeUnit.MILLISECONDS);
+        Thread.sleep(330L);
+        Assert.assertTrue(scheduledEvent.cancel());
+        Thread.sleep(60L);
+        int count = handler.count.get();
+        Assert.assertTrue("count: " + count, count >= 5 && count <= 8);
+        Assert.assertEquals(count, scheduledEvent.getDeliveryCount());
+        Thread.sleep(150L);
+        Assert.assertEquals(count, handler.count.get());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void delayedResendTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        executor.setEnableEventResend(true);
+        DelayedHandler handler = new DelayedHandler();
+        executor.addHandler(handler);
+        RetryEvent event = new RetryEvent();
+        executor.executor(event);
+        Assert.assertTrue(event.latch.await(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(3, event.attempts.get());
+        Assert.assertTrue(System.nanoTime() - event.firstAttempt >= TimeUnit.MILLISECONDS.toNanos(100L));
+        executor.shutdown(true);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void resendNotEnabledTest() {
+        EventExecutor.resendCurrentEvent(1L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void timingWheelTest() throws InterruptedException {
+        HashedTimingWheel timingWheel = new HashedTimingWheel(1L, TimeUnit.MILLISECONDS, 8, Thread::new);
+        int timerCount = 100000;
+        CountDownLatch latch = new CountDownLatch(timerCount / 2);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        for (int i = 0; i < timerCount; i++) {
+            // 延迟超过一轮, 以检验剩余轮数的计算.
+            long delay = 20 + i % 50;
+            if(i % 2 == 0) {
+                timingWheel.schedule(latch::countDown, delay, TimeUnit.MILLISECONDS);
+            } else {
+                Assert.assertTrue(timingWheel.newTimeout(cancelledRuns::incrementAndGet, delay, TimeUnit.MILLISECONDS)
+                        .cancel());
+            }
+        }
+        Assert.assertTrue(latch.await(5L, TimeUnit.SECONDS));
+        Thread.sleep(50L);
+        Assert.assertEquals(0, cancelledRuns.get());
+        Assert.assertEquals(0, timingWheel.getPendingCount());
+
+        timingWheel.schedule(() -> {}, 1L, TimeUnit.HOURS);
+        List<Runnable> unprocessed = timingWheel.stop();
+        Assert.assertEquals(1, unprocessed.size());
+        try {
+            timingWheel.schedule(() -> {}, 1L, TimeUnit.SECONDS);
+            Assert.fail("Timing wheel has been stopped");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    public static class TickEvent implements EventObject {
+    }
+
+    public static class RetryEvent implements EventObject {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile long firstAttempt;
+    }
+
+    public static class DelayedHandler implements EventHandler {
+
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        public void onTick(TickEvent event) {
+            count.incrementAndGet();
+            latch.countDown();
+        }
+
+        public void onRetry(RetryEvent event) {
+            if(event.attempts.incrementAndGet() == 1) {
+                event.firstAttempt = System.nanoTime();
+            }
+            if(event.attempts.get() < 3) {
+                EventExecutor.resendCurrentEvent(50L, TimeUnit.MILLISECONDS);
+            } else {
+                event.latch.countDown();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class EventCoalescingTest {
+
+    private static EventExecutor newExecutor(int threads) {
+        return new EventExecutor(new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    @Test
+    public void keepLatestInWindowTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(2);
+        CoalescingHandler handler = new CoalescingHandler();
+        executor.addHandler(handler);
+        executor.setCoalescing(RefreshEvent.class, 100L, TimeUnit.MILLISECONDS, null);
+        for (int i = 0; i < 1000; i++) {
+            executor.executor(new RefreshEvent("a", i));
+        }
+        for (int i = 0; i < 10; i++) {
+            executor.executor(new RefreshEvent("b", i));
+        }
+        Thread.sleep(400L);
+        Assert.assertEquals(2, handler.received.size());
+        Assert.assertTrue(handler.received.contains("a=999"));
+        Assert.assertTrue(handler.received.contains("b=9"));
+        Assert.assertEquals(1008, executor.getCoalescedCount(RefreshEvent.class));
+
+        executor.executor(new RefreshEvent(null, 1));
+        executor.executor(new RefreshEvent(null, 2));
+        Thread.sleep(100L);
+        Assert.assertEquals(4, handler.received.size());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void mergeFunctionTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(2);
+        CoalescingHandler handler = new CoalescingHandler();
+        executor.addHandler(handler);
+        executor.setCoalescing(RefreshEvent.class, 100L, TimeUnit.MILLISECONDS,
+                (pending, latest) -> new RefreshEvent(latest.key, pending.value + latest.value));
+        for (int i = 1; i <= 10; i++) {
+            executor.executor(new RefreshEvent("a", i));
+        }
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList("a=55"), handler.received);
+    }
+
+    @Test
+    public void coalesceWhileQueuedTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(1);
+        CoalescingHandler handler = new CoalescingHandler();
+        executor.addHandler(handler);
+        executor.setCoalescing(RefreshEvent.class, 0L, TimeUnit.MILLISECONDS, null);
+        BlockEvent blockEvent = new BlockEvent();
+        executor.executor(blockEvent);
+        for (int i = 0; i < 5; i++) {
+            executor.executor(new RefreshEvent("a", i));
+        }
+        blockEvent.release.countDown();
+        Thread.sleep(200L);
+        Assert.assertEquals(Collections.singletonList("a=4"), handler.received);
+        Assert.assertEquals(4, executor.getCoalescedCount(RefreshEvent.class));
+
+        executor.executor(new RefreshEvent("a", 5));
+        Thread.sleep(100L);
+        Assert.assertEquals(2, handler.received.size());
+        executor.shutdown(true);
+    }
+
+    public static class RefreshEvent implements CoalescingEventObject {
+        final String key;
+        final int value;
+
+        RefreshEvent(String key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public Object getCoalescingKey() {
+            return key;
+        }
+    }
+
+    public static class BlockEvent implements EventObject {
+        final CountDownLatch release = new CountDownLatch(1);
+    }
+
+    public static class CoalescingHandler implements EventHandler {
+
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+        public void onRefresh(RefreshEvent event) {
+            received.add(event.key + "=" + event.value);
+        }
+
+        public void onBlock(BlockEvent event) throws InterruptedException {
+            event.release.await();
+        }
+    }
+
+}
@@ -6,7 +6,13 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -350,4 +356,284 @@ public class EventExecutorTest {
         executor.shutdown(false);
     }
 
+    @Test
+    public void compiledInvokerSwitchTest() throws IllegalAccessException, InterruptedException {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                1,
+                (int) Math.ceil(Runtime.getRuntime().availableProcessors() / 2F),
+                30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(10)
+        );
+        EventExecutor executor = new EventExecutor(threadPoolExecutor);
+        AtomicInteger invokeCount = new AtomicInteger();
+        executor.addHandler(new SimpleEventHandler("handler1"));
+        executor.executor(new SimpleEventObject(1, "Compiled", invokeCount));
+        Thread.sleep(200L);
+        Assert.assertEquals(1, invokeCount.get());
+
+        executor.setEnableCompiledInvoker(false);
+        executor.executor(new SimpleEventObject(2, "Reflect", invokeCount));
+        Thread.sleep(200L);
+        Assert.assertEquals(2, invokeCount.get());
+        executor.shutdown(false);
+    }
+
+    @Test
+    public void methodHandleInvokerTest() throws Throwable {
+        EventMethodInvoker invoker = MethodHandleEventMethodInvoker.create(
+                SimpleEventHandler.class.getMethod("simpleEventHandler", SimpleEventObject.class));
+        AtomicInteger invokeCount = new AtomicInteger();
+        Assert.assertNull(invoker.invoke(new SimpleEventHandler("invoker"), new SimpleEventObject(0, "test", invokeCount)));
+        Assert.assertEquals(1, invokeCount.get());
+    }
+
+    @Test
+    public void lambdaInvokerTest() throws Throwable {
+        AtomicInteger invokeCount = new AtomicInteger();
+        EventMethodInvoker voidInvoker = LambdaEventMethodInvoker.create(
+                SimpleEventHandler.class.getMethod("simpleEventHandler", SimpleEventObject.class));
+        Assert.assertFalse(voidInvoker instanceof MethodHandleEventMethodInvoker);
+        Assert.assertNull(voidInvoker.invoke(new SimpleEventHandler("invoker"), new SimpleEventObject(0, "test", invokeCount)));
+        Assert.assertEquals(1, invokeCount.get());
+
+        EventMethodInvoker valueInvoker = LambdaEventMethodInvoker.create(
+                InvokerHandler.class.getMethod("onValue", SimpleEventObject.class));
+        Assert.assertFalse(valueInvoker instanceof MethodHandleEventMethodInvoker);
+        Assert.assertEquals(2, valueInvoker.invoke(new InvokerHandler(), new SimpleEventObject(2, "test", invokeCount)));
+
+        EventMethodInvoker staticInvoker = LambdaEventMethodInvoker.create(
+                InvokerHandler.class.getMethod("onStatic", SimpleEventObject.class));
+        Assert.assertEquals("test", staticInvoker.invoke(null, new SimpleEventObject(0, "test", invokeCount)));
+
+        try {
+            valueInvoker.invoke(new InvokerHandler(), new SimpleEventObject(-1, "test", invokeCount));
+            Assert.fail("The exception thrown by the event method was not rethrown");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals("test", expected.getMessage());
+        }
+    }
+
+    public static class InvokerHandler implements EventHandler {
+
+        public int onValue(SimpleEventObject event) {
+            if(event.errorCode < 0) {
+                throw new IllegalStateException(event.msg);
+            }
+            return event.errorCode;
+        }
+
+        public static String onStatic(SimpleEventObject event) {
+            return event.msg;
+        }
+    }
+
+    @Test
+    public void dispatchPlanCacheTest() throws IllegalAccessException, InterruptedException {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                1,
+                (int) Math.ceil(Runtime.getRuntime().availableProcessors() / 2F),
+                30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(10)
+        );
+        CountingHandlerList list = new CountingHandlerList();
+        EventExecutor executor = new EventExecutor(threadPoolExecutor, list, null);
+        executor.addHandler(new SimpleEventHandler("handler1"));
+        AtomicInteger invokeCount = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            executor.executorSync(new SimpleEventObject(i, "Cached", invokeCount));
+        }
+        Assert.assertEquals(10, invokeCount.get());
+        // 默认的getEventHandlerMethods每次返回新数组, 投递计划依然只创建一次.
+        Assert.assertEquals(1, list.lookups.get());
+
+        executor.removeHandler(new SimpleEventHandler("handler1"));
+        executor.addHandler(new SimpleEventHandler("handler2"));
+        executor.executorSync(new SimpleEventObject(0, "Rebuilt", invokeCount));
+        Assert.assertEquals(2, list.lookups.get());
+        executor.invalidateDispatchPlans();
+        executor.executorSync(new SimpleEventObject(0, "Invalidated", invokeCount));
+        Assert.assertEquals(3, list.lookups.get());
+        executor.shutdown(false);
+    }
+
+    private static class CountingHandlerList implements EventHandlerList {
+
+        private final BasicEventHandlerList delegate = new BasicEventHandlerList();
+
+        final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public Set<Method> getEventHandlerMethod(Class<? extends EventObject> eventObject) {
+            lookups.incrementAndGet();
+            return delegate.getEventHandlerMethod(eventObject);
+        }
+
+        @Override
+        public void addEventHandler(Class<? extends EventHandler> eventHandler) throws IllegalAccessException {
+            delegate.addEventHandler(eventHandler);
+        }
+
+        @Override
+        public void addEventHandlerMethod(Class<? extends EventObject> eventObject, Method eventHandlerMethod) {
+            delegate.addEventHandlerMethod(eventObject, eventHandlerMethod);
+        }
+
+        @Override
+        public void removeEventHandler(Class<? extends EventHandler> handler) {
+            delegate.removeEventHandler(handler);
+        }
+    }
+
+    @Test
+    public void dispatchGranularityTest() throws IllegalAccessException, InterruptedException {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                1,
+                (int) Math.ceil(Runtime.getRuntime().availableProcessors() / 2F),
+                30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(10)
+        );
+        EventExecutor executor = new EventExecutor(threadPoolExecutor);
+        Assert.assertEquals(DispatchGranularity.HANDLER, executor.getDispatchGranularity());
+        for (int i = 0; i < 3; i++) {
+            executor.addHandler(new SimpleEventHandler("handler" + i));
+        }
+        AtomicInteger invokeCount = new AtomicInteger();
+        for (DispatchGranularity granularity : DispatchGranularity.values()) {
+            executor.setDispatchGranularity(granularity);
+            invokeCount.set(0);
+            executor.executor(new SimpleEventObject(0, granularity.name(), invokeCount));
+            Thread.sleep(200L);
+            Assert.assertEquals(3, invokeCount.get());
+        }
+        executor.shutdown(false);
+    }
+
+    @Test
+    public void batchExecuteTest() throws IllegalAccessException, InterruptedException {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                1,
+                (int) Math.ceil(Runtime.getRuntime().availableProcessors() / 2F),
+                30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(10)
+        );
+        EventExecutor executor = new EventExecutor(threadPoolExecutor);
+        executor.addHandler(new SimpleEventHandler("handler1"));
+        executor.addHandler(new SimpleEventHandler("handler2"));
+        AtomicInteger invokeCount = new AtomicInteger();
+        List<EventObject> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(new SimpleEventObject(i, "batch", invokeCount));
+        }
+        events.add(new ExceptionThrowEvent(null));
+
+        Assert.assertEquals(22, executor.executorSync(events));
+        Assert.assertEquals(20, invokeCount.get());
+
+        invokeCount.set(0);
+        Assert.assertEquals(22, executor.executor(events));
+        Thread.sleep(200L);
+        Assert.assertEquals(20, invokeCount.get());
+        Assert.assertEquals(0, executor.executor(Collections.emptyList()));
+        executor.shutdown(false);
+    }
+
+    @Test
+    public void workStealingExecuteTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = new EventExecutor(new ForkJoinPool(2));
+        Assert.assertTrue(executor.isWorkStealing());
+        for (int i = 0; i < 50; i++) {
+            executor.addHandler(new SimpleEventHandler("handler" + i));
+        }
+        AtomicInteger invokeCount = new AtomicInteger();
+        for (DispatchGranularity granularity : DispatchGranularity.values()) {
+            executor.setDispatchGranularity(granularity);
+            invokeCount.set(0);
+            executor.executor(new SimpleEventObject(0, granularity.name(), invokeCount));
+            Thread.sleep(200L);
+            Assert.assertEquals(50, invokeCount.get());
+        }
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void plainExecutorTest() throws IllegalAccessException {
+        EventExecutor executor = new EventExecutor(Runnable::run);
+        Assert.assertNull(executor.getExecutorService());
+        Assert.assertFalse(executor.isWorkStealing());
+        AtomicBoolean handlerException = new AtomicBoolean(false);
+        executor.setEventUncaughtExceptionHandler((t, handler, handlerMethod, event, cause) -> handlerException.set(true));
+        executor.addHandler(new SimpleEventHandler("handler1"));
+        AtomicInteger invokeCount = new AtomicInteger();
+        executor.executor(new SimpleEventObject(0, "direct", invokeCount));
+        Assert.assertEquals(1, invokeCount.get());
+        executor.executor(new ExceptionThrowEvent(new NullPointerException()));
+        Assert.assertTrue(handlerException.get());
+        try {
+            executor.shutdown(false);
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+
+    @Test
+    public void virtualThreadModeTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = new EventExecutor(new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(50)));
+        if(!EventExecutor.isVirtualThreadSupported()) {
+            try {
+                executor.setVirtualThreadMode(true, 1);
+                Assert.fail();
+            } catch (UnsupportedOperationException ignored) {
+            }
+            Assert.assertFalse(executor.isVirtualThreadMode());
+            executor.shutdown(true);
+            return;
+        }
+        executor.setVirtualThreadMode(true, 2);
+        Assert.assertTrue(executor.isVirtualThreadMode());
+        for (int i = 0; i < 10; i++) {
+            executor.addHandler(new SimpleEventHandler("handler" + i));
+        }
+        AtomicInteger invokeCount = new AtomicInteger();
+        executor.executor(new SimpleEventObject(0, "virtual", invokeCount));
+        Thread.sleep(200L);
+        Assert.assertEquals(10, invokeCount.get());
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void asyncExecuteTest() throws Exception {
+        EventExecutor executor = new EventExecutor(new ThreadPoolExecutor(2, 2, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(50)));
+        AtomicInteger handlerExceptionCount = new AtomicInteger();
+        executor.setEventUncaughtExceptionHandler((t, handler, handlerMethod, event, cause) ->
+                handlerExceptionCount.incrementAndGet());
+        for (int i = 0; i < 3; i++) {
+            executor.addHandler(new SimpleEventHandler("handler" + i));
+        }
+
+        AtomicInteger invokeCount = new AtomicInteger();
+        List<EventDeliveryResult> results =
+                executor.executorAsync(new SimpleEventObject(0, "async", invokeCount)).get(1L, TimeUnit.SECONDS);
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(3, invokeCount.get());
+        for (EventDeliveryResult result : results) {
+            Assert.assertTrue(result.isSuccess());
+        }
+
+        results = executor.executorAsync(new ExceptionThrowEvent(new NullPointerException()))
+                .get(1L, TimeUnit.SECONDS);
+        Assert.assertEquals(3, results.size());
+        for (EventDeliveryResult result : results) {
+            Assert.assertFalse(result.isSuccess());
+            Assert.assertTrue(result.getCause() instanceof RuntimeException);
+        }
+        Assert.assertEquals(3, handlerExceptionCount.get());
+
+        Assert.assertTrue(executor.executorAsync(new EventObject() {}).get().isEmpty());
+        executor.shutdown(true);
+    }
+
 }
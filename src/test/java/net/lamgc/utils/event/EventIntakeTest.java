@@ -0,0 +1,154 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class EventIntakeTest {
+
+    private EventExecutor executor;
+
+    private IntakeHandler handler;
+
+    private void setUp(int capacity, IntakePolicy policy) throws IllegalAccessException {
+        executor = new EventExecutor(new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+        handler = new IntakeHandler();
+        executor.addHandler(handler);
+        executor.setIntakeLimit(IntakeEvent.class, capacity, policy);
+    }
+
+    /**
+     * 投递一个阻塞事件, 并等待其开始执行.
+     */
+    private CountDownLatch occupy() throws InterruptedException {
+        IntakeEvent event = new IntakeEvent(0, new CountDownLatch(1));
+        executor.executor(event);
+        Assert.assertTrue(event.started.await(1L, TimeUnit.SECONDS));
+        return event.release;
+    }
+
+    private void finish() throws InterruptedException {
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dropNewestTest() throws IllegalAccessException, InterruptedException {
+        setUp(2, IntakePolicy.DROP_NEWEST);
+        CountDownLatch release = occupy();
+        for (int i = 1; i <= 4; i++) {
+            executor.executor(new IntakeEvent(i, null));
+        }
+        IntakeStatistics statistics = executor.getIntakeStatistics(IntakeEvent.class);
+        Assert.assertEquals(2, statistics.getAccepted());
+        Assert.assertEquals(3, statistics.getDropped());
+        Assert.assertEquals(2, statistics.getPending());
+        release.countDown();
+        finish();
+        Assert.assertEquals(Arrays.asList(0, 1), handler.received);
+        Assert.assertEquals(0, executor.getIntakeStatistics(IntakeEvent.class).getPending());
+    }
+
+    @Test
+    public void dropOldestTest() throws IllegalAccessException, InterruptedException {
+        setUp(2, IntakePolicy.DROP_OLDEST);
+        CountDownLatch release = occupy();
+        for (int i = 1; i <= 4; i++) {
+            executor.executor(new IntakeEvent(i, null));
+        }
+        Assert.assertEquals(3, executor.getIntakeStatistics(IntakeEvent.class).getDropped());
+        release.countDown();
+        finish();
+        Assert.assertEquals(Arrays.asList(0, 4), handler.received);
+    }
+
+    @Test
+    public void coalesceTest() throws IllegalAccessException, InterruptedException {
+        setUp(2, IntakePolicy.COALESCE);
+        CountDownLatch release = occupy();
+        for (int i = 1; i <= 4; i++) {
+            executor.executor(new IntakeEvent(i, null));
+        }
+        Assert.assertEquals(3, executor.getIntakeStatistics(IntakeEvent.class).getCoalesced());
+        release.countDown();
+        finish();
+        Assert.assertEquals(Arrays.asList(0, 4), handler.received);
+    }
+
+    @Test
+    public void callerRunsTest() throws IllegalAccessException, InterruptedException {
+        setUp(1, IntakePolicy.CALLER_RUNS);
+        CountDownLatch release = occupy();
+        executor.executor(new IntakeEvent(1, null));
+        Assert.assertEquals(Collections.singletonList(Thread.currentThread()), handler.threadsOf(1));
+        Assert.assertEquals(1, executor.getIntakeStatistics(IntakeEvent.class).getCallerRuns());
+        release.countDown();
+        finish();
+    }
+
+    @Test
+    public void blockTest() throws IllegalAccessException, InterruptedException {
+        setUp(1, IntakePolicy.BLOCK);
+        CountDownLatch release = occupy();
+        Thread publisher = new Thread(() -> executor.executor(new IntakeEvent(1, null)));
+        publisher.start();
+        publisher.join(200L);
+        Assert.assertTrue(publisher.isAlive());
+        release.countDown();
+        publisher.join(1000L);
+        Assert.assertFalse(publisher.isAlive());
+        finish();
+        Assert.assertEquals(1, executor.getIntakeStatistics(IntakeEvent.class).getBlocked());
+        Assert.assertEquals(Arrays.asList(0, 1), handler.received);
+    }
+
+    public static class IntakeEvent implements EventObject {
+        final int id;
+        final CountDownLatch release;
+        final CountDownLatch started = new CountDownLatch(1);
+
+        IntakeEvent(int id, CountDownLatch release) {
+            this.id = id;
+            this.release = release;
+        }
+    }
+
+    public static class IntakeHandler implements EventHandler {
+
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+        public void onIntakeEvent(IntakeEvent event) throws InterruptedException {
+            event.started.countDown();
+            if(event.release != null) {
+                event.release.await();
+            }
+            synchronized (received) {
+                received.add(event.id);
+                threads.add(Thread.currentThread());
+            }
+        }
+
+        List<Thread> threadsOf(int id) {
+            List<Thread> result = new ArrayList<>();
+            synchronized (received) {
+                for (int i = 0; i < received.size(); i++) {
+                    if(received.get(i) == id) {
+                        result.add(threads.get(i));
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class EventQueryTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(4, 4, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100)));
+    }
+
+    @Test
+    public void queryAllTest() throws Exception {
+        EventExecutor executor = newExecutor();
+        for (int i = 1; i <= 3; i++) {
+            executor.addHandler(new QueryHandler(i, 0L));
+        }
+        executor.addHandler(new NoResultHandler());
+
+        EventQuery<Integer> query = executor.query(new QueryEvent(), Integer.class);
+        List<Integer> results = query.all().get(1L, TimeUnit.SECONDS);
+        Assert.assertEquals(3, results.size());
+        Assert.assertTrue(query.isDone());
+        Assert.assertEquals(Integer.valueOf(6), query.reduce(0, Integer::sum).get(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(4, query.getDeliveryResults().get().size());
+        Assert.assertEquals(0, query.getFailureCount());
+
+        Assert.assertNotNull(executor.query(new QueryEvent(), int.class).first().get(1L, TimeUnit.SECONDS));
+        Assert.assertTrue(executor.query(new QueryEvent(), String.class).all().get(1L, TimeUnit.SECONDS).isEmpty());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void queryPartialResultTest() throws Exception {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new QueryHandler(1, 0L));
+        executor.addHandler(new QueryHandler(2, 0L));
+        executor.addHandler(new QueryHandler(100, 1000L));
+
+        EventQuery<Integer> query = executor.query(new QueryEvent(), Integer.class);
+        Assert.assertEquals(Integer.valueOf(3),
+                query.reduce(0, Integer::sum, 300L, TimeUnit.MILLISECONDS).get(1L, TimeUnit.SECONDS));
+        Assert.assertFalse(query.isDone());
+        Assert.assertEquals(2, query.getPartialResults().size());
+        Assert.assertEquals(3, query.all().get(2L, TimeUnit.SECONDS).size());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void queryFirstTimeoutTest() throws Exception {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new QueryHandler(1, 1000L));
+        EventQuery<Integer> query = executor.query(new QueryEvent(), Integer.class);
+        Assert.assertNull(query.first(100L, TimeUnit.MILLISECONDS).get(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(Integer.valueOf(1), query.first().get(2L, TimeUnit.SECONDS));
+        executor.shutdown(true);
+    }
+
+    public static class QueryEvent implements EventObject {
+    }
+
+    public static class QueryHandler implements EventHandler {
+
+        private final int value;
+
+        private final long delay;
+
+        QueryHandler(int value, long delay) {
+            this.value = value;
+            this.delay = delay;
+        }
+
+        public int onQuery(QueryEvent event) throws InterruptedException {
+            if(delay > 0) {
+                Thread.sleep(delay);
+            }
+            return value;
+        }
+    }
+
+    public static class NoResultHandler implements EventHandler {
+
+        public void onQuery(QueryEvent event) {
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class HandlerMetricsTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(2, 2, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    @Test
+    public void metricsTest() throws IllegalAccessException, InterruptedException, NoSuchMethodException {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new MetricsHandler());
+        executor.executor(new WorkEvent(false));
+        Thread.sleep(50L);
+        Assert.assertTrue(executor.getHandlerMetrics().isEmpty());
+
+        executor.setEnableMetrics(true);
+        for (int i = 0; i < 20; i++) {
+            executor.executor(new WorkEvent(i % 5 == 0));
+        }
+        executor.executor(new OtherEvent());
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(2L, TimeUnit.SECONDS));
+
+        Assert.assertEquals(2, executor.getHandlerMetrics().size());
+        List<HandlerMetrics> metricsList =
+                executor.getHandlerMetrics(MetricsHandler.class.getMethod("onWork", WorkEvent.class));
+        Assert.assertEquals(1, metricsList.size());
+        HandlerMetrics metrics = metricsList.get(0);
+        Assert.assertEquals(WorkEvent.class.getName(), metrics.getEventType());
+        Assert.assertEquals("onWork", metrics.getHandlerMethodName());
+        Assert.assertEquals(20, metrics.getInvocations());
+        Assert.assertEquals(4, metrics.getFailures());
+        Assert.assertEquals(0, metrics.getInFlight());
+        Assert.assertEquals(20, metrics.getExecutionTime().getCount());
+        Assert.assertEquals(20, metrics.getQueueWaitTime().getCount());
+        Assert.assertTrue(metrics.getExecutionTime().getP50() >= TimeUnit.MILLISECONDS.toNanos(5L));
+        // 两个线程处理20个耗时5ms的事件, 排队最久的事件至少等待了约45ms.
+        Assert.assertTrue(metrics.getQueueWaitTime().getMax() >= TimeUnit.MILLISECONDS.toNanos(30L));
+
+        executor.resetHandlerMetrics();
+        Assert.assertEquals(0, executor.getHandlerMetrics().get(0).getInvocations());
+    }
+
+    @Test
+    public void mxBeanTest() throws Exception {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new MetricsHandler());
+        ObjectName objectName = executor.registerMetricsMBean("metricsTest");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Assert.assertTrue(server.isRegistered(objectName));
+        Assert.assertEquals(false, server.getAttribute(objectName, "Enabled"));
+        server.setAttribute(objectName, new Attribute("Enabled", true));
+        Assert.assertTrue(executor.isEnableMetrics());
+
+        executor.executor(new OtherEvent());
+        Thread.sleep(50L);
+        CompositeData[] metrics = (CompositeData[]) server.getAttribute(objectName, "HandlerMetrics");
+        Assert.assertEquals(1, metrics.length);
+        Assert.assertEquals(1L, metrics[0].get("invocations"));
+        Assert.assertEquals(1L, ((CompositeData) metrics[0].get("executionTime")).get("count"));
+
+        executor.shutdown(true);
+        Assert.assertFalse(server.isRegistered(objectName));
+    }
+
+    @Test
+    public void histogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-1);
+        LatencySnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1001, snapshot.getCount());
+        Assert.assertEquals(1000000, snapshot.getMax());
+        long p50 = snapshot.getP50();
+        Assert.assertTrue("p50: " + p50, p50 >= 500000 && p50 <= 500000 * 1.125);
+        long p99 = snapshot.getP99();
+        Assert.assertTrue("p99: " + p99, p99 >= 990000 && p99 <= 1000000);
+        Assert.assertEquals(0, snapshot.getPercentile(0));
+
+        for (long value : new long[] {0, 7, 8, 15, 16, 1023, 1024, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            Assert.assertTrue(LatencyHistogram.bucketUpperBound(index) >= value);
+            Assert.assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value);
+        }
+    }
+
+    public static class WorkEvent implements EventObject {
+        final boolean fail;
+
+        WorkEvent(boolean fail) {
+            this.fail = fail;
+        }
+    }
+
+    public static class OtherEvent implements EventObject {
+    }
+
+    public static class MetricsHandler implements EventHandler {
+
+        public void onWork(WorkEvent event) throws InterruptedException {
+            Thread.sleep(5L);
+            if(event.fail) {
+                throw new IllegalStateException("failed");
+            }
+        }
+
+        public void onOther(OtherEvent event) {
+        }
+    }
+
+}
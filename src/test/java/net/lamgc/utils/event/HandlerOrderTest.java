@@ -0,0 +1,182 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class HandlerOrderTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(4, 4, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100)));
+    }
+
+    @Test
+    public void orderedDispatchTest() throws Exception {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new FirstHandler());
+        executor.addHandler(new FirstHandler());
+        executor.addHandler(new SecondHandler());
+        executor.addHandler(new LastHandler());
+
+        OrderEvent event = new OrderEvent();
+        executor.executor(event);
+        Thread.sleep(300L);
+        assertOrder(event);
+
+        event = new OrderEvent();
+        Assert.assertTrue(executor.executorSync(event, 1L, TimeUnit.SECONDS));
+        assertOrder(event);
+
+        event = new OrderEvent();
+        List<EventDeliveryResult> results = executor.executorAsync(event).get(1L, TimeUnit.SECONDS);
+        Assert.assertEquals(4, results.size());
+        assertOrder(event);
+
+        event = new OrderEvent();
+        executor.setEnableSyncInline(true);
+        executor.executorSync(event);
+        assertOrder(event);
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void orderedResultPositionTest() throws Exception {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new ParallelHandlerA());
+        executor.addHandler(new ParallelHandlerB());
+
+        // 并行执行的事件方法完成顺序不同, 结果列表依然按投递顺序排列.
+        List<Class<?>> firstPositions = resultPositions(executor, new ParallelEvent(ParallelHandlerA.class));
+        List<Class<?>> secondPositions = resultPositions(executor, new ParallelEvent(ParallelHandlerB.class));
+        Assert.assertEquals(2, firstPositions.size());
+        Assert.assertTrue(firstPositions.contains(ParallelHandlerA.class));
+        Assert.assertTrue(firstPositions.contains(ParallelHandlerB.class));
+        Assert.assertEquals(firstPositions, secondPositions);
+        executor.shutdown(true);
+    }
+
+    private static List<Class<?>> resultPositions(EventExecutor executor, ParallelEvent event) throws Exception {
+        List<EventDeliveryResult> results = executor.executorAsync(event).get(1L, TimeUnit.SECONDS);
+        Assert.assertEquals(event.slowHandler, event.records.get(1));
+        List<Class<?>> positions = new ArrayList<>();
+        for (EventDeliveryResult result : results) {
+            Assert.assertTrue(result.isSuccess());
+            positions.add(result.getHandler().getClass());
+        }
+        return positions;
+    }
+
+    @Test
+    public void cyclicDependencyTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new CyclicHandlerA());
+        try {
+            executor.addHandler(new CyclicHandlerB());
+            Assert.fail("cyclic dependency should be rejected");
+        } catch (IllegalStateException ignored) {
+        }
+        // 检查不通过的EventHandler不会被添加, 事件依然可以正常投递.
+        OrderEvent event = new OrderEvent();
+        Assert.assertTrue(executor.executorSync(event, 1L, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList("a"), event.records);
+        executor.shutdown(true);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void missingDependencyTest() throws IllegalAccessException {
+        EventExecutor executor = newExecutor();
+        executor.addHandler(new FirstHandler());
+        try {
+            executor.addHandler(new LastHandler());
+        } finally {
+            executor.shutdown(true);
+        }
+    }
+
+    private static void assertOrder(OrderEvent event) {
+        Assert.assertEquals(4, event.records.size());
+        Assert.assertEquals("first", event.records.get(0));
+        Assert.assertEquals("first", event.records.get(1));
+        Assert.assertEquals("second", event.records.get(2));
+        Assert.assertEquals("last", event.records.get(3));
+    }
+
+    public static class OrderEvent implements EventObject {
+        final List<String> records = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @HandlerOrder(priority = 10)
+    public static class FirstHandler implements EventHandler {
+        public void onOrderEvent(OrderEvent event) throws InterruptedException {
+            Thread.sleep(50L);
+            event.records.add("first");
+        }
+    }
+
+    public static class SecondHandler implements EventHandler {
+        public void onOrderEvent(OrderEvent event) throws InterruptedException {
+            Thread.sleep(20L);
+            event.records.add("second");
+        }
+    }
+
+    public static class LastHandler implements EventHandler {
+        @HandlerOrder(after = SecondHandler.class)
+        public void onOrderEvent(OrderEvent event) {
+            event.records.add("last");
+        }
+    }
+
+    public static class ParallelEvent implements EventObject {
+        final Class<?> slowHandler;
+        final List<Class<?>> records = Collections.synchronizedList(new ArrayList<>());
+
+        ParallelEvent(Class<?> slowHandler) {
+            this.slowHandler = slowHandler;
+        }
+
+        void record(EventHandler handler) throws InterruptedException {
+            if(handler.getClass() == slowHandler) {
+                Thread.sleep(50L);
+            }
+            records.add(handler.getClass());
+        }
+    }
+
+    @HandlerOrder
+    public static class ParallelHandlerA implements EventHandler {
+        public void onParallelEvent(ParallelEvent event) throws InterruptedException {
+            event.record(this);
+        }
+    }
+
+    public static class ParallelHandlerB implements EventHandler {
+        public void onParallelEvent(ParallelEvent event) throws InterruptedException {
+            event.record(this);
+        }
+    }
+
+    public static class CyclicHandlerA implements EventHandler {
+        public void onOrderEvent(OrderEvent event) {
+            event.records.add("a");
+        }
+    }
+
+    /**
+     * 优先级高于{@link CyclicHandlerA}, 却需要在其之后执行.
+     */
+    @HandlerOrder(priority = 10, after = CyclicHandlerA.class)
+    public static class CyclicHandlerB implements EventHandler {
+        public void onOrderEvent(OrderEvent event) {
+            event.records.add("b");
+        }
+    }
+
+}
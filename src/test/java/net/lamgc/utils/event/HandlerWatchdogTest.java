@@ -0,0 +1,223 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HandlerWatchdogTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    private static boolean containsSleep(StackTraceElement[] stackTrace) {
+        for (StackTraceElement element : stackTrace) {
+            if("java.lang.Thread".equals(element.getClassName()) && element.getMethodName().startsWith("sleep")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void slowHandlerReportTest() throws IllegalAccessException, InterruptedException, NoSuchMethodException {
+        EventExecutor executor = newExecutor();
+        AtomicInteger reports = new AtomicInteger();
+        AtomicReference<SlowHandlerReport> report = new AtomicReference<>();
+        CountDownLatch reported = new CountDownLatch(1);
+        executor.setSlowHandlerWatchdog(slowReport -> {
+            reports.incrementAndGet();
+            report.set(slowReport);
+            reported.countDown();
+        }, 50L, TimeUnit.MILLISECONDS);
+        executor.addHandler(new WatchdogHandler());
+        SlowEvent event = new SlowEvent(300L);
+        executor.executor(event);
+        Assert.assertTrue(reported.await(1L, TimeUnit.SECONDS));
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+
+        Assert.assertEquals(1, reports.get());
+        SlowHandlerReport slowReport = report.get();
+        Assert.assertSame(event, slowReport.getEventObject());
+        Assert.assertEquals(WatchdogHandler.class.getMethod("onSlow", SlowEvent.class), slowReport.getHandlerMethod());
+        Assert.assertTrue(slowReport.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(50L));
+        Assert.assertTrue(containsSleep(slowReport.getStackTrace()));
+    }
+
+    @Test
+    public void fastHandlerNotReportedTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        AtomicInteger reports = new AtomicInteger();
+        executor.setSlowHandlerWatchdog(slowReport -> reports.incrementAndGet(), 100L, TimeUnit.MILLISECONDS);
+        executor.addHandler(new WatchdogHandler());
+        for (int i = 0; i < 10; i++) {
+            executor.executor(new SlowEvent(1L));
+        }
+        Thread.sleep(300L);
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(0, reports.get());
+    }
+
+    @Test
+    public void timeoutInterruptTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        AtomicReference<Throwable> cause = new AtomicReference<>();
+        CountDownLatch timedOut = new CountDownLatch(1);
+        executor.setEventUncaughtExceptionHandler((thread, handler, method, event, e) -> {
+            if(e instanceof TimeoutException) {
+                cause.set(e);
+                timedOut.countDown();
+            }
+        });
+        WatchdogHandler handler = new WatchdogHandler();
+        executor.addHandler(handler);
+        BlockingEvent event = new BlockingEvent();
+        executor.executor(event);
+        Assert.assertTrue(timedOut.await(1L, TimeUnit.SECONDS));
+        Assert.assertTrue(event.interrupted.await(1L, TimeUnit.SECONDS));
+        Assert.assertTrue(containsSleep(cause.get().getStackTrace()));
+
+        // 中断只作用于超时的调用, 线程执行下一个任务时不应处于中断状态.
+        NextEvent nextEvent = new NextEvent();
+        executor.executor(nextEvent);
+        Assert.assertTrue(nextEvent.done.await(1L, TimeUnit.SECONDS));
+        Assert.assertFalse(nextEvent.interrupted.get());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void timeoutReportedOnceTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        AtomicInteger uncaught = new AtomicInteger();
+        AtomicReference<Throwable> cause = new AtomicReference<>();
+        AtomicReference<String> reportThread = new AtomicReference<>();
+        executor.setEventUncaughtExceptionHandler((thread, handler, method, event, e) -> {
+            uncaught.incrementAndGet();
+            cause.set(e);
+            reportThread.set(Thread.currentThread().getName());
+        });
+        executor.addHandler(new WatchdogHandler());
+        ThrowingEvent event = new ThrowingEvent();
+        executor.executor(event);
+        Assert.assertTrue(event.thrown.await(1L, TimeUnit.SECONDS));
+        Thread.sleep(100L);
+        executor.shutdown(true);
+
+        // 被超时中断后抛出的异常不再作为调用失败重复报告.
+        Assert.assertEquals(1, uncaught.get());
+        Assert.assertTrue(cause.get() instanceof TimeoutException);
+        Assert.assertEquals("EventExecutor-Watchdog", reportThread.get());
+    }
+
+    @Test
+    public void timeoutWithoutInterruptTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        CountDownLatch timedOut = new CountDownLatch(1);
+        executor.setEventUncaughtExceptionHandler((thread, handler, method, event, e) -> {
+            if(e instanceof TimeoutException) {
+                timedOut.countDown();
+            }
+        });
+        executor.addHandler(new WatchdogHandler());
+        NoInterruptEvent event = new NoInterruptEvent();
+        executor.executor(event);
+        Assert.assertTrue(timedOut.await(1L, TimeUnit.SECONDS));
+        Assert.assertTrue(event.done.await(1L, TimeUnit.SECONDS));
+        Assert.assertFalse(event.interrupted.get());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void finishBeforeTimeoutTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        AtomicInteger uncaught = new AtomicInteger();
+        executor.setEventUncaughtExceptionHandler((thread, handler, method, event, e) -> uncaught.incrementAndGet());
+        executor.addHandler(new WatchdogHandler());
+        NoInterruptEvent event = new NoInterruptEvent();
+        event.sleepMillis = 1L;
+        executor.executor(event);
+        Assert.assertTrue(event.done.await(1L, TimeUnit.SECONDS));
+        Thread.sleep(200L);
+        executor.shutdown(true);
+        Assert.assertEquals(0, uncaught.get());
+    }
+
+    public static class SlowEvent implements EventObject {
+        final long sleepMillis;
+
+        SlowEvent(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+    }
+
+    public static class BlockingEvent implements EventObject {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+    }
+
+    public static class ThrowingEvent implements EventObject {
+        final CountDownLatch thrown = new CountDownLatch(1);
+    }
+
+    public static class NoInterruptEvent implements EventObject {
+        volatile long sleepMillis = 200L;
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+    }
+
+    public static class NextEvent implements EventObject {
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+    }
+
+    public static class WatchdogHandler implements EventHandler {
+
+        public void onSlow(SlowEvent event) throws InterruptedException {
+            Thread.sleep(event.sleepMillis);
+        }
+
+        @HandlerTimeout(100)
+        public void onBlocking(BlockingEvent event) {
+            try {
+                Thread.sleep(5000L);
+            } catch (InterruptedException e) {
+                event.interrupted.countDown();
+            }
+        }
+
+        @HandlerTimeout(50)
+        public void onThrowing(ThrowingEvent event) throws InterruptedException {
+            try {
+                Thread.sleep(5000L);
+            } finally {
+                event.thrown.countDown();
+            }
+        }
+
+        @HandlerTimeout(value = 50, interrupt = false)
+        public void onNoInterrupt(NoInterruptEvent event) {
+            try {
+                Thread.sleep(event.sleepMillis);
+            } catch (InterruptedException e) {
+                event.interrupted.set(true);
+            }
+            event.done.countDown();
+        }
+
+        public void onNext(NextEvent event) {
+            event.interrupted.set(Thread.currentThread().isInterrupted());
+            event.done.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MicroBatchTest {
+
+    @Test
+    public void microBatchTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = new EventExecutor(
+                new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS, new LinkedBlockingQueue<>()));
+        BatchEventHandler handler = new BatchEventHandler();
+        executor.addHandler(handler);
+        AtomicInteger invokeCount = new AtomicInteger();
+        for (int i = 0; i < 12; i++) {
+            executor.executor(new SimpleEventObject(i, "batch", invokeCount));
+        }
+        Thread.sleep(300L);
+        Assert.assertEquals(12, invokeCount.get());
+        Assert.assertEquals(3, handler.batchSizes.size());
+        Assert.assertEquals(5, (int) handler.batchSizes.get(0));
+        Assert.assertEquals(5, (int) handler.batchSizes.get(1));
+        Assert.assertEquals(2, (int) handler.batchSizes.get(2));
+        executor.shutdown(false);
+    }
+
+    @Test
+    public void flushOnShutdownTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = new EventExecutor(
+                new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS, new LinkedBlockingQueue<>()));
+        executor.addHandler(new BatchEventHandler());
+        AtomicInteger invokeCount = new AtomicInteger();
+        executor.executor(new SimpleEventObject(0, "batch", invokeCount));
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(1, invokeCount.get());
+    }
+
+    @Test
+    public void checkMethodTest() throws NoSuchMethodException {
+        Method method = BatchEventHandler.class.getMethod("batchHandler", List.class);
+        Assert.assertTrue(EventExecutor.checkMethod(method));
+        Assert.assertEquals(SimpleEventObject.class, EventExecutor.getEventType(method));
+        Assert.assertFalse(EventExecutor.checkMethod(BatchEventHandler.class.getMethod("notAnnotated", List.class)));
+    }
+
+    public static class BatchEventHandler implements EventHandler {
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @MicroBatch(maxSize = 5, maxLinger = 50)
+        public void batchHandler(List<SimpleEventObject> events) {
+            batchSizes.add(events.size());
+            events.forEach(event -> event.invokeCount.incrementAndGet());
+        }
+
+        public void notAnnotated(List<SimpleEventObject> events) {
+            Assert.fail();
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class PartitionedDispatchTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(4, 4, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000)));
+    }
+
+    @Test
+    public void partitionOrderTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        executor.setPartitionLaneCount(3);
+        Assert.assertEquals(3, executor.getPartitionLaneCount());
+        PartitionHandler handler = new PartitionHandler();
+        executor.addHandler(handler);
+        executor.addHandler(new PartitionHandler());
+        for (int i = 0; i < 100; i++) {
+            for (int key = 0; key < 5; key++) {
+                executor.executor(new KeyedEvent(key, i));
+            }
+        }
+        for (int key = 0; key < 5; key++) {
+            Assert.assertTrue(executor.executorSync(new KeyedEvent(key, 100), 5L, TimeUnit.SECONDS));
+        }
+        assertOrdered(handler, 5, 101);
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void partitionBatchTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        PartitionHandler handler = new PartitionHandler();
+        executor.addHandler(handler);
+        List<KeyedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            events.add(new KeyedEvent("a", i));
+            events.add(new KeyedEvent("b", i));
+        }
+        Assert.assertEquals(100, executor.executorSync(events));
+        assertOrdered(handler, 2, 50);
+        executor.shutdown(true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLaneCountTest() {
+        newExecutor().setPartitionLaneCount(0);
+    }
+
+    private static void assertOrdered(PartitionHandler handler, int keyCount, int eventCount) {
+        Assert.assertEquals(keyCount, handler.sequenceMap.size());
+        for (List<Integer> sequence : handler.sequenceMap.values()) {
+            Assert.assertEquals(eventCount, sequence.size());
+            for (int i = 0; i < sequence.size(); i++) {
+                Assert.assertEquals(i, sequence.get(i).intValue());
+            }
+        }
+    }
+
+    public static class KeyedEvent implements PartitionedEventObject {
+        final Object key;
+        final int sequence;
+
+        KeyedEvent(Object key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public Object getPartitionKey() {
+            return key;
+        }
+    }
+
+    public static class PartitionHandler implements EventHandler {
+
+        final Map<Object, List<Integer>> sequenceMap = new ConcurrentHashMap<>();
+
+        public void onKeyedEvent(KeyedEvent event) {
+            sequenceMap.computeIfAbsent(event.key, key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(event.sequence);
+        }
+    }
+
+}
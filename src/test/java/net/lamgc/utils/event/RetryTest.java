@@ -0,0 +1,162 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RetryTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    @Test
+    public void recoverTest() throws IllegalAccessException, InterruptedException, NoSuchMethodException {
+        EventExecutor executor = newExecutor();
+        AtomicInteger uncaught = new AtomicInteger();
+        executor.setEventUncaughtExceptionHandler((thread, handler, method, event, cause) -> uncaught.incrementAndGet());
+        RetryHandler handler = new RetryHandler();
+        executor.addHandler(handler);
+        FlakyEvent event = new FlakyEvent(2);
+        executor.executor(event);
+        Assert.assertTrue(event.succeeded.await(1L, TimeUnit.SECONDS));
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(3, event.attempts.get());
+        Assert.assertEquals(0, uncaught.get());
+
+        RetryStatistics statistics =
+                executor.getRetryStatistics(RetryHandler.class.getMethod("onFlaky", FlakyEvent.class));
+        Assert.assertNotNull(statistics);
+        Assert.assertEquals(3, statistics.getMaxAttempts());
+        Assert.assertEquals(2, statistics.getRetries());
+        Assert.assertEquals(1, statistics.getRecovered());
+        Assert.assertEquals(0, statistics.getExhausted());
+    }
+
+    @Test
+    public void exhaustedTest() throws IllegalAccessException, InterruptedException, NoSuchMethodException {
+        EventExecutor executor = newExecutor();
+        AtomicReference<Throwable> cause = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        executor.setEventUncaughtExceptionHandler((thread, handler, method, event, e) -> {
+            cause.set(e);
+            failed.countDown();
+        });
+        RetryHandler handler = new RetryHandler();
+        executor.addHandler(handler);
+        FlakyEvent event = new FlakyEvent(Integer.MAX_VALUE);
+        executor.executor(event);
+        Assert.assertTrue(failed.await(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(3, event.attempts.get());
+        Assert.assertTrue(cause.get() instanceof IOException);
+        Assert.assertEquals("attempt 3", cause.get().getMessage());
+
+        RetryStatistics statistics =
+                executor.getRetryStatistics(RetryHandler.class.getMethod("onFlaky", FlakyEvent.class));
+        Assert.assertEquals(2, statistics.getRetries());
+        Assert.assertEquals(0, statistics.getRecovered());
+        Assert.assertEquals(1, statistics.getExhausted());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void notRetryableTest() throws IllegalAccessException, InterruptedException, NoSuchMethodException {
+        EventExecutor executor = newExecutor();
+        CountDownLatch failed = new CountDownLatch(1);
+        executor.setEventUncaughtExceptionHandler((thread, handler, method, event, e) -> failed.countDown());
+        RetryHandler handler = new RetryHandler();
+        executor.addHandler(handler);
+        BrokenEvent event = new BrokenEvent();
+        executor.executor(event);
+        Assert.assertTrue(failed.await(1L, TimeUnit.SECONDS));
+        Thread.sleep(100L);
+        Assert.assertEquals(1, event.attempts.get());
+        RetryStatistics statistics =
+                executor.getRetryStatistics(RetryHandler.class.getMethod("onBroken", BrokenEvent.class));
+        Assert.assertEquals(0, statistics.getRetries());
+        Assert.assertEquals(1, statistics.getExhausted());
+        Assert.assertNull(executor.getRetryStatistics(RetryHandler.class.getMethod("onPlain", PlainEvent.class)));
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void backoffNotHoldingThreadTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        RetryHandler handler = new RetryHandler();
+        executor.addHandler(handler);
+        SlowRetryEvent slowEvent = new SlowRetryEvent();
+        executor.executor(slowEvent);
+        Thread.sleep(50L);
+        PlainEvent plainEvent = new PlainEvent();
+        executor.executor(plainEvent);
+        // 单线程执行器在等待重试期间仍可执行其他事件.
+        Assert.assertTrue(plainEvent.received.await(100L, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, slowEvent.attempts.get());
+        Assert.assertTrue(slowEvent.succeeded.await(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(2, slowEvent.attempts.get());
+        executor.shutdown(true);
+    }
+
+    public static class FlakyEvent implements EventObject {
+        final int failures;
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch succeeded = new CountDownLatch(1);
+
+        FlakyEvent(int failures) {
+            this.failures = failures;
+        }
+    }
+
+    public static class BrokenEvent implements EventObject {
+        final AtomicInteger attempts = new AtomicInteger();
+    }
+
+    public static class SlowRetryEvent implements EventObject {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch succeeded = new CountDownLatch(1);
+    }
+
+    public static class PlainEvent implements EventObject {
+        final CountDownLatch received = new CountDownLatch(1);
+    }
+
+    public static class RetryHandler implements EventHandler {
+
+        @Retry(delay = 10L, jitter = 0)
+        public void onFlaky(FlakyEvent event) throws IOException {
+            int attempt = event.attempts.incrementAndGet();
+            if(attempt <= event.failures) {
+                throw new IOException("attempt " + attempt);
+            }
+            event.succeeded.countDown();
+        }
+
+        @Retry(retryOn = IOException.class)
+        public void onBroken(BrokenEvent event) {
+            event.attempts.incrementAndGet();
+            throw new IllegalStateException("broken");
+        }
+
+        @Retry(delay = 300L)
+        public void onSlowRetry(SlowRetryEvent event) {
+            if(event.attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("retry later");
+            }
+            event.succeeded.countDown();
+        }
+
+        public void onPlain(PlainEvent event) {
+            event.received.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RingBufferExecutorTest {
+
+    @Test
+    public void waitStrategyTest() throws InterruptedException {
+        for (RingBufferExecutor.WaitStrategy waitStrategy : RingBufferExecutor.WaitStrategy.values()) {
+            RingBufferExecutor ringBuffer = new RingBufferExecutor(64, 2, waitStrategy);
+            final int producerCount = 4;
+            final int taskCount = 10000;
+            final AtomicInteger executeCount = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(producerCount * taskCount);
+            Thread[] producers = new Thread[producerCount];
+            for (int i = 0; i < producerCount; i++) {
+                producers[i] = new Thread(() -> {
+                    for (int j = 0; j < taskCount; j++) {
+                        ringBuffer.execute(() -> {
+                            executeCount.incrementAndGet();
+                            latch.countDown();
+                        });
+                    }
+                });
+                producers[i].start();
+            }
+            Assert.assertTrue(waitStrategy.name(), latch.await(10L, TimeUnit.SECONDS));
+            Assert.assertEquals(producerCount * taskCount, executeCount.get());
+            ringBuffer.shutdown();
+            Assert.assertTrue(ringBuffer.awaitTermination(1L, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void shutdownWhileSubmittingTest() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            RingBufferExecutor ringBuffer = new RingBufferExecutor(16, 2, RingBufferExecutor.WaitStrategy.YIELDING);
+            AtomicInteger accepted = new AtomicInteger();
+            AtomicInteger executed = new AtomicInteger();
+            Thread[] producers = new Thread[4];
+            for (int i = 0; i < producers.length; i++) {
+                producers[i] = new Thread(() -> {
+                    try {
+                        for (;;) {
+                            ringBuffer.execute(executed::incrementAndGet);
+                            accepted.incrementAndGet();
+                        }
+                    } catch (RejectedExecutionException ignored) {
+                        // 执行器已关闭.
+                    }
+                });
+                producers[i].start();
+            }
+            Thread.sleep(5L);
+            ringBuffer.shutdown();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            Assert.assertTrue(ringBuffer.awaitTermination(5L, TimeUnit.SECONDS));
+            // 已被接收的任务都必须被执行.
+            Assert.assertEquals(accepted.get(), executed.get());
+        }
+    }
+
+    @Test
+    public void shutdownNowTest() throws InterruptedException {
+        RingBufferExecutor ringBuffer = new RingBufferExecutor(16, 1,
+                RingBufferExecutor.WaitStrategy.PARKING, 1, Executors.defaultThreadFactory());
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ringBuffer.execute(() -> {
+            startLatch.countDown();
+            try {
+                blockLatch.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Assert.assertTrue(startLatch.await(1L, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            ringBuffer.execute(() -> {});
+        }
+        List<Runnable> pendingTasks = ringBuffer.shutdownNow();
+        Assert.assertEquals(5, pendingTasks.size());
+        Assert.assertTrue(ringBuffer.awaitTermination(1L, TimeUnit.SECONDS));
+        try {
+            ringBuffer.execute(() -> {});
+            Assert.fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    @Test
+    public void eventExecutorTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = new EventExecutor(new RingBufferExecutor(1024, 2, RingBufferExecutor.WaitStrategy.YIELDING));
+        Assert.assertNull(executor.getThreadPoolExecutor());
+        executor.addHandler(new SimpleEventHandler("handler1"));
+        executor.addHandler(new SimpleEventHandler("handler2"));
+        AtomicInteger invokeCount = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            executor.executor(new SimpleEventObject(i, "RingBuffer", invokeCount));
+        }
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(200, invokeCount.get());
+    }
+
+}
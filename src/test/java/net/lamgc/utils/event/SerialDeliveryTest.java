@@ -0,0 +1,233 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SerialDeliveryTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(4, 4, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000)));
+    }
+
+    @Test
+    public void serialOrderTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        SerialHandler handlerA = new SerialHandler();
+        SerialHandler handlerB = new SerialHandler();
+        executor.addHandler(handlerA);
+        executor.addHandler(handlerB);
+        for (DispatchGranularity granularity : DispatchGranularity.values()) {
+            executor.setDispatchGranularity(granularity);
+            handlerA.sequence.clear();
+            handlerB.sequence.clear();
+            for (int i = 0; i < 200; i++) {
+                executor.executor(new SequenceEvent(i));
+            }
+            executor.executorSync(new SequenceEvent(200));
+            Thread.sleep(100L);
+            assertSerial(handlerA, 201);
+            assertSerial(handlerB, 201);
+        }
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void serialBatchTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        SerialHandler handler = new SerialHandler();
+        executor.addHandler(handler);
+        List<SequenceEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new SequenceEvent(i));
+        }
+        executor.executor(events.subList(0, 50));
+        Assert.assertEquals(50, executor.executorSync(events.subList(50, 100)));
+        assertSerial(handler, 100);
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void serialHandOffTest() throws IllegalAccessException, InterruptedException {
+        AtomicInteger uncaught = new AtomicInteger();
+        EventExecutor executor = new EventExecutor(new ThreadPoolExecutor(4, 4, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), r -> {
+                    Thread thread = new Thread(r);
+                    thread.setUncaughtExceptionHandler((t, e) -> uncaught.incrementAndGet());
+                    return thread;
+                }));
+        executor.setUncaughtExceptionHandler((t, e) -> uncaught.incrementAndGet());
+        executor.setEventUncaughtExceptionHandler((t, handler, method, event, cause) -> uncaught.incrementAndGet());
+        ExecutorService bulkhead = Executors.newFixedThreadPool(2);
+        executor.registerBulkhead("io", bulkhead);
+        HandOffHandler handler = new HandOffHandler();
+        executor.addHandler(handler);
+
+        // 串行投递的对象中受并发限制或隔离的事件方法交由其执行器执行, 依然不能与其他投递并发, 且保持投递顺序.
+        int count = 0;
+        for (int i = 0; i < 100; i++) {
+            executor.executor(new SequenceEvent(count++));
+            executor.executor(new LimitedEvent(count++));
+            executor.executor(new SequenceEvent(count++));
+            executor.executor(new IsolatedEvent(count++));
+        }
+        executor.executorSync(new SequenceEvent(count++));
+        long deadline = System.currentTimeMillis() + 5000L;
+        while(handler.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertSerial(handler, count);
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        bulkhead.shutdownNow();
+        Assert.assertEquals(0, uncaught.get());
+    }
+
+    @Test
+    public void rejectedMailboxTaskTest() {
+        List<Integer> executed = new ArrayList<>();
+        AtomicReference<SerialMailbox> mailboxRef = new AtomicReference<>();
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        SerialMailbox mailbox = new SerialMailbox(task -> {
+            if(rejecting.get()) {
+                // 模拟执行器拒绝前其他线程提交的任务.
+                mailboxRef.get().execute(() -> executed.add(2));
+                throw new RejectedExecutionException();
+            }
+            task.run();
+        });
+        mailboxRef.set(mailbox);
+        try {
+            mailbox.execute(() -> executed.add(1));
+            Assert.fail("rejected task should throw");
+        } catch (RejectedExecutionException ignored) {
+        }
+
+        // 只有被拒绝的任务被移除, 其他任务保留在邮箱中, 由之后的提交继续执行.
+        rejecting.set(false);
+        mailbox.execute(() -> executed.add(3));
+        Assert.assertEquals(Arrays.asList(2, 3), executed);
+        Assert.assertTrue(mailbox.drainStalled().isEmpty());
+    }
+
+    @Test
+    public void drainStalledTest() {
+        AtomicBoolean nested = new AtomicBoolean();
+        AtomicReference<SerialMailbox> mailboxRef = new AtomicReference<>();
+        Runnable pending = () -> {
+        };
+        SerialMailbox mailbox = new SerialMailbox(task -> {
+            if(nested.compareAndSet(false, true)) {
+                mailboxRef.get().execute(pending);
+            }
+            throw new RejectedExecutionException();
+        });
+        mailboxRef.set(mailbox);
+        try {
+            mailbox.execute(() -> {
+            });
+            Assert.fail("rejected task should throw");
+        } catch (RejectedExecutionException ignored) {
+        }
+        Assert.assertEquals(Collections.singletonList(pending), mailbox.drainStalled());
+        Assert.assertTrue(mailbox.drainStalled().isEmpty());
+    }
+
+    private static void assertSerial(SerialHandler handler, int count) {
+        Assert.assertEquals(1, handler.maxConcurrency.get());
+        List<Integer> sequence;
+        synchronized (handler.sequence) {
+            sequence = new ArrayList<>(handler.sequence);
+        }
+        Assert.assertEquals(count, sequence.size());
+        for (int i = 0; i < sequence.size(); i++) {
+            Assert.assertEquals(i, sequence.get(i).intValue());
+        }
+    }
+
+    public static class SequenceEvent implements EventObject {
+        final int sequence;
+
+        SequenceEvent(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    public static class LimitedEvent implements EventObject {
+        final int sequence;
+
+        LimitedEvent(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    public static class IsolatedEvent implements EventObject {
+        final int sequence;
+
+        IsolatedEvent(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    @SerialDelivery
+    public static class SerialHandler implements EventHandler {
+
+        final List<Integer> sequence = new ArrayList<>();
+        final AtomicInteger concurrency = new AtomicInteger();
+        final AtomicInteger maxConcurrency = new AtomicInteger();
+
+        public void onSequenceEvent(SequenceEvent event) {
+            record(event.sequence);
+        }
+
+        void record(int index) {
+            int current = concurrency.incrementAndGet();
+            maxConcurrency.accumulateAndGet(current, Math::max);
+            synchronized (sequence) {
+                sequence.add(index);
+            }
+            concurrency.decrementAndGet();
+        }
+
+        int size() {
+            synchronized (sequence) {
+                return sequence.size();
+            }
+        }
+    }
+
+    @SerialDelivery
+    public static class HandOffHandler extends SerialHandler {
+
+        @Override
+        public void onSequenceEvent(SequenceEvent event) {
+            record(event.sequence);
+        }
+
+        @ConcurrencyLimit(1)
+        public void onLimited(LimitedEvent event) {
+            record(event.sequence);
+        }
+
+        @Bulkhead("io")
+        public void onIsolated(IsolatedEvent event) {
+            record(event.sequence);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SyncDispatchTest {
+
+    private static EventExecutor newExecutor(int threads) {
+        return new EventExecutor(new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100)));
+    }
+
+    @Test
+    public void syncCompletionTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(2);
+        for (int i = 0; i < 4; i++) {
+            executor.addHandler(new SyncEventHandler(executor));
+        }
+        for (int i = 0; i < 1000; i++) {
+            SyncEvent event = new SyncEvent(null);
+            Assert.assertTrue(executor.executorSync(event, 5L, TimeUnit.SECONDS));
+            Assert.assertEquals(4, event.invokeCount.get());
+        }
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void reentrantSyncTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(1);
+        executor.addHandler(new SyncEventHandler(executor));
+        executor.addHandler(new SyncEventHandler(executor));
+        OuterEvent event = new OuterEvent();
+        Assert.assertTrue(executor.executorSync(event, 5L, TimeUnit.SECONDS));
+        Assert.assertEquals(4, event.inner.invokeCount.get());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void syncTimeoutTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(2);
+        executor.addHandler(new SyncEventHandler(executor));
+        executor.addHandler(new SyncEventHandler(executor));
+        SyncEvent event = new SyncEvent(new CountDownLatch(1));
+        Assert.assertFalse(executor.executorSync(event, 100L, TimeUnit.MILLISECONDS));
+        event.release.countDown();
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        Assert.assertEquals(2, event.invokeCount.get());
+    }
+
+    @Test
+    public void inlineSyncTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor(2);
+        executor.setEnableSyncInline(true);
+        for (int i = 0; i < 4; i++) {
+            executor.addHandler(new SyncEventHandler(executor));
+        }
+        SyncEvent event = new SyncEvent(null);
+        executor.executorSync(event);
+        Assert.assertEquals(4, event.invokeCount.get());
+        Assert.assertEquals(1, event.threads.size());
+        Assert.assertTrue(event.threads.contains(Thread.currentThread()));
+        executor.shutdown(true);
+    }
+
+    public static class SyncEvent implements EventObject {
+        final Thread caller = Thread.currentThread();
+        final CountDownLatch release;
+        final AtomicInteger invokeCount = new AtomicInteger();
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        SyncEvent(CountDownLatch release) {
+            this.release = release;
+        }
+    }
+
+    public static class OuterEvent implements EventObject {
+        final SyncEvent inner = new SyncEvent(null);
+    }
+
+    public static class SyncEventHandler implements EventHandler {
+
+        private final EventExecutor executor;
+
+        SyncEventHandler(EventExecutor executor) {
+            this.executor = executor;
+        }
+
+        public void onSyncEvent(SyncEvent event) throws InterruptedException {
+            event.threads.add(Thread.currentThread());
+            if(event.release != null && Thread.currentThread() != event.caller) {
+                event.release.await();
+            }
+            event.invokeCount.incrementAndGet();
+        }
+
+        public void onOuterEvent(OuterEvent event) throws InterruptedException {
+            executor.executorSync(event.inner);
+        }
+
+    }
+
+}
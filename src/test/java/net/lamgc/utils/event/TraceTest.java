@@ -0,0 +1,172 @@
+package net.lamgc.utils.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TraceTest {
+
+    private static EventExecutor newExecutor() {
+        return new EventExecutor(new ThreadPoolExecutor(2, 2, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    private static TraceSpan findSpan(List<TraceSpan> spans, String name) {
+        for (TraceSpan span : spans) {
+            if(span.getName().equals(name)) {
+                return span;
+            }
+        }
+        throw new AssertionError("Span not found: " + name);
+    }
+
+    @Test
+    public void nestedPublishTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        List<TraceSpan> spans = Collections.synchronizedList(new ArrayList<>());
+        executor.setTraceSink(spans::add);
+        TraceHandler handler = new TraceHandler(executor);
+        executor.addHandler(handler);
+        executor.executor(new OrderEvent());
+        Assert.assertTrue(handler.shipped.await(1L, TimeUnit.SECONDS));
+        executor.shutdown(false);
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+
+        Assert.assertEquals(4, spans.size());
+        TraceSpan orderPublish = findSpan(spans, "OrderEvent");
+        TraceSpan orderHandler = findSpan(spans, "TraceHandler#onOrder");
+        TraceSpan shipPublish = findSpan(spans, "ShipEvent");
+        TraceSpan shipHandler = findSpan(spans, "TraceHandler#onShip");
+        Assert.assertNull(orderPublish.getParentSpanId());
+        Assert.assertEquals(TraceSpan.CATEGORY_PUBLISH, orderPublish.getCategory());
+        Assert.assertEquals(orderPublish.getSpanId(), orderHandler.getParentSpanId());
+        Assert.assertEquals(orderHandler.getSpanId(), shipPublish.getParentSpanId());
+        Assert.assertEquals(shipPublish.getSpanId(), shipHandler.getParentSpanId());
+        Assert.assertEquals(TraceSpan.CATEGORY_HANDLER, shipHandler.getCategory());
+        Set<String> traceIds = new HashSet<>();
+        for (TraceSpan span : spans) {
+            traceIds.add(span.getTraceId());
+        }
+        Assert.assertEquals(Collections.singleton(orderPublish.getTraceId()), traceIds);
+        Assert.assertEquals(orderPublish.getTraceId(), handler.observedTraceId);
+        // 发布跨度在所有投递执行结束后才结束.
+        Assert.assertTrue(orderPublish.getDurationNanos() >= orderHandler.getDurationNanos());
+        Assert.assertTrue(orderHandler.getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(20L));
+    }
+
+    @Test
+    public void delayedResendTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        executor.setEnableEventResend(true);
+        List<TraceSpan> spans = Collections.synchronizedList(new ArrayList<>());
+        executor.setTraceSink(spans::add);
+        TraceHandler handler = new TraceHandler(executor);
+        executor.addHandler(handler);
+        RetryEvent event = new RetryEvent();
+        executor.executor(event);
+        Assert.assertTrue(event.done.await(1L, TimeUnit.SECONDS));
+        Thread.sleep(50L);
+
+        Set<String> traceIds = new HashSet<>();
+        int handlerSpans = 0;
+        for (TraceSpan span : spans) {
+            traceIds.add(span.getTraceId());
+            if(span.getCategory().equals(TraceSpan.CATEGORY_HANDLER)) {
+                handlerSpans++;
+            }
+        }
+        Assert.assertEquals(1, traceIds.size());
+        Assert.assertEquals(2, handlerSpans);
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void disabledTest() throws IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        TraceHandler handler = new TraceHandler(executor);
+        executor.addHandler(handler);
+        executor.executorSync(new ShipEvent());
+        Assert.assertNull(handler.observedTraceId);
+        Assert.assertNull(EventExecutor.getCurrentTraceId());
+        executor.shutdown(true);
+    }
+
+    @Test
+    public void chromeTraceSinkTest() throws IOException, IllegalAccessException, InterruptedException {
+        EventExecutor executor = newExecutor();
+        StringWriter writer = new StringWriter();
+        ChromeTraceSink sink = new ChromeTraceSink(writer);
+        executor.setTraceSink(sink);
+        executor.addHandler(new TraceHandler(executor));
+        executor.executorSync(new ShipEvent());
+        executor.shutdown(true);
+        sink.close();
+        sink.onSpan(new TraceSpan(1, 2, 0, "ignored", TraceSpan.CATEGORY_PUBLISH, "Event",
+                0, 0, 1, "main", false));
+
+        String trace = writer.toString();
+        Assert.assertTrue(trace.startsWith("[\n"));
+        Assert.assertTrue(trace.endsWith("\n]\n"));
+        Assert.assertTrue(trace.contains("\"name\":\"TraceHandler#onShip\",\"cat\":\"handler\",\"ph\":\"X\""));
+        Assert.assertTrue(trace.contains("\"name\":\"ShipEvent\",\"cat\":\"publish\""));
+        Assert.assertTrue(trace.contains("\"ph\":\"M\""));
+        Assert.assertFalse(trace.contains("ignored"));
+        Assert.assertFalse(trace.contains(",\n\n]"));
+    }
+
+    public static class OrderEvent implements EventObject {
+    }
+
+    public static class ShipEvent implements EventObject {
+    }
+
+    public static class RetryEvent implements EventObject {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+    }
+
+    public static class TraceHandler implements EventHandler {
+
+        private final EventExecutor executor;
+        volatile String observedTraceId;
+        final CountDownLatch shipped = new CountDownLatch(1);
+
+        TraceHandler(EventExecutor executor) {
+            this.executor = executor;
+        }
+
+        public void onOrder(OrderEvent event) throws InterruptedException {
+            observedTraceId = EventExecutor.getCurrentTraceId();
+            executor.executor(new ShipEvent());
+            Thread.sleep(20L);
+        }
+
+        public void onShip(ShipEvent event) {
+            if(observedTraceId == null) {
+                observedTraceId = EventExecutor.getCurrentTraceId();
+            }
+            shipped.countDown();
+        }
+
+        public void onRetry(RetryEvent event) {
+            if(event.attempts.incrementAndGet() == 1) {
+                EventExecutor.resendCurrentEvent(20L, TimeUnit.MILLISECONDS);
+            } else {
+                event.done.countDown();
+            }
+        }
+    }
+
+}